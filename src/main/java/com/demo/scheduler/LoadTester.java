@@ -1,10 +1,25 @@
 package com.demo.scheduler;
 
+import com.demo.scheduler.config.KafkaProducerProfile;
+import com.demo.scheduler.model.TaskEvent;
+import com.demo.scheduler.service.broker.TaskEventAvroSerializer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -15,7 +30,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * ============================
  * 
  * Standalone Java application to stress-test the Distributed Task Scheduler.
- * NO SPRING DEPENDENCIES - Uses raw Java HttpClient for maximum performance.
+ * NO SPRING DEPENDENCIES - Uses raw Java HttpClient for maximum performance
+ * (and the plain Kafka client in kafka mode).
  * 
  * Configuration:
  * - THREAD_COUNT: Number of concurrent threads (default: 50)
@@ -27,6 +43,12 @@ import java.util.concurrent.atomic.AtomicLong;
  * 
  * Or with custom settings:
  *   java -cp target/classes com.demo.scheduler.LoadTester <threads> <requests_per_thread>
+ *
+ * Kafka producer profile mode (no running scheduler needed, only a broker):
+ * produces MESSAGES task events straight to Kafka with each
+ * KafkaProducerProfile and reports messages/sec and bytes/sec on the wire.
+ *   java -cp <app classpath> [-Dkafka.bootstrap=localhost:9092] com.demo.scheduler.LoadTester
+ *        kafka [messages] [latency,throughput,durable]
  */
 public class LoadTester {
 
@@ -40,7 +62,12 @@ public class LoadTester {
     private static final AtomicLong failureCount = new AtomicLong(0);
     private static final AtomicLong totalLatency = new AtomicLong(0);
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 1 && args[0].equals("kafka")) {
+            runKafkaProfiles(args);
+            return;
+        }
+
         // Parse command line arguments
         if (args.length >= 2) {
             THREAD_COUNT = Integer.parseInt(args[0]);
@@ -151,6 +178,92 @@ public class LoadTester {
         executor.shutdown();
     }
 
+    /**
+     * Produces the same task events with each producer profile in turn.
+     */
+    private static void runKafkaProfiles(String[] args) throws IOException {
+        int messages = args.length >= 2 ? Integer.parseInt(args[1]) : 500_000;
+        String[] profiles = (args.length >= 3 ? args[2] : "latency,throughput,durable").split(",");
+        String bootstrap = System.getProperty("kafka.bootstrap", "localhost:9092");
+        String topic = "load-test-profiles";
+
+        System.out.println("""
+
+            ╔═══════════════════════════════════════════════════════════╗
+            ║           KAFKA PRODUCER PROFILE LOAD TEST                ║
+            ╚═══════════════════════════════════════════════════════════╝
+            """);
+        System.out.println("Configuration:");
+        System.out.println("  Bootstrap:           " + bootstrap);
+        System.out.println("  Topic:               " + topic);
+        System.out.println("  Messages/Profile:    " + String.format("%,d", messages));
+        System.out.println();
+
+        String createdAt = LocalDateTime.now().toString();
+        String schemaDir = Files.createTempDirectory("load-test-schemas").toString();
+        Map<String, String> results = new LinkedHashMap<>();
+        for (String name : profiles) {
+            KafkaProducerProfile profile = KafkaProducerProfile.of(name);
+            System.out.println("Running " + profile.name().toLowerCase() + "...");
+
+            Map<String, Object> configs = new HashMap<>(profile.configs());
+            configs.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+            configs.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+            configs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, TaskEventAvroSerializer.class);
+            configs.put(TaskEventAvroSerializer.SCHEMA_DIR_CONFIG, schemaDir);
+            configs.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 10_000);
+
+            AtomicLong failed = new AtomicLong();
+            try (KafkaProducer<String, TaskEvent> producer = new KafkaProducer<>(configs)) {
+                // Fails fast when the broker is unreachable, and keeps metadata out of the timing
+                producer.partitionsFor(topic);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < messages; i++) {
+                    TaskEvent event = new TaskEvent((long) i, "{\"orderId\":" + i + ",\"action\":\"charge\"}", createdAt, 5);
+                    producer.send(new ProducerRecord<>(topic, String.valueOf(i), event), (metadata, e) -> {
+                        if (e != null) {
+                            failed.incrementAndGet();
+                        }
+                    });
+                }
+                producer.flush();
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                double wireBytes = metric(producer, "outgoing-byte-total");
+                results.put(profile.name().toLowerCase(), String.format("%,12.0f %10.2f %12.0f %10.2f %,8d",
+                    messages / seconds, wireBytes / seconds / (1024 * 1024),
+                    metric(producer, "batch-size-avg"), metric(producer, "compression-rate-avg"), failed.get()));
+            } catch (Exception e) {
+                Throwable cause = e;
+                while (cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                System.out.println("  skipped: " + cause);
+            }
+        }
+
+        System.out.println();
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println("                    LOAD TEST RESULTS                       ");
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println();
+        System.out.println("  Profile          msgs/sec   MB/s wire  batch bytes  compress   failed");
+        results.forEach((name, row) -> System.out.printf("  %-12s %s%n", name, row));
+        System.out.println();
+    }
+
+    private static double metric(KafkaProducer<?, ?> producer, String name) {
+        for (Map.Entry<?, ? extends Metric> entry : producer.metrics().entrySet()) {
+            if (entry.getValue().metricName().name().equals(name)
+                    && entry.getValue().metricName().group().equals("producer-metrics")
+                    && entry.getValue().metricValue() instanceof Double value) {
+                return value;
+            }
+        }
+        return Double.NaN;
+    }
+
     /**
      * Worker method that sends REQUESTS_PER_THREAD POST requests.
      */
@@ -0,0 +1,413 @@
+package com.demo.scheduler.benchmark;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import com.demo.scheduler.service.MessageCaptureService;
+import com.demo.scheduler.service.broker.InMemoryTaskBroker;
+import com.demo.scheduler.service.broker.JournalTaskBroker;
+import com.demo.scheduler.service.broker.PolledTask;
+import com.demo.scheduler.service.broker.PostgresTaskBroker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * BROKER THROUGHPUT BENCHMARK
+ * ===========================
+ *
+ * Publishes TASKS task IDs in batches of BATCH while WORKERS consumers drain
+ * them, for each broker, and reports drain throughput plus publish -> receive
+ * latency. Every consumer takes up to BATCH IDs per round trip, like
+ * TaskWorker's consumer loop with scheduler.worker.consumer.batch-size.
+ *
+ * - inmemory: InMemoryTaskBroker itself (lock-free ring buffers, no network hop)
+ * - journal:  JournalTaskBroker itself (mmap segment files in a temporary
+ *             directory, -Djournal.fsync=always|group|os, default group)
+ * - postgres: PostgresTaskBroker itself (SKIP LOCKED claims, LISTEN/NOTIFY on
+ *             PostgreSQL; H2 in memory unless -Djdbc.url is given)
+ * - redis:    RPUSH / LPOP count / BLPOP, as RedisTaskBroker in non-reliable mode
+ * - kafka:    one producer; WORKERS consumers in one group on a topic with
+ *             WORKERS partitions
+ *
+ * A broker that cannot be reached is reported as skipped.
+ *
+ * Usage:
+ *   java -cp <app classpath> [-Djdbc.url=jdbc:postgresql://localhost/scheduler -Djdbc.user=.. -Djdbc.password=..]
+ *        [-Dredis.host=localhost -Dredis.port=6379] [-Dkafka.bootstrap=localhost:9092] [-Djournal.fsync=group]
+ *        com.demo.scheduler.benchmark.BrokerBenchmark [tasks] [workers] [inmemory,journal,postgres,redis,kafka]
+ */
+public class BrokerBenchmark {
+
+    // Configuration
+    private static int TASKS = 100_000;
+    private static int WORKERS = 8;
+    private static final int BATCH = 100;
+    private static final Duration IDLE_WAIT = Duration.ofMillis(100);
+    private static final long TIMEOUT_MINUTES = 5;
+
+    private static final String QUEUE_DDL = """
+        CREATE TABLE IF NOT EXISTS task_queue (
+            task_id    BIGINT       PRIMARY KEY,
+            priority   VARCHAR(10)  NOT NULL,
+            visible_at TIMESTAMP(6) NOT NULL,
+            leased_by  VARCHAR(100)
+        )""";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 1) {
+            TASKS = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            WORKERS = Integer.parseInt(args[1]);
+        }
+        List<String> brokers = Arrays.asList((args.length >= 3 ? args[2] : "inmemory,journal,postgres,redis,kafka").split(","));
+
+        System.out.println("""
+
+            ╔═══════════════════════════════════════════════════════════╗
+            ║        BROKER THROUGHPUT BENCHMARK                        ║
+            ╚═══════════════════════════════════════════════════════════╝
+            """);
+        System.out.println("Configuration:");
+        System.out.println("  Tasks:               " + String.format("%,d", TASKS));
+        System.out.println("  Workers:             " + WORKERS);
+        System.out.println("  Batch (pub / poll):  " + BATCH);
+        System.out.println();
+
+        List<Result> results = new ArrayList<>();
+        for (String broker : brokers) {
+            System.out.println("Running " + broker + "...");
+            try {
+                results.add(switch (broker.trim()) {
+                    case "inmemory" -> runInMemory();
+                    case "journal" -> runJournal();
+                    case "postgres" -> runPostgres();
+                    case "redis" -> runRedis();
+                    case "kafka" -> runKafka();
+                    default -> throw new IllegalArgumentException("Unknown broker: " + broker);
+                });
+            } catch (Exception e) {
+                Throwable cause = e;
+                while (cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                System.out.println("  skipped: " + cause);
+            }
+        }
+
+        System.out.println();
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println("                    BENCHMARK RESULTS                       ");
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println();
+        System.out.println("  Broker              tasks/s      latency p50      p99");
+        for (Result result : results) {
+            result.print();
+        }
+        System.out.println();
+    }
+
+    private static Result runInMemory() throws Exception {
+        InMemoryTaskBroker broker = new InMemoryTaskBroker(1 << 20, 5_000, BATCH, new int[] {8, 3, 1});
+        return run("inmemory", new Harness() {
+            @Override
+            public void publish(long[] ids) {
+                broker.submitTasks(toTasks(ids));
+            }
+
+            @Override
+            public long[] poll(int worker) {
+                return toIds(broker.poll(BATCH, IDLE_WAIT));
+            }
+        });
+    }
+
+    private static Result runJournal() throws Exception {
+        Path directory = Files.createTempDirectory("broker-benchmark-journal");
+        String fsync = System.getProperty("journal.fsync", "group");
+        JournalTaskBroker broker = new JournalTaskBroker(directory.toString(), 64 << 20, fsync, 5, 1_000, new int[] {8, 3, 1});
+        try {
+            return run("journal-" + fsync, new Harness() {
+                @Override
+                public void publish(long[] ids) {
+                    broker.submitTasks(toTasks(ids));
+                }
+
+                @Override
+                public long[] poll(int worker) {
+                    List<PolledTask> polled = broker.poll(BATCH, IDLE_WAIT);
+                    broker.acknowledge(polled.stream().map(PolledTask::taskId).toList());
+                    return toIds(polled);
+                }
+            });
+        } finally {
+            broker.stop();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static Result runPostgres() throws Exception {
+        String url = System.getProperty("jdbc.url", "jdbc:h2:mem:broker-benchmark;DB_CLOSE_DELAY=-1");
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(System.getProperty("jdbc.user", "sa"));
+            dataSource.setPassword(System.getProperty("jdbc.password", ""));
+            dataSource.setMaximumPoolSize(WORKERS * 2 + 2);
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute(QUEUE_DDL);
+            jdbcTemplate.execute("DELETE FROM task_queue");
+
+            // One broker per worker, as on separate nodes; the listener threads are the brokers' own
+            List<PostgresTaskBroker> nodes = new ArrayList<>();
+            for (int i = 0; i < WORKERS; i++) {
+                PostgresTaskBroker broker = new PostgresTaskBroker(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                    new MessageCaptureService(), "bench-" + i, 30_000, new int[] {8, 3, 1});
+                broker.init();
+                nodes.add(broker);
+            }
+
+            try {
+                return run("postgres", new Harness() {
+                    @Override
+                    public void publish(long[] ids) {
+                        nodes.get(0).submitTasks(toTasks(ids));
+                    }
+
+                    @Override
+                    public long[] poll(int worker) {
+                        long[] ids = toIds(nodes.get(worker).poll(BATCH, IDLE_WAIT));
+                        List<Long> acks = new ArrayList<>(ids.length);
+                        for (long id : ids) {
+                            acks.add(id);
+                        }
+                        nodes.get(worker).acknowledge(acks);
+                        return ids;
+                    }
+                });
+            } finally {
+                nodes.forEach(PostgresTaskBroker::stop);
+            }
+        }
+    }
+
+    private static Result runRedis() throws Exception {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+            System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379));
+        factory.afterPropertiesSet();
+        try {
+            StringRedisTemplate redis = new StringRedisTemplate(factory);
+            String key = "broker-benchmark:" + System.currentTimeMillis();
+            redis.delete(key);
+
+            return run("redis", new Harness() {
+                @Override
+                public void publish(long[] ids) {
+                    String[] values = new String[ids.length];
+                    for (int i = 0; i < ids.length; i++) {
+                        values[i] = Long.toString(ids[i]);
+                    }
+                    redis.opsForList().rightPushAll(key, values);
+                }
+
+                @Override
+                public long[] poll(int worker) {
+                    List<String> values = redis.opsForList().leftPop(key, BATCH);
+                    if (values == null || values.isEmpty()) {
+                        String value = redis.opsForList().leftPop(key, IDLE_WAIT);
+                        values = value != null ? List.of(value) : List.of();
+                    }
+                    return values.stream().mapToLong(Long::parseLong).toArray();
+                }
+            });
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private static Result runKafka() throws Exception {
+        String bootstrap = System.getProperty("kafka.bootstrap", "localhost:9092");
+        String topic = "broker-benchmark-" + System.currentTimeMillis();
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap,
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 5_000,
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, 10_000))) {
+            admin.createTopics(List.of(new NewTopic(topic, WORKERS, (short) 1))).all().get(10, TimeUnit.SECONDS);
+        }
+
+        KafkaProducer<String, String> producer = new KafkaProducer<>(Map.of(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap,
+            ProducerConfig.LINGER_MS_CONFIG, 5,
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class));
+        List<KafkaConsumer<String, String>> consumers = new ArrayList<>();
+        for (int i = 0; i < WORKERS; i++) {
+            KafkaConsumer<String, String> consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap,
+                ConsumerConfig.GROUP_ID_CONFIG, topic,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, BATCH,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class));
+            consumer.subscribe(List.of(topic));
+            consumers.add(consumer);
+        }
+
+        try {
+            return run("kafka", new Harness() {
+                @Override
+                public void publish(long[] ids) {
+                    for (long id : ids) {
+                        String value = Long.toString(id);
+                        producer.send(new ProducerRecord<>(topic, value, value));
+                    }
+                    producer.flush();
+                }
+
+                @Override
+                public long[] poll(int worker) {
+                    KafkaConsumer<String, String> consumer = consumers.get(worker);
+                    List<Long> ids = new ArrayList<>();
+                    for (ConsumerRecord<String, String> record : consumer.poll(IDLE_WAIT)) {
+                        ids.add(Long.parseLong(record.value()));
+                    }
+                    if (!ids.isEmpty()) {
+                        consumer.commitAsync();
+                    }
+                    return ids.stream().mapToLong(Long::longValue).toArray();
+                }
+            });
+        } finally {
+            producer.close();
+            consumers.forEach(KafkaConsumer::close);
+        }
+    }
+
+    private static List<Task> toTasks(long[] ids) {
+        List<Task> tasks = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Task task = new Task("", Priority.NORMAL);
+            task.setId(id);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static long[] toIds(List<PolledTask> polled) {
+        long[] ids = new long[polled.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = polled.get(i).taskId();
+        }
+        return ids;
+    }
+
+    /**
+     * One broker as seen by the benchmark. poll(worker) is only ever called
+     * from that worker's thread.
+     */
+    private interface Harness {
+        void publish(long[] ids) throws Exception;
+
+        long[] poll(int worker) throws Exception;
+    }
+
+    private static Result run(String name, Harness harness) throws Exception {
+        AtomicLongArray publishedAt = new AtomicLongArray(TASKS);
+        long[] latencies = new long[TASKS];
+        CountDownLatch received = new CountDownLatch(TASKS);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int w = 0; w < WORKERS; w++) {
+            int worker = w;
+            Thread thread = new Thread(() -> {
+                while (received.getCount() > 0) {
+                    try {
+                        for (long id : harness.poll(worker)) {
+                            int index = (int) id;
+                            latencies[index] = System.nanoTime() - publishedAt.get(index);
+                            received.countDown();
+                        }
+                    } catch (Exception e) {
+                        if (received.getCount() > 0) {
+                            System.out.println("  worker " + worker + " error: " + e.getMessage());
+                        }
+                        return;
+                    }
+                }
+            }, name + "-worker-" + w);
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+
+        long start = System.nanoTime();
+        for (int from = 0; from < TASKS; from += BATCH) {
+            long[] ids = new long[Math.min(BATCH, TASKS - from)];
+            long now = System.nanoTime();
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = from + i;
+                publishedAt.set(from + i, now);
+            }
+            harness.publish(ids);
+        }
+        if (!received.await(TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("only " + (TASKS - received.getCount()) + " of " + TASKS + " tasks received");
+        }
+        long elapsed = System.nanoTime() - start;
+        for (Thread worker : workers) {
+            worker.join(1_000);
+        }
+        return new Result(name, elapsed, latencies);
+    }
+
+    private static final class Result {
+        final String name;
+        final long elapsedNanos;
+        final long[] latencies;
+
+        Result(String name, long elapsedNanos, long[] latencies) {
+            this.name = name;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies.clone();
+            Arrays.sort(this.latencies);
+        }
+
+        long percentile(int p) {
+            int index = (int) Math.ceil(p / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, index)];
+        }
+
+        void print() {
+            System.out.printf("  %-12s %,13.0f %,13.2fms %,9.2fms%n", name,
+                latencies.length / (elapsedNanos / 1e9), percentile(50) / 1e6, percentile(99) / 1e6);
+        }
+    }
+}
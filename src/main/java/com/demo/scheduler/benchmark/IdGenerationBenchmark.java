@@ -0,0 +1,193 @@
+package com.demo.scheduler.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * ID GENERATION INSERT BENCHMARK
+ * ==============================
+ *
+ * Compares task insert throughput on in-memory H2 for the two key strategies
+ * Task has used, persisting through Hibernate with the settings from
+ * application.yml (jdbc.batch_size, order_inserts, pooled-lo optimizer):
+ *
+ * - IDENTITY:          Hibernate must INSERT each row at persist() to learn its ID, so no batching
+ * - SEQUENCE pooled-lo: one sequence call per ALLOCATION_SIZE rows, INSERTs flushed as JDBC batches
+ *
+ * Both map the same plain BenchmarkTask class, once per strategy, through an
+ * orm.xml mapping rather than annotations, so that the application's entity
+ * scan never picks it up. Rows are persisted and flushed every BATCH_SIZE like
+ * TaskRepository.insertAll, committing every ROWS_PER_TX rows.
+ *
+ * Usage:
+ *   java -cp target/classes:<hibernate + h2 classpath> com.demo.scheduler.benchmark.IdGenerationBenchmark [rows] [rows_per_tx]
+ */
+public class IdGenerationBenchmark {
+
+    // Configuration
+    private static int ROWS = 200_000;
+    private static int ROWS_PER_TX = 1_000;
+    private static final int ALLOCATION_SIZE = 50; // Task.id allocationSize
+    private static final int BATCH_SIZE = 50;      // hibernate.jdbc.batch_size
+    private static final int WARMUP_ROWS = 20_000;
+
+    private static final String MAPPING = """
+        <entity-mappings xmlns="https://jakarta.ee/xml/ns/persistence/orm" version="3.1">
+            %s
+            <entity class="com.demo.scheduler.benchmark.IdGenerationBenchmark$BenchmarkTask" access="FIELD">
+                <table name="tasks"/>
+                <attributes>
+                    <id name="id">
+                        %s
+                    </id>
+                    <basic name="payload"><column nullable="false" length="4096"/></basic>
+                    <basic name="status"><column nullable="false" length="20"/></basic>
+                    <basic name="createdAt"><column name="created_at" nullable="false"/></basic>
+                </attributes>
+            </entity>
+        </entity-mappings>
+        """;
+
+    private static final String IDENTITY_MAPPING = MAPPING.formatted("",
+        "<generated-value strategy=\"IDENTITY\"/>");
+
+    private static final String SEQUENCE_MAPPING = MAPPING.formatted(
+        "<sequence-generator name=\"task_seq\" sequence-name=\"task_seq\" allocation-size=\"" + ALLOCATION_SIZE + "\"/>",
+        "<generated-value strategy=\"SEQUENCE\" generator=\"task_seq\"/>");
+
+    /**
+     * Minimal stand-in for Task: the columns an insert through
+     * TaskProducer fills in.
+     */
+    public static class BenchmarkTask {
+        private Long id;
+        private String payload;
+        private String status;
+        private LocalDateTime createdAt;
+
+        protected BenchmarkTask() {
+        }
+
+        BenchmarkTask(String payload) {
+            this.payload = payload;
+            this.status = "PENDING";
+            this.createdAt = LocalDateTime.now();
+        }
+
+        // Hibernate checks orm.xml attributes against public getters only
+        public Long getId() {
+            return id;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length >= 1) {
+            ROWS = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            ROWS_PER_TX = Integer.parseInt(args[1]);
+        }
+
+        System.out.println("""
+
+            ╔═══════════════════════════════════════════════════════════╗
+            ║        ID GENERATION INSERT BENCHMARK (H2)               ║
+            ╚═══════════════════════════════════════════════════════════╝
+            """);
+        System.out.println("Configuration:");
+        System.out.println("  Rows:                " + String.format("%,d", ROWS));
+        System.out.println("  Rows/Transaction:    " + String.format("%,d", ROWS_PER_TX));
+        System.out.println("  Allocation Size:     " + ALLOCATION_SIZE);
+        System.out.println("  JDBC Batch Size:     " + BATCH_SIZE);
+        System.out.println();
+
+        // Warm up both paths so JIT and H2 caches do not favour the second run
+        run("warmup_identity", IDENTITY_MAPPING, WARMUP_ROWS);
+        run("warmup_sequence", SEQUENCE_MAPPING, WARMUP_ROWS);
+
+        Result identity = run("bench_identity", IDENTITY_MAPPING, ROWS);
+        Result sequence = run("bench_sequence", SEQUENCE_MAPPING, ROWS);
+
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println("                    BENCHMARK RESULTS                       ");
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println();
+        System.out.printf("  IDENTITY (row by row):     %,12.0f rows/sec  %,9d statements%n",
+            identity.rowsPerSec(), identity.statements());
+        System.out.printf("  SEQUENCE pooled-lo batch:  %,12.0f rows/sec  %,9d statements%n",
+            sequence.rowsPerSec(), sequence.statements());
+        System.out.println();
+        System.out.println("  ┌────────────────────────────────────────┐");
+        System.out.printf("  │  SPEEDUP: %,27.2fx │%n", sequence.rowsPerSec() / identity.rowsPerSec());
+        System.out.println("  └────────────────────────────────────────┘");
+        System.out.println();
+    }
+
+    private record Result(double rowsPerSec, long statements) {
+    }
+
+    /**
+     * Persists {@code rows} tasks through the given mapping, flushing every
+     * BATCH_SIZE and committing every ROWS_PER_TX. Statements counts the JDBC
+     * statements Hibernate prepared: per row for IDENTITY, per batch and per
+     * sequence call for pooled-lo.
+     */
+    private static Result run(String db, String mapping, int rows) {
+        try (SessionFactory sessionFactory = open(db, mapping);
+             EntityManager em = sessionFactory.createEntityManager()) {
+            Statistics statistics = sessionFactory.getStatistics();
+            statistics.clear();
+
+            long start = System.nanoTime();
+            em.getTransaction().begin();
+            for (int i = 0; i < rows; i++) {
+                em.persist(new BenchmarkTask("Benchmark task " + i));
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+                if ((i + 1) % ROWS_PER_TX == 0) {
+                    em.getTransaction().commit();
+                    em.clear();
+                    em.getTransaction().begin();
+                }
+            }
+            em.getTransaction().commit();
+            double rowsPerSec = rows / ((System.nanoTime() - start) / 1e9);
+            return new Result(rowsPerSec, statistics.getPrepareStatementCount());
+        }
+    }
+
+    private static SessionFactory open(String db, String mapping) {
+        return new Configuration()
+            .addInputStream(new ByteArrayInputStream(mapping.getBytes(StandardCharsets.UTF_8)))
+            .setProperty(AvailableSettings.URL, "jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=0")
+            .setProperty(AvailableSettings.USER, "sa")
+            .setProperty(AvailableSettings.PASS, "")
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create")
+            .setProperty(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+            .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(BATCH_SIZE))
+            .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+            .setProperty(AvailableSettings.GENERATE_STATISTICS, "true")
+            .buildSessionFactory();
+    }
+}
@@ -0,0 +1,258 @@
+package com.demo.scheduler.benchmark;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import com.demo.scheduler.service.WeightedFairQueue;
+import com.demo.scheduler.service.broker.InMemoryTaskBroker;
+import com.demo.scheduler.service.broker.PolledTask;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PRIORITY PICKUP LATENCY BENCHMARK
+ * =================================
+ *
+ * Measures how long a HIGH priority task waits for a worker (publish -> start)
+ * while a LOW priority backfill keeps every worker busy. Tasks go through a
+ * real pull broker (InMemoryTaskBroker) and a consumer loop shaped like
+ * TaskWorker's, in three modes:
+ *
+ * - FIFO:  one broker lane, tasks run in arrival order (before priorities)
+ * - PULL:  per-priority broker lanes, polls split by weight, WeightedFairQueue
+ *          in front of the pool; the consumer loop polls again as soon as the
+ *          pool has room (Redis, Postgres, in-memory, journal)
+ * - BATCH: the Kafka batch listener: one lane per priority topic, fetched
+ *          without weights, up to max.poll.records per poll, and the next
+ *          poll only happens once the whole batch has finished. The
+ *          WeightedFairQueue can only reorder records within one poll, so a
+ *          HIGH task published during a poll waits for that poll to drain
+ *
+ * Workers sleep SERVICE_MS per task. The LOW backlog is larger than the pool
+ * can drain during the run, so the pool is saturated from start to end.
+ *
+ * Usage:
+ *   java -cp target/classes com.demo.scheduler.benchmark.PriorityPickupBenchmark [high_tasks] [workers]
+ */
+public class PriorityPickupBenchmark {
+
+    // Configuration
+    private static int HIGH_TASKS = 500;
+    private static int WORKERS = 10;
+    private static final int SERVICE_MS = 2;
+    private static final int HIGH_INTERVAL_MS = 10;
+    private static final int[] WEIGHTS = {8, 3, 1};       // scheduler.priority.weights
+    private static final int CONSUMER_BATCH_SIZE = 100;   // scheduler.worker.consumer.batch-size
+    private static final int HIGH_WATERMARK = 5000;       // scheduler.worker.backpressure.high-watermark
+    private static final int MAX_POLL_RECORDS = 500;      // spring.kafka.consumer.max-poll-records
+    private static final int[] EVEN_FETCH = {1, 1, 1};    // Kafka fetches the priority topics alike
+
+    private enum Mode { FIFO, PULL, BATCH }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length >= 1) {
+            HIGH_TASKS = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            WORKERS = Integer.parseInt(args[1]);
+        }
+
+        // Enough LOW work to outlast the HIGH arrivals twice over
+        int lowBacklog = 2 * HIGH_TASKS * HIGH_INTERVAL_MS * WORKERS / SERVICE_MS;
+
+        System.out.println("""
+
+            ╔═══════════════════════════════════════════════════════════╗
+            ║        PRIORITY PICKUP LATENCY BENCHMARK                  ║
+            ╚═══════════════════════════════════════════════════════════╝
+            """);
+        System.out.println("Configuration:");
+        System.out.println("  Broker:              inmemory");
+        System.out.println("  Workers:             " + WORKERS);
+        System.out.println("  Service Time:        " + SERVICE_MS + "ms");
+        System.out.println("  LOW Backlog:         " + String.format("%,d", lowBacklog));
+        System.out.println("  HIGH Tasks:          " + String.format("%,d", HIGH_TASKS) + " (one every " + HIGH_INTERVAL_MS + "ms)");
+        System.out.println("  Weights H/N/L:       " + WEIGHTS[0] + "/" + WEIGHTS[1] + "/" + WEIGHTS[2]);
+        System.out.println("  Pull In-Flight Cap:  " + HIGH_WATERMARK);
+        System.out.println("  Kafka Poll Size:     " + MAX_POLL_RECORDS);
+        System.out.println();
+
+        Result fifo = run(Mode.FIFO, lowBacklog);
+        Result pull = run(Mode.PULL, lowBacklog);
+        Result batch = run(Mode.BATCH, lowBacklog);
+
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println("                    BENCHMARK RESULTS                       ");
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println();
+        System.out.println("  HIGH pickup latency        p50          p99          max");
+        fifo.print();
+        pull.print();
+        batch.print();
+        System.out.println();
+        System.out.println("  LOW tasks started before the last HIGH pickup (starvation check):");
+        System.out.printf("    FIFO: %,d    PULL: %,d    BATCH: %,d%n", fifo.lowStarted, pull.lowStarted, batch.lowStarted);
+        System.out.println();
+        System.out.println("  ┌────────────────────────────────────────┐");
+        System.out.printf("  │  p99 PULL vs FIFO: %,18.1fx │%n", (double) fifo.percentile(99) / Math.max(1, pull.percentile(99)));
+        System.out.printf("  │  p99 BATCH vs FIFO: %,17.1fx │%n", (double) fifo.percentile(99) / Math.max(1, batch.percentile(99)));
+        System.out.println("  └────────────────────────────────────────┘");
+        System.out.println();
+    }
+
+    private static Result run(Mode mode, int lowBacklog) throws InterruptedException {
+        System.out.println("Running " + mode + "...");
+        int total = lowBacklog + HIGH_TASKS;
+        InMemoryTaskBroker broker = new InMemoryTaskBroker(total, 5000, MAX_POLL_RECORDS,
+            mode == Mode.BATCH ? EVEN_FETCH : WEIGHTS);
+        ExecutorService pool = Executors.newFixedThreadPool(WORKERS);
+        WeightedFairQueue<Long> runQueue = new WeightedFairQueue<>(WEIGHTS);
+
+        // Indexed by task ID: 1..lowBacklog are LOW, the rest HIGH
+        long[] publishedAt = new long[total + 1];
+        List<Long> highLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong lowStarted = new AtomicLong();
+        AtomicInteger inFlight = new AtomicInteger();
+        CountDownLatch highDone = new CountDownLatch(HIGH_TASKS);
+
+        Worker worker = new Worker(lowBacklog, publishedAt, highLatencies, lowStarted, inFlight, highDone);
+        Thread consumer = new Thread(() -> consume(mode, broker, pool, runQueue, worker), "benchmark-consumer");
+        consumer.setDaemon(true);
+
+        List<Task> lows = new ArrayList<>(lowBacklog);
+        for (long id = 1; id <= lowBacklog; id++) {
+            lows.add(task(id, mode == Mode.FIFO ? Priority.NORMAL : Priority.LOW));
+            publishedAt[(int) id] = System.nanoTime();
+        }
+        broker.submitTasks(lows);
+        consumer.start();
+
+        for (long id = lowBacklog + 1; id <= total; id++) {
+            publishedAt[(int) id] = System.nanoTime();
+            broker.submitTask(task(id, mode == Mode.FIFO ? Priority.NORMAL : Priority.HIGH));
+            Thread.sleep(HIGH_INTERVAL_MS);
+        }
+
+        // FIFO can take far longer to reach the last HIGH task; bound the wait
+        highDone.await(5, TimeUnit.MINUTES);
+        long lowDuringRun = lowStarted.get();
+        consumer.interrupt();
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return new Result(mode.name(), highLatencies, lowDuringRun);
+    }
+
+    /**
+     * The consumer loop: PULL and FIFO poll whenever the pool has room,
+     * BATCH waits for each poll to finish like TaskWorker.listenKafkaBatch.
+     */
+    private static void consume(Mode mode, InMemoryTaskBroker broker, ExecutorService pool,
+                                WeightedFairQueue<Long> runQueue, Worker worker) {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PolledTask> tasks;
+            if (mode == Mode.BATCH) {
+                tasks = broker.poll(MAX_POLL_RECORDS, Duration.ofMillis(100));
+            } else {
+                int room = HIGH_WATERMARK - worker.inFlight.get();
+                if (room <= 0) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                    continue;
+                }
+                tasks = broker.poll(Math.min(CONSUMER_BATCH_SIZE, room), Duration.ofMillis(100));
+            }
+
+            CountDownLatch batchDone = new CountDownLatch(tasks.size());
+            for (PolledTask task : tasks) {
+                long id = task.taskId();
+                worker.inFlight.incrementAndGet();
+                if (mode == Mode.FIFO) {
+                    pool.execute(() -> worker.run(id, batchDone));
+                } else {
+                    // Same shape as TaskWorker.enqueue: one slot per task, task chosen when the slot runs
+                    runQueue.offer(worker.priorityOf(id), id);
+                    pool.execute(() -> {
+                        Long next = runQueue.poll();
+                        if (next != null) {
+                            worker.run(next, batchDone);
+                        }
+                    });
+                }
+            }
+
+            if (mode == Mode.BATCH) {
+                try {
+                    batchDone.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static Task task(long id, Priority priority) {
+        Task task = new Task("benchmark-" + id, priority);
+        task.setId(id);
+        return task;
+    }
+
+    private record Worker(int lowBacklog, long[] publishedAt, List<Long> highLatencies, AtomicLong lowStarted,
+                          AtomicInteger inFlight, CountDownLatch highDone) {
+
+        Priority priorityOf(long id) {
+            return id > lowBacklog ? Priority.HIGH : Priority.LOW;
+        }
+
+        void run(long id, CountDownLatch batchDone) {
+            if (priorityOf(id) == Priority.HIGH) {
+                highLatencies.add(System.nanoTime() - publishedAt[(int) id]);
+                highDone.countDown();
+            } else {
+                lowStarted.incrementAndGet();
+            }
+            try {
+                Thread.sleep(SERVICE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                batchDone.countDown();
+            }
+        }
+    }
+
+    private static final class Result {
+        final String name;
+        final List<Long> latencies;
+        final long lowStarted;
+
+        Result(String name, List<Long> latencies, long lowStarted) {
+            this.name = name;
+            this.latencies = new ArrayList<>(latencies);
+            Collections.sort(this.latencies);
+            this.lowStarted = lowStarted;
+        }
+
+        long percentile(int p) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * latencies.size()) - 1;
+            return latencies.get(Math.max(0, index));
+        }
+
+        void print() {
+            long max = latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1);
+            System.out.printf("    %-8s %,13.2fms %,11.2fms %,11.2fms   (%d of %d picked up)%n", name,
+                percentile(50) / 1e6, percentile(99) / 1e6, max / 1e6, latencies.size(), HIGH_TASKS);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.demo.scheduler.benchmark;
+
+import com.demo.scheduler.model.TaskEvent;
+import com.demo.scheduler.service.broker.LocalSchemaRegistry;
+import com.demo.scheduler.service.broker.TaskEventAvroDeserializer;
+import com.demo.scheduler.service.broker.TaskEventAvroSerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * KAFKA VALUE SERIALIZATION BENCHMARK
+ * ===================================
+ *
+ * Compares the two TaskEvent wire formats of the Kafka broker, each through
+ * the Kafka Serializer / Deserializer the application is configured with:
+ *
+ * - json: Spring's JsonSerializer / JsonDeserializer (the previous default)
+ * - avro: TaskEventAvroSerializer / TaskEventAvroDeserializer (binary Avro
+ *         with a 5-byte schema header, per-thread encoders and decoders)
+ *
+ * Reports bytes per message and nanoseconds per serialize and deserialize,
+ * averaged over ROUNDS passes of MESSAGES events after WARMUP_ROUNDS passes.
+ * The events have a short JSON payload and a type, like a typical handler
+ * task.
+ *
+ * Usage:
+ *   java -cp <app classpath> com.demo.scheduler.benchmark.SerializationBenchmark [messages] [rounds]
+ */
+public class SerializationBenchmark {
+
+    // Configuration
+    private static int MESSAGES = 10_000;
+    private static int ROUNDS = 50;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final String TOPIC = "task-events";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 1) {
+            MESSAGES = Integer.parseInt(args[0]);
+        }
+        if (args.length >= 2) {
+            ROUNDS = Integer.parseInt(args[1]);
+        }
+
+        System.out.println("""
+
+            ╔═══════════════════════════════════════════════════════════╗
+            ║        KAFKA VALUE SERIALIZATION BENCHMARK                ║
+            ╚═══════════════════════════════════════════════════════════╝
+            """);
+        System.out.println("Configuration:");
+        System.out.println("  Messages:            " + String.format("%,d", MESSAGES));
+        System.out.println("  Rounds (warmup):     " + ROUNDS + " (" + WARMUP_ROUNDS + ")");
+        System.out.println();
+
+        TaskEvent[] events = new TaskEvent[MESSAGES];
+        String createdAt = LocalDateTime.now().toString();
+        for (int i = 0; i < MESSAGES; i++) {
+            events[i] = new TaskEvent((long) i * 7919, "{\"orderId\":" + i + ",\"action\":\"charge\",\"amount\":" + (i % 500) + "}",
+                createdAt, 5);
+            events[i].setType("billing.charge");
+        }
+
+        JsonDeserializer<TaskEvent> jsonDeserializer = new JsonDeserializer<>(TaskEvent.class, false);
+        Result json = run("json", new JsonSerializer<>(), jsonDeserializer, events);
+
+        Path schemaDir = Files.createTempDirectory("serialization-benchmark-schemas");
+        LocalSchemaRegistry registry = new LocalSchemaRegistry(schemaDir);
+        Result avro = run("avro", new TaskEventAvroSerializer(registry), new TaskEventAvroDeserializer(registry), events);
+
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println("                    BENCHMARK RESULTS                       ");
+        System.out.println("═══════════════════════════════════════════════════════════");
+        System.out.println();
+        System.out.println("  Format      bytes/msg   serialize ns   deserialize ns");
+        json.print();
+        avro.print();
+        System.out.println();
+        System.out.printf("  Avro vs JSON: %.0f%% of the bytes, %.1fx faster to serialize, %.1fx faster to deserialize%n",
+            100.0 * avro.bytesPerMessage / json.bytesPerMessage,
+            json.serializeNanos / avro.serializeNanos, json.deserializeNanos / avro.deserializeNanos);
+        System.out.println();
+    }
+
+    private static Result run(String name, Serializer<TaskEvent> serializer, Deserializer<TaskEvent> deserializer,
+                              TaskEvent[] events) {
+        byte[][] encoded = new byte[events.length][];
+        long checksum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (int i = 0; i < events.length; i++) {
+                encoded[i] = serializer.serialize(TOPIC, events[i]);
+            }
+            for (byte[] value : encoded) {
+                checksum += deserializer.deserialize(TOPIC, value).getTaskId();
+            }
+        }
+
+        long serializeNanos = 0;
+        long deserializeNanos = 0;
+        long bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < events.length; i++) {
+                encoded[i] = serializer.serialize(TOPIC, events[i]);
+            }
+            serializeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (byte[] value : encoded) {
+                checksum += deserializer.deserialize(TOPIC, value).getTaskId();
+            }
+            deserializeNanos += System.nanoTime() - start;
+        }
+        for (byte[] value : encoded) {
+            bytes += value.length;
+        }
+        if (checksum == 42) {
+            System.out.println(); // Keeps the results observable to the JIT
+        }
+
+        long operations = (long) ROUNDS * events.length;
+        return new Result(name, (double) bytes / events.length,
+            (double) serializeNanos / operations, (double) deserializeNanos / operations);
+    }
+
+    private record Result(String name, double bytesPerMessage, double serializeNanos, double deserializeNanos) {
+        void print() {
+            System.out.printf("  %-8s %12.1f %14.0f %16.0f%n", name, bytesPerMessage, serializeNanos, deserializeNanos);
+        }
+    }
+}
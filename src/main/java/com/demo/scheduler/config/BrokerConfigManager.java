@@ -1,27 +1,67 @@
 package com.demo.scheduler.config;
 
+import com.demo.scheduler.service.broker.TaskBroker;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 /**
- * Manages the active broker configuration (Redis vs Kafka).
+ * Manages the active broker configuration (Redis, Kafka, Postgres or in-memory).
  * Allows dynamic switching at runtime.
  */
 @Service
 public class BrokerConfigManager {
 
-    private String currentBrokerType;
+    private static final Set<String> BROKER_TYPES = Set.of("redis", "redis-streams", "kafka", "postgres", "inmemory", "journal");
+
+    // Volatile rather than synchronized: getBrokerType() sits on every worker's
+    // hot path and a monitor would pin virtual threads to their carrier.
+    private volatile String currentBrokerType;
+
+    private final List<TaskBroker> brokers;
 
-    public BrokerConfigManager(@Value("${scheduler.broker.type:redis}") String initialBrokerType) {
+    public BrokerConfigManager(@Value("${scheduler.broker.type:redis}") String initialBrokerType,
+                               List<TaskBroker> brokers) {
         this.currentBrokerType = initialBrokerType;
+        this.brokers = brokers;
     }
 
-    public synchronized String getBrokerType() {
+    public String getBrokerType() {
         return currentBrokerType;
     }
 
-    public synchronized void setBrokerType(String brokerType) {
-        if ("redis".equalsIgnoreCase(brokerType) || "kafka".equalsIgnoreCase(brokerType)) {
+    /**
+     * The broker bean of the active broker type.
+     *
+     * @throws IllegalArgumentException if no broker of that type is deployed
+     */
+    public TaskBroker resolveActiveBroker() {
+        String currentBroker = currentBrokerType;
+        return findBroker(currentBroker)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown broker type: " + currentBroker));
+    }
+
+    /**
+     * The broker bean of the active broker type, if one is deployed.
+     */
+    public Optional<TaskBroker> findActiveBroker() {
+        return findBroker(currentBrokerType);
+    }
+
+    private Optional<TaskBroker> findBroker(String brokerType) {
+        for (TaskBroker broker : brokers) {
+            if (broker.getBrokerType().equalsIgnoreCase(brokerType)) {
+                return Optional.of(broker);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void setBrokerType(String brokerType) {
+        if (brokerType != null && BROKER_TYPES.contains(brokerType.toLowerCase())) {
             this.currentBrokerType = brokerType.toLowerCase();
         } else {
             throw new IllegalArgumentException("Invalid broker type: " + brokerType);
@@ -0,0 +1,61 @@
+package com.demo.scheduler.config;
+
+import com.demo.scheduler.model.TaskEvent;
+import com.demo.scheduler.service.KafkaPartitionLanes;
+import com.demo.scheduler.service.broker.KafkaTaskBroker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+/**
+ * Kafka listener container configuration: the batch factory, and the error
+ * handler Spring Boot applies to the record listener's factory.
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+
+    /**
+     * Batch listener factory used by TaskWorker.listenKafkaBatch.
+     * Offsets are never committed by the container: the listener commits
+     * per partition itself once records have actually been processed.
+     * Rebalances drain the partition lanes (kafka-ordering: partition).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TaskEvent> batchKafkaListenerContainerFactory(
+            ConsumerFactory<String, TaskEvent> consumerFactory, KafkaPartitionLanes partitionLanes) {
+        ConcurrentKafkaListenerContainerFactory<String, TaskEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(partitionLanes);
+        return factory;
+    }
+
+    /**
+     * Error handler of the record listener (kafka-listener: record). The
+     * container rejects a record whose value could not be decoded before the
+     * listener sees it; such a record is dead-lettered as received, and its
+     * offset committed once that send succeeds. Other failures are retried
+     * and then logged, as by default.
+     */
+    @Bean
+    public CommonErrorHandler recordListenerErrorHandler(KafkaTaskBroker kafkaTaskBroker) {
+        return new DefaultErrorHandler((record, error) -> {
+            Throwable cause = error instanceof DeserializationException ? error : error.getCause();
+            if (cause instanceof DeserializationException undecodable) {
+                kafkaTaskBroker.deadLetterUndecodable(record, undecodable).join();
+            } else {
+                log.error("Giving up on Kafka record {}-{}@{}", record.topic(), record.partition(), record.offset(), error);
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.demo.scheduler.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies the {@link KafkaProducerProfile} named by
+ * {@code scheduler.broker.kafka-producer-profile} to the producer factory
+ * behind KafkaTemplate.
+ */
+@Configuration
+public class KafkaProducerConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaProducerConfig.class);
+
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer producerProfileCustomizer(
+            @Value("${scheduler.broker.kafka-producer-profile:throughput}") String profileName) {
+        KafkaProducerProfile profile = KafkaProducerProfile.of(profileName);
+        return factory -> {
+            // Explicit spring.kafka.producer settings win over the profile
+            Map<String, Object> updates = new HashMap<>();
+            profile.configs().forEach((key, value) -> {
+                if (!factory.getConfigurationProperties().containsKey(key)) {
+                    updates.put(key, value);
+                }
+            });
+            factory.updateConfigs(updates);
+            log.info("Kafka producer profile {}: {}", profile.name().toLowerCase(), updates);
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.demo.scheduler.config;
 
+import com.demo.scheduler.service.TaskStatusWriteBuffer;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,13 +8,29 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Thread pool configuration for parallel task processing.
- * Uses a fixed thread pool optimized for high-throughput task execution.
+ *
+ * scheduler.worker.executor-mode selects the executor:
+ * - platform:        fixed pool of pool-size platform threads (default) with a
+ *                    work queue bounded to queue-capacity
+ * - virtual:         one virtual thread per task, unbounded concurrency
+ * - virtual-bounded: virtual threads, at most max-concurrency running at once
+ *
+ * Task work is mostly blocking JDBC and simulated I/O, which virtual threads
+ * handle without tying up an OS thread. Run with -Djdk.tracePinnedThreads=short
+ * to report any code on the worker path that pins a virtual thread.
+ *
+ * Broker consumption is throttled before the executor fills up (see
+ * WorkerBackpressure); the bounded queue is the last line of defence.
  */
 @Configuration
 public class ThreadPoolConfig {
@@ -23,32 +40,62 @@ public class ThreadPoolConfig {
     @Value("${scheduler.worker.pool-size:10}")
     private int poolSize;
 
+    @Value("${scheduler.worker.executor-mode:platform}")
+    private String executorMode;
+
+    @Value("${scheduler.worker.max-concurrency:100}")
+    private int maxConcurrency;
+
+    @Value("${scheduler.worker.queue-capacity:10000}")
+    private int queueCapacity;
+
     private ExecutorService executorService;
 
+    private final TaskStatusWriteBuffer statusBuffer;
+
+    public ThreadPoolConfig(TaskStatusWriteBuffer statusBuffer) {
+        this.statusBuffer = statusBuffer;
+    }
+
     /**
-     * Creates a fixed thread pool for task processing.
-     * Using Virtual Threads (Java 21) could be enabled here for even higher concurrency.
+     * Creates the task processing executor for the configured executor mode.
      */
     @Bean(name = "taskExecutor")
     public ExecutorService taskExecutor() {
-        log.info("Initializing task executor with {} threads", poolSize);
-        
-        // Option 1: Traditional Fixed Thread Pool
-        this.executorService = Executors.newFixedThreadPool(poolSize, r -> {
-            Thread t = new Thread(r);
-            t.setName("task-worker-" + t.getId());
-            t.setDaemon(true);
-            return t;
-        });
-        
-        // Option 2: Virtual Threads (Java 21) - Uncomment for massive concurrency
-        // this.executorService = Executors.newVirtualThreadPerTaskExecutor();
+        switch (executorMode.toLowerCase()) {
+            case "platform" -> {
+                log.info("Initializing task executor with {} platform threads, queue capacity {}", poolSize, queueCapacity);
+                // A full queue makes the submitting consumer thread run the task itself,
+                // which also stops it from taking more work off the broker; after
+                // shutdown the submitter gets an exception instead
+                this.executorService = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), r -> {
+                        Thread t = new Thread(r);
+                        t.setName("task-worker-" + t.threadId());
+                        t.setDaemon(true);
+                        return t;
+                    }, new CallerRunsUnlessShutdown());
+            }
+            case "virtual" -> {
+                log.info("Initializing task executor with unbounded virtual threads");
+                this.executorService = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("task-worker-v-", 0).factory());
+            }
+            case "virtual-bounded" -> {
+                log.info("Initializing task executor with virtual threads, max concurrency {}", maxConcurrency);
+                this.executorService = new BoundedExecutorService(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-worker-v-", 0).factory()),
+                    maxConcurrency);
+            }
+            default -> throw new IllegalArgumentException("Invalid executor mode: " + executorMode);
+        }
         
         return executorService;
     }
 
     /**
-     * Graceful shutdown of the thread pool.
+     * Graceful shutdown of the thread pool, then a final flush of buffered
+     * status updates so completions from the drained tasks are not lost.
      */
     @PreDestroy
     public void shutdown() {
@@ -65,6 +112,23 @@ public class ThreadPoolConfig {
                 Thread.currentThread().interrupt();
             }
         }
+        statusBuffer.flush();
         log.info("Task executor shutdown complete");
     }
+
+    /**
+     * Runs a rejected task on the submitting thread while the pool is up.
+     * Unlike CallerRunsPolicy, which silently discards the task once the pool
+     * is shut down, it then throws, so the submitter can release the task.
+     */
+    static final class CallerRunsUnlessShutdown implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Task executor is shut down");
+            }
+            task.run();
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package com.demo.scheduler.controller;
+
+import com.demo.scheduler.service.DashboardFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@Tag(name = "Dashboard", description = "Live feed for the dashboards")
+public class DashboardController {
+
+    private final DashboardFeed dashboardFeed;
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream dashboard updates",
+        description = "Server-Sent Events: a 'snapshot' event with every section (config, stats, recent, messages, kafka or redis) "
+            + "on connect, then only the sections that changed")
+    public ResponseEntity<SseEmitter> stream() {
+        SseEmitter emitter = dashboardFeed.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
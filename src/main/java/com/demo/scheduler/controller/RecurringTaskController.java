@@ -0,0 +1,175 @@
+package com.demo.scheduler.controller;
+
+import com.demo.scheduler.model.RecurringTaskDefinition;
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.repository.RecurringTaskDefinitionRepository;
+import com.demo.scheduler.service.RecurringTaskEngine;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * REST API for recurring (cron-style) task definitions.
+ * Each fire creates a normal task, visible through /api/tasks.
+ */
+//@RestController
+@RequestMapping("/api/recurring")
+public class RecurringTaskController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final RecurringTaskDefinitionRepository repository;
+    private final RecurringTaskEngine engine;
+
+    public RecurringTaskController(RecurringTaskDefinitionRepository repository, RecurringTaskEngine engine) {
+        this.repository = repository;
+        this.engine = engine;
+    }
+
+    /**
+     * POST /api/recurring - Create a definition
+     * Request body: { "name": "nightly-report", "cron": "0 0 2 * * *", "timeZone": "Europe/Berlin",
+     *                 "payload": "...", "priority": "LOW" }
+     * cron uses Spring's 6-field format (seconds first) or macros such as @hourly, @daily.
+     */
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody RecurringTaskRequest request) {
+        if (request.name == null || request.name.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "name is required"));
+        }
+        if (repository.existsByName(request.name)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Definition already exists: " + request.name));
+        }
+
+        RecurringTaskDefinition definition = new RecurringTaskDefinition();
+        definition.setName(request.name);
+        String error = apply(definition, request);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+
+        definition = repository.save(definition);
+        engine.reschedule(definition);
+        return ResponseEntity.status(HttpStatus.CREATED).body(definition);
+    }
+
+    /**
+     * GET /api/recurring?page=0&size=50 - List definitions by ID
+     */
+    @GetMapping
+    public ResponseEntity<Page<RecurringTaskDefinition>> list(@RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(defaultValue = "50") int size) {
+        PageRequest request = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), Sort.by("id"));
+        return ResponseEntity.ok(repository.findAll(request));
+    }
+
+    /**
+     * GET /api/recurring/{id} - Get a definition
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable Long id) {
+        return repository.findById(id)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * PUT /api/recurring/{id} - Update schedule, payload, priority or enabled flag.
+     * Omitted fields keep their value; the next fire time is recomputed.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody RecurringTaskRequest request) {
+        RecurringTaskDefinition definition = repository.findById(id).orElse(null);
+        if (definition == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String error = apply(definition, request);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+
+        definition.setUpdatedAt(LocalDateTime.now());
+        definition = repository.save(definition);
+        engine.reschedule(definition);
+        return ResponseEntity.ok(definition);
+    }
+
+    /**
+     * DELETE /api/recurring/{id} - Delete a definition. Tasks it already created are kept.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        if (!repository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        repository.deleteById(id);
+        engine.unschedule(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Copies the given fields onto the definition and recomputes nextFireAt.
+     *
+     * @return a validation error, or null
+     */
+    private String apply(RecurringTaskDefinition definition, RecurringTaskRequest request) {
+        if (request.cron != null) {
+            definition.setCronExpression(request.cron.trim());
+        }
+        if (request.timeZone != null) {
+            definition.setTimeZone(request.timeZone.trim());
+        } else if (definition.getTimeZone() == null) {
+            definition.setTimeZone(ZoneId.systemDefault().getId());
+        }
+        if (request.payload != null) {
+            definition.setPayload(request.payload);
+        }
+        if (request.priority != null) {
+            try {
+                definition.setPriority(Task.Priority.valueOf(request.priority.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                return "Invalid priority: " + request.priority;
+            }
+        }
+        if (request.enabled != null) {
+            definition.setEnabled(request.enabled);
+        }
+
+        if (definition.getCronExpression() == null || definition.getCronExpression().isBlank()) {
+            return "cron is required";
+        }
+        if (definition.getPayload() == null || definition.getPayload().isBlank()) {
+            return "payload cannot be empty";
+        }
+
+        try {
+            definition.setNextFireAt(definition.isEnabled()
+                ? engine.nextFireTime(definition.getCronExpression(), definition.getTimeZone(), LocalDateTime.now())
+                : null);
+        } catch (IllegalArgumentException e) {
+            return "Invalid cron expression: " + e.getMessage();
+        } catch (DateTimeException e) {
+            return "Invalid time zone: " + definition.getTimeZone();
+        }
+        return null;
+    }
+
+    // DTO classes
+    public static class RecurringTaskRequest {
+        public String name;
+        public String cron;
+        public String timeZone;
+        public String payload;
+        public String priority;
+        public Boolean enabled;
+    }
+}
@@ -32,6 +32,12 @@ public class RedisInspectorController {
         return ResponseEntity.ok(redisAdminService.getQueueStats());
     }
 
+    @GetMapping("/streams")
+    @Operation(summary = "Get stream stats", description = "Returns length, pending entries and consumer idle times of the task streams")
+    public ResponseEntity<Map<String, Object>> getStreamStats() {
+        return ResponseEntity.ok(redisAdminService.getStreamStats());
+    }
+
     @GetMapping("/messages/recent")
     @Operation(summary = "Get recent Redis messages", description = "Returns the last 50 messages related to Redis operations")
     public ResponseEntity<Map<String, Object>> getRecentMessages() {
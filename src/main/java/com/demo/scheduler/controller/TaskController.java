@@ -2,14 +2,19 @@ package com.demo.scheduler.controller;
 
 import com.demo.scheduler.model.Task;
 import com.demo.scheduler.service.TaskProducer;
+import com.demo.scheduler.service.TaskProducer.SubmitOptions;
 import com.demo.scheduler.service.TaskProducer.TaskStats;
 import com.demo.scheduler.service.TaskWorker;
+import com.demo.scheduler.service.handler.TaskHandlerRegistry;
 import com.demo.scheduler.repository.TaskRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,21 +30,34 @@ import com.demo.scheduler.config.BrokerConfigManager;
 @RequestMapping("/api/tasks")
 public class TaskController {
 
+    // Length of the tasks.partition_key column
+    private static final int MAX_PARTITION_KEY_LENGTH = 128;
+
     private final TaskProducer taskProducer;
     private final TaskWorker taskWorker;
     private final TaskRepository taskRepository;
     private final BrokerConfigManager brokerConfigManager;
+    private final TaskHandlerRegistry handlerRegistry;
+
+    @Value("${scheduler.batch.max-size:10000}")
+    private int maxBatchSize;
     
-    public TaskController(TaskProducer taskProducer, TaskWorker taskWorker, TaskRepository taskRepository, BrokerConfigManager brokerConfigManager) {
+    public TaskController(TaskProducer taskProducer, TaskWorker taskWorker, TaskRepository taskRepository,
+                          BrokerConfigManager brokerConfigManager, TaskHandlerRegistry handlerRegistry) {
         this.taskProducer = taskProducer;
         this.taskWorker = taskWorker;
         this.taskRepository = taskRepository;
         this.brokerConfigManager = brokerConfigManager;
+        this.handlerRegistry = handlerRegistry;
     }
 
     /**
      * POST /api/tasks - Submit a new task
-     * Request body: { "payload": "task data here" }
+     * Request body: { "payload": "task data here", "priority": "HIGH" }
+     * priority is optional: HIGH, NORMAL (default) or LOW
+     * type is optional and selects the task handler (default: "default")
+     * Delayed: add "runAt": "2030-01-01T09:00:00" (server local time) or "delayMs": 60000
+     * partitionKey is optional: tasks with the same key (e.g. a tenant ID) run in order on Kafka
      */
     @PostMapping
     public ResponseEntity<TaskResponse> submitTask(@RequestBody TaskRequest request) {
@@ -47,12 +65,142 @@ public class TaskController {
             return ResponseEntity.badRequest().body(
                 new TaskResponse(null, "REJECTED", "Payload cannot be empty"));
         }
+        Task.Priority priority = parsePriority(request.priority);
+        if (priority == null) {
+            return ResponseEntity.badRequest().body(
+                new TaskResponse(null, "REJECTED", "Invalid priority: " + request.priority));
+        }
+        if (request.runAt != null && request.delayMs != null || request.delayMs != null && request.delayMs < 0) {
+            return ResponseEntity.badRequest().body(
+                new TaskResponse(null, "REJECTED", "Specify either runAt or a non-negative delayMs"));
+        }
+        if (request.partitionKey != null && request.partitionKey.length() > MAX_PARTITION_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(
+                new TaskResponse(null, "REJECTED", "partitionKey exceeds " + MAX_PARTITION_KEY_LENGTH + " characters"));
+        }
+
+        String type = resolveType(request.type);
+        if (type == null) {
+            return ResponseEntity.badRequest().body(
+                new TaskResponse(null, "REJECTED", "No handler for task type: " + request.type));
+        }
 
-        Task task = taskProducer.submitTask(request.payload);
+        Task task = taskProducer.submitTask(request.payload,
+            new SubmitOptions(type, priority, resolveRunAt(request.runAt, request.delayMs), request.partitionKey));
         return ResponseEntity.status(HttpStatus.CREATED)
             .body(new TaskResponse(task.getId(), task.getStatus().name(), "Task submitted successfully"));
     }
 
+    /**
+     * POST /api/tasks/batch - Submit many tasks in one request
+     * Request body: { "payloads": ["task 1", "task 2", ...], "priority": "LOW" }
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTaskResponse> submitTasks(@RequestBody BatchTaskRequest request) {
+        if (request.payloads == null || request.payloads.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                new BatchTaskResponse(List.of(), "REJECTED", "Payloads cannot be empty"));
+        }
+        if (request.payloads.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(
+                new BatchTaskResponse(List.of(), "REJECTED", "Batch size exceeds limit of " + maxBatchSize));
+        }
+        for (String payload : request.payloads) {
+            if (payload == null || payload.isBlank()) {
+                return ResponseEntity.badRequest().body(
+                    new BatchTaskResponse(List.of(), "REJECTED", "Payload cannot be empty"));
+            }
+        }
+        Task.Priority priority = parsePriority(request.priority);
+        if (priority == null) {
+            return ResponseEntity.badRequest().body(
+                new BatchTaskResponse(List.of(), "REJECTED", "Invalid priority: " + request.priority));
+        }
+        if (request.runAt != null && request.delayMs != null || request.delayMs != null && request.delayMs < 0) {
+            return ResponseEntity.badRequest().body(
+                new BatchTaskResponse(List.of(), "REJECTED", "Specify either runAt or a non-negative delayMs"));
+        }
+        if (request.partitionKey != null && request.partitionKey.length() > MAX_PARTITION_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(
+                new BatchTaskResponse(List.of(), "REJECTED", "partitionKey exceeds " + MAX_PARTITION_KEY_LENGTH + " characters"));
+        }
+
+        String type = resolveType(request.type);
+        if (type == null) {
+            return ResponseEntity.badRequest().body(
+                new BatchTaskResponse(List.of(), "REJECTED", "No handler for task type: " + request.type));
+        }
+
+        List<Task> tasks = taskProducer.submitTasks(request.payloads,
+            new SubmitOptions(type, priority, resolveRunAt(request.runAt, request.delayMs), request.partitionKey));
+        List<Long> ids = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(new BatchTaskResponse(ids, tasks.get(0).getStatus().name(), ids.size() + " tasks submitted successfully"));
+    }
+
+    /**
+     * POST /api/tasks/{id}/cancel - Cancel a delayed task before it is released
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<TaskResponse> cancelTask(@PathVariable Long id) {
+        if (!taskProducer.cancelTask(id)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                new TaskResponse(id, "REJECTED", "Task is not scheduled (unknown, already released or cancelled)"));
+        }
+        return ResponseEntity.ok(new TaskResponse(id, Task.TaskStatus.CANCELLED.name(), "Task cancelled"));
+    }
+
+    /**
+     * POST /api/tasks/dead-letter/redrive - Re-queue dead-lettered (FAILED) tasks
+     * Request body (optional): { "ids": [1, 2, 3] }; without IDs the oldest
+     * FAILED tasks are re-queued, up to ?limit= (default and maximum: batch max-size)
+     */
+    @PostMapping("/dead-letter/redrive")
+    public ResponseEntity<BatchTaskResponse> redriveDeadLetters(@RequestBody(required = false) RedriveRequest request,
+                                                                @RequestParam(required = false) Integer limit) {
+        List<Long> ids = request != null ? request.ids : null;
+        if (ids != null && ids.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(
+                new BatchTaskResponse(List.of(), "REJECTED", "Batch size exceeds limit of " + maxBatchSize));
+        }
+        int max = limit == null ? maxBatchSize : Math.min(Math.max(limit, 1), maxBatchSize);
+
+        List<Long> redriven = taskProducer.redriveFailed(ids, max);
+        return ResponseEntity.ok(new BatchTaskResponse(redriven, Task.TaskStatus.PENDING.name(),
+            redriven.size() + " tasks re-queued"));
+    }
+
+    private LocalDateTime resolveRunAt(LocalDateTime runAt, Long delayMs) {
+        return delayMs != null ? LocalDateTime.now().plus(Duration.ofMillis(delayMs)) : runAt;
+    }
+
+    /**
+     * Resolves an optional task type; null when no handler is registered for it.
+     */
+    private String resolveType(String value) {
+        if (value == null || value.isBlank()) {
+            return Task.DEFAULT_TYPE;
+        }
+        return handlerRegistry.hasHandler(value.trim()) ? value.trim() : null;
+    }
+
+    /**
+     * Parses an optional priority name; null when it is not a known priority.
+     */
+    private Task.Priority parsePriority(String value) {
+        if (value == null || value.isBlank()) {
+            return Task.Priority.NORMAL;
+        }
+        try {
+            return Task.Priority.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * GET /api/tasks/{id} - Get task status by ID
      */
@@ -74,12 +222,14 @@ public class TaskController {
         StatsResponse response = new StatsResponse();
         response.queueDepth = stats.queueDepth;
         response.totalTasks = stats.totalTasks;
+        response.scheduledTasks = stats.scheduledTasks;
         response.pendingTasks = stats.pendingTasks;
         response.processingTasks = stats.processingTasks;
         response.completedTasks = stats.completedTasks;
         response.failedTasks = stats.failedTasks;
         response.processedByWorker = taskWorker.getProcessedCount();
         response.failedByWorker = taskWorker.getFailedCount();
+        response.skippedByWorker = taskWorker.getSkippedCount();
         return ResponseEntity.ok(response);
     }
 
@@ -126,7 +276,16 @@ public class TaskController {
 
     // DTO classes
     public static class TaskRequest {
+        public String type;
         public String payload;
+        public String priority;
+        public LocalDateTime runAt;
+        public Long delayMs;
+        public String partitionKey;
+    }
+
+    public static class RedriveRequest {
+        public List<Long> ids;
     }
 
     public static class TaskResponse {
@@ -141,14 +300,39 @@ public class TaskController {
         }
     }
 
+    public static class BatchTaskRequest {
+        public String type;
+        public List<String> payloads;
+        public String priority;
+        public LocalDateTime runAt;
+        public Long delayMs;
+        public String partitionKey;
+    }
+
+    public static class BatchTaskResponse {
+        public List<Long> ids;
+        public int count;
+        public String status;
+        public String message;
+
+        public BatchTaskResponse(List<Long> ids, String status, String message) {
+            this.ids = ids;
+            this.count = ids.size();
+            this.status = status;
+            this.message = message;
+        }
+    }
+
     public static class StatsResponse {
         public long queueDepth;
         public long totalTasks;
+        public long scheduledTasks;
         public long pendingTasks;
         public long processingTasks;
         public long completedTasks;
         public long failedTasks;
         public long processedByWorker;
         public long failedByWorker;
+        public long skippedByWorker;
     }
 }
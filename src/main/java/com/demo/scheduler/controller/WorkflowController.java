@@ -0,0 +1,87 @@
+package com.demo.scheduler.controller;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.service.WorkflowService;
+import com.demo.scheduler.service.WorkflowService.SubmittedWorkflow;
+import com.demo.scheduler.service.WorkflowService.WorkflowNode;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST API for workflows: DAGs of tasks where a task starts only once all
+ * the tasks it depends on have completed.
+ */
+@RestController
+@RequestMapping("/api/workflows")
+public class WorkflowController {
+
+    private final WorkflowService workflowService;
+
+    public WorkflowController(WorkflowService workflowService) {
+        this.workflowService = workflowService;
+    }
+
+    /**
+     * POST /api/workflows - Submit a workflow
+     * Request body: { "name": "etl", "tasks": [
+     *     { "key": "A", "payload": "extract" },
+     *     { "key": "B", "payload": "extract-2" },
+     *     { "key": "C", "payload": "load", "dependsOn": ["A", "B"], "type": "default", "priority": "HIGH" } ] }
+     * Response: the workflow ID and the task ID of every key.
+     */
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestBody WorkflowRequest request) {
+        if (request.tasks == null || request.tasks.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "tasks cannot be empty"));
+        }
+
+        List<WorkflowNode> nodes = new ArrayList<>(request.tasks.size());
+        for (NodeRequest task : request.tasks) {
+            Task.Priority priority;
+            try {
+                priority = task.priority == null || task.priority.isBlank()
+                    ? Task.Priority.NORMAL
+                    : Task.Priority.valueOf(task.priority.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid priority: " + task.priority));
+            }
+            nodes.add(new WorkflowNode(task.key, task.type, task.payload, priority, task.dependsOn));
+        }
+
+        try {
+            SubmittedWorkflow submitted = workflowService.submit(request.name, nodes);
+            return ResponseEntity.status(HttpStatus.CREATED).body(submitted);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/workflows/{id} - Progress and critical-path timing
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(@PathVariable Long id) {
+        return workflowService.report(id)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // DTO classes
+    public static class WorkflowRequest {
+        public String name;
+        public List<NodeRequest> tasks;
+    }
+
+    public static class NodeRequest {
+        public String key;
+        public String type;
+        public String payload;
+        public String priority;
+        public List<String> dependsOn;
+    }
+}
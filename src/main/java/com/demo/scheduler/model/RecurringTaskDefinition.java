@@ -0,0 +1,157 @@
+package com.demo.scheduler.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A recurring (cron-style) job. Each time it fires, one ordinary {@link Task}
+ * is created from {@code payload} and {@code priority}.
+ *
+ * {@code nextFireAt} is the claim token: a node fires the definition only if
+ * it moves nextFireAt forward from the value it expected, so every fire time
+ * is claimed by exactly one node.
+ */
+@Entity
+@Table(name = "recurring_tasks", indexes = {
+    @Index(name = "idx_recurring_updated", columnList = "updatedAt")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_recurring_name", columnNames = "name")
+})
+public class RecurringTaskDefinition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 200)
+    private String name;
+
+    // Spring CronExpression: 6 fields (second first) or a macro such as @daily
+    @Column(nullable = false, length = 120)
+    private String cronExpression;
+
+    @Column(nullable = false, length = 64)
+    private String timeZone;
+
+    @Column(nullable = false, length = 4096)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Task.Priority priority = Task.Priority.NORMAL;
+
+    @Column(nullable = false)
+    private boolean enabled = true;
+
+    // Null while disabled
+    private LocalDateTime nextFireAt;
+
+    private LocalDateTime lastFiredAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Bumped on every edit (not on fires); other nodes reload edited definitions by it
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public RecurringTaskDefinition() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCronExpression() {
+        return cronExpression;
+    }
+
+    public void setCronExpression(String cronExpression) {
+        this.cronExpression = cronExpression;
+    }
+
+    public String getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Task.Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Task.Priority priority) {
+        this.priority = priority;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public LocalDateTime getNextFireAt() {
+        return nextFireAt;
+    }
+
+    public void setNextFireAt(LocalDateTime nextFireAt) {
+        this.nextFireAt = nextFireAt;
+    }
+
+    public LocalDateTime getLastFiredAt() {
+        return lastFiredAt;
+    }
+
+    public void setLastFiredAt(LocalDateTime lastFiredAt) {
+        this.lastFiredAt = lastFiredAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RecurringTaskDefinition{id=" + id + ", name='" + name + "', cron='" + cronExpression +
+               "', nextFireAt=" + nextFireAt + "}";
+    }
+}
@@ -10,14 +10,30 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "tasks", indexes = {
     @Index(name = "idx_task_status", columnList = "status"),
-    @Index(name = "idx_task_created", columnList = "createdAt")
+    @Index(name = "idx_task_created", columnList = "createdAt"),
+    @Index(name = "idx_task_scheduled", columnList = "status, runAt"),
+    @Index(name = "idx_task_workflow", columnList = "workflowId")
 })
 public class Task {
 
+    public static final String DEFAULT_TYPE = "default";
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * Sequence-backed ID using Hibernate's pooled-lo optimizer: one sequence
+     * call reserves a block of {@code allocationSize} IDs, so inserts are not
+     * forced out one by one and can be grouped into JDBC batches.
+     * allocationSize must match the sequence INCREMENT BY in the migrations.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
+    // Selects the TaskHandler that executes the task
+    @Column(name = "task_type", nullable = false, length = 64)
+    private String type = DEFAULT_TYPE;
+
     @Column(nullable = false, length = 4096)
     private String payload;
 
@@ -25,9 +41,16 @@ public class Task {
     @Column(nullable = false, length = 20)
     private TaskStatus status = TaskStatus.PENDING;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Priority priority = Priority.NORMAL;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    // Earliest time a SCHEDULED task may run; null for immediate tasks
+    private LocalDateTime runAt;
+
     private LocalDateTime processedAt;
 
     private LocalDateTime completedAt;
@@ -35,11 +58,62 @@ public class Task {
     @Column(length = 1024)
     private String errorMessage;
 
+    // Tasks sharing a key (a tenant, an order, ...) go to one Kafka partition
+    // and run in order there; null lets the partitioning strategy decide
+    @Column(length = 128)
+    private String partitionKey;
+
+    // Workflow (DAG) this task belongs to; null for standalone tasks
+    private Long workflowId;
+
+    // Parents still to complete; a BLOCKED task is released when this reaches 0
+    @Column(nullable = false)
+    private int pendingParents;
+
+    // Claims so far (incremented by every PENDING -> PROCESSING transition)
+    @Column(nullable = false)
+    private int attemptCount;
+
+    // A failure on the last attempt is final (FAILED + dead-letter queue)
+    @Column(nullable = false)
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
     public enum TaskStatus {
+        SCHEDULED,  // Waiting for runAt (or a retry backoff) in the delay wheel; not yet on a broker
+        CANCELLED,  // Cancelled while SCHEDULED
+        BLOCKED,    // Workflow task waiting for its parents to complete
         PENDING,
         PROCESSING,
         COMPLETED,
-        FAILED
+        FAILED      // Out of attempts; published to the dead-letter queue
+    }
+
+    /**
+     * Scheduling priority. Declared most urgent first; each priority has its
+     * own broker lane and weight. The numeric level is what travels on the
+     * wire (TaskMessage.priority): higher is more urgent, null means NORMAL.
+     */
+    public enum Priority {
+        HIGH(2),
+        NORMAL(1),
+        LOW(0);
+
+        private final int level;
+
+        Priority(int level) {
+            this.level = level;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public static Priority fromLevel(Integer level) {
+            if (level == null) {
+                return NORMAL;
+            }
+            return level >= HIGH.level ? HIGH : level <= LOW.level ? LOW : NORMAL;
+        }
     }
 
     // Constructors
@@ -52,6 +126,11 @@ public class Task {
         this.payload = payload;
     }
 
+    public Task(String payload, Priority priority) {
+        this(payload);
+        this.priority = priority;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -61,6 +140,14 @@ public class Task {
         this.id = id;
     }
 
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
     public String getPayload() {
         return payload;
     }
@@ -77,6 +164,14 @@ public class Task {
         this.status = status;
     }
 
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -85,6 +180,14 @@ public class Task {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getRunAt() {
+        return runAt;
+    }
+
+    public void setRunAt(LocalDateTime runAt) {
+        this.runAt = runAt;
+    }
+
     public LocalDateTime getProcessedAt() {
         return processedAt;
     }
@@ -109,9 +212,49 @@ public class Task {
         this.errorMessage = errorMessage;
     }
 
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public void setPartitionKey(String partitionKey) {
+        this.partitionKey = partitionKey;
+    }
+
+    public Long getWorkflowId() {
+        return workflowId;
+    }
+
+    public void setWorkflowId(Long workflowId) {
+        this.workflowId = workflowId;
+    }
+
+    public int getPendingParents() {
+        return pendingParents;
+    }
+
+    public void setPendingParents(int pendingParents) {
+        this.pendingParents = pendingParents;
+    }
+
+    public int getAttemptCount() {
+        return attemptCount;
+    }
+
+    public void setAttemptCount(int attemptCount) {
+        this.attemptCount = attemptCount;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
     @Override
     public String toString() {
-        return "Task{id=" + id + ", status=" + status + ", payload='" + 
+        return "Task{id=" + id + ", type=" + type + ", status=" + status + ", priority=" + priority + ", payload='" + 
                (payload != null && payload.length() > 50 ? payload.substring(0, 50) + "..." : payload) + "'}";
     }
 }
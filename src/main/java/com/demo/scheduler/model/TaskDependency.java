@@ -0,0 +1,72 @@
+package com.demo.scheduler.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Workflow edge: {@code childId} may only start once {@code parentId} has
+ * completed. The primary key leads with parent_id, which is the lookup done
+ * on every completion. Written with JDBC batches, read by workflow ID.
+ */
+@Entity
+@Table(name = "task_dependencies", indexes = {
+    @Index(name = "idx_dependency_workflow", columnList = "workflowId")
+})
+@IdClass(TaskDependency.Key.class)
+public class TaskDependency {
+
+    @Id
+    private Long parentId;
+
+    @Id
+    private Long childId;
+
+    @Column(nullable = false)
+    private Long workflowId;
+
+    public TaskDependency() {
+    }
+
+    public TaskDependency(Long parentId, Long childId, Long workflowId) {
+        this.parentId = parentId;
+        this.childId = childId;
+        this.workflowId = workflowId;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public Long getChildId() {
+        return childId;
+    }
+
+    public Long getWorkflowId() {
+        return workflowId;
+    }
+
+    public static class Key implements Serializable {
+        private Long parentId;
+        private Long childId;
+
+        public Key() {
+        }
+
+        public Key(Long parentId, Long childId) {
+            this.parentId = parentId;
+            this.childId = childId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(parentId, key.parentId) && Objects.equals(childId, key.childId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(parentId, childId);
+        }
+    }
+}
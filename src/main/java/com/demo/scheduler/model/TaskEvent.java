@@ -6,6 +6,8 @@ public class TaskEvent implements Serializable {
     private Long taskId;
     private String payload;
     private String createdAt;
+    private Integer priority; // Task.Priority level, as in TaskMessage.avsc (null = NORMAL)
+    private String type;      // Task.type (null = default)
 
     public TaskEvent() {}
 
@@ -15,6 +17,11 @@ public class TaskEvent implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public TaskEvent(Long taskId, String payload, String createdAt, Integer priority) {
+        this(taskId, payload, createdAt);
+        this.priority = priority;
+    }
+
     public Long getTaskId() { return taskId; }
     public void setTaskId(Long taskId) { this.taskId = taskId; }
 
@@ -23,9 +30,15 @@ public class TaskEvent implements Serializable {
 
     public String getCreatedAt() { return createdAt; }
     public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+
+    public Integer getPriority() { return priority; }
+    public void setPriority(Integer priority) { this.priority = priority; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
     
     @Override
     public String toString() {
-        return "TaskEvent{id=" + taskId + ", payload='" + payload + "'}";
+        return "TaskEvent{id=" + taskId + ", type=" + type + ", priority=" + priority + ", payload='" + payload + "'}";
     }
 }
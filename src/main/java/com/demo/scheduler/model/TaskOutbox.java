@@ -0,0 +1,40 @@
+package com.demo.scheduler.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox entry: a task that must be published to the broker.
+ * Inserted in the transaction that creates (or re-queues) the task, so the
+ * publish happens if and only if that transaction commits; deleted by the
+ * relay once the broker has accepted the task. Written with JDBC batches.
+ */
+@Entity
+@Table(name = "task_outbox")
+public class TaskOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long taskId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public TaskOutbox() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,50 @@
+package com.demo.scheduler.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A task waiting in, or leased from, the postgres broker's queue table.
+ * Written and read with plain JDBC by PostgresTaskBroker; mapped so that the
+ * table exists in demo mode (ddl-auto) and is checked by schema validation.
+ */
+@Entity
+@Table(name = "task_queue", indexes = {
+    @Index(name = "idx_task_queue_pickup", columnList = "priority, visibleAt")
+})
+public class TaskQueueEntry {
+
+    @Id
+    private Long taskId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Task.Priority priority;
+
+    // Pollable from this time on; a lease moves it to the lease deadline
+    @Column(nullable = false)
+    private LocalDateTime visibleAt;
+
+    // Worker holding the lease, null while queued
+    @Column(length = 100)
+    private String leasedBy;
+
+    public TaskQueueEntry() {
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public Task.Priority getPriority() {
+        return priority;
+    }
+
+    public LocalDateTime getVisibleAt() {
+        return visibleAt;
+    }
+
+    public String getLeasedBy() {
+        return leasedBy;
+    }
+}
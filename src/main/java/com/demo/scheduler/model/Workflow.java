@@ -0,0 +1,75 @@
+package com.demo.scheduler.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A DAG of tasks submitted together. The nodes are ordinary {@link Task}s
+ * (workflowId set) and the edges are {@link TaskDependency} rows; a task
+ * with parents starts BLOCKED and is released when its last parent completes.
+ */
+@Entity
+@Table(name = "workflows")
+public class Workflow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 200)
+    private String name;
+
+    @Column(nullable = false)
+    private int nodeCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public Workflow() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Workflow(String name, int nodeCount) {
+        this();
+        this.name = name;
+        this.nodeCount = nodeCount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public void setNodeCount(int nodeCount) {
+        this.nodeCount = nodeCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Workflow{id=" + id + ", name='" + name + "', nodeCount=" + nodeCount + "}";
+    }
+}
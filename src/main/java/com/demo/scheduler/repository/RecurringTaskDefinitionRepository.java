@@ -0,0 +1,47 @@
+package com.demo.scheduler.repository;
+
+import com.demo.scheduler.model.RecurringTaskDefinition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for recurring task definitions.
+ */
+@Repository
+public interface RecurringTaskDefinitionRepository extends JpaRepository<RecurringTaskDefinition, Long> {
+
+    boolean existsByName(String name);
+
+    /**
+     * Page of enabled definitions as (id, nextFireAt) pairs, in ID order after
+     * {@code afterId}. Used to build the trigger heap on startup.
+     */
+    @Query("SELECT d.id, d.nextFireAt FROM RecurringTaskDefinition d " +
+           "WHERE d.enabled = true AND d.nextFireAt IS NOT NULL AND d.id > :afterId ORDER BY d.id")
+    List<Object[]> findEnabledAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Definitions edited after {@code since} (on any node).
+     */
+    List<RecurringTaskDefinition> findByUpdatedAtAfter(LocalDateTime since);
+
+    /**
+     * Claims one fire time: moves nextFireAt from {@code expected} to
+     * {@code next}. Zero rows means another node already fired it, or the
+     * definition was edited, disabled or deleted in the meantime.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RecurringTaskDefinition d SET d.nextFireAt = :next, d.lastFiredAt = :firedAt " +
+           "WHERE d.id = :id AND d.enabled = true AND d.nextFireAt = :expected")
+    int claimFire(@Param("id") Long id, @Param("expected") LocalDateTime expected,
+                  @Param("next") LocalDateTime next, @Param("firedAt") LocalDateTime firedAt);
+}
@@ -0,0 +1,23 @@
+package com.demo.scheduler.repository;
+
+import com.demo.scheduler.model.TaskDependency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for workflow dependency edges. Edges are inserted in JDBC
+ * batches through {@link TaskRepositoryCustom#insertDependencies(List)}.
+ */
+@Repository
+public interface TaskDependencyRepository extends JpaRepository<TaskDependency, TaskDependency.Key> {
+
+    /**
+     * All edges of a workflow as (parentId, childId) pairs.
+     */
+    @Query("SELECT d.parentId, d.childId FROM TaskDependency d WHERE d.workflowId = :workflowId")
+    List<Object[]> findEdges(@Param("workflowId") Long workflowId);
+}
@@ -0,0 +1,32 @@
+package com.demo.scheduler.repository;
+
+import com.demo.scheduler.model.TaskOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the transactional outbox. Entries are inserted in JDBC
+ * batches through {@link TaskRepositoryCustom#insertOutbox(List)}.
+ */
+@Repository
+public interface TaskOutboxRepository extends JpaRepository<TaskOutbox, Long> {
+
+    /**
+     * Locks the oldest {@code limit} entries as (id, taskId) pairs, skipping
+     * entries locked by another relay, so several nodes drain the outbox in
+     * parallel without publishing the same entry twice. Must run in the
+     * transaction that later deletes the entries.
+     */
+    @Query(value = "SELECT id, task_id FROM task_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<Object[]> lockOldest(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM TaskOutbox o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
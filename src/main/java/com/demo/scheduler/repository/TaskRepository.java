@@ -2,10 +2,15 @@ package com.demo.scheduler.repository;
 
 import com.demo.scheduler.model.Task;
 import com.demo.scheduler.model.Task.TaskStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -13,7 +18,7 @@ import java.util.Map;
  * Repository for Task entity persistence operations.
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
 
     List<Task> findByStatus(TaskStatus status);
 
@@ -23,4 +28,91 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Object[]> getStatusCounts();
 
     List<Task> findTop20ByOrderByCreatedAtDesc();
+
+    /**
+     * Page of SCHEDULED tasks as (id, runAt) pairs, in ID order after {@code afterId}.
+     * Used to rebuild the delay wheel on startup.
+     */
+    @Query("SELECT t.id, t.runAt FROM Task t WHERE t.status = com.demo.scheduler.model.Task$TaskStatus.SCHEDULED " +
+           "AND t.id > :afterId ORDER BY t.id")
+    List<Object[]> findScheduledAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * SCHEDULED tasks whose runAt passed before {@code before}, as (id, runAt)
+     * pairs: tasks whose node went away before releasing them.
+     */
+    @Query("SELECT t.id, t.runAt FROM Task t WHERE t.status = com.demo.scheduler.model.Task$TaskStatus.SCHEDULED " +
+           "AND t.runAt < :before ORDER BY t.runAt")
+    List<Object[]> findOverdueScheduled(@Param("before") LocalDateTime before, Pageable pageable);
+
+    // Single-statement status transitions. Each UPDATE is guarded by the expected
+    // current status, so the affected-row count tells the caller whether it won
+    // the transition (1) or the task was missing / already moved on (0).
+
+    /**
+     * Claims a task for processing: PENDING -> PROCESSING, counting one
+     * attempt. A task left in PROCESSING since before {@code staleBefore}
+     * (its worker died and the broker redelivered it) can be claimed again.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = com.demo.scheduler.model.Task$TaskStatus.PROCESSING, t.processedAt = :processedAt, " +
+           "t.attemptCount = t.attemptCount + 1 " +
+           "WHERE t.id = :id AND (t.status = com.demo.scheduler.model.Task$TaskStatus.PENDING " +
+           "OR (t.status = com.demo.scheduler.model.Task$TaskStatus.PROCESSING AND t.processedAt < :staleBefore))")
+    int markProcessing(@Param("id") Long id, @Param("processedAt") LocalDateTime processedAt,
+                       @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * (type, payload) of a task, or empty if it does not exist. Read after the
+     * claim instead of loading the whole entity.
+     */
+    @Query("SELECT t.type, t.payload FROM Task t WHERE t.id = :id")
+    List<Object[]> findHandlerInput(@Param("id") Long id);
+
+    /**
+     * (attemptCount, maxAttempts) of a task, or empty if it does not exist.
+     */
+    @Query("SELECT t.attemptCount, t.maxAttempts FROM Task t WHERE t.id = :id")
+    List<Object[]> findAttempts(@Param("id") Long id);
+
+    /**
+     * Re-schedules a failed attempt for {@code runAt}: PROCESSING -> SCHEDULED.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = com.demo.scheduler.model.Task$TaskStatus.SCHEDULED, t.runAt = :runAt, " +
+           "t.errorMessage = :errorMessage " +
+           "WHERE t.id = :id AND t.status = com.demo.scheduler.model.Task$TaskStatus.PROCESSING")
+    int markRetry(@Param("id") Long id, @Param("runAt") LocalDateTime runAt, @Param("errorMessage") String errorMessage);
+
+    /**
+     * Page of FAILED task IDs in ID order after {@code afterId}.
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.status = com.demo.scheduler.model.Task$TaskStatus.FAILED " +
+           "AND t.id > :afterId ORDER BY t.id")
+    List<Long> findFailedAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * BLOCKED workflow tasks whose parents have all completed but that were
+     * not released (e.g. the node died between the completion and the release).
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.status = com.demo.scheduler.model.Task$TaskStatus.BLOCKED " +
+           "AND t.pendingParents = 0 ORDER BY t.id")
+    List<Long> findReadyBlocked(Pageable pageable);
+
+    /**
+     * (id, status, processedAt, completedAt) of every task in a workflow.
+     */
+    @Query("SELECT t.id, t.status, t.processedAt, t.completedAt FROM Task t WHERE t.workflowId = :workflowId")
+    List<Object[]> findWorkflowTimings(@Param("workflowId") Long workflowId);
+
+    /**
+     * Cancels a delayed task that has not been released yet: SCHEDULED -> CANCELLED.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = com.demo.scheduler.model.Task$TaskStatus.CANCELLED, t.completedAt = :cancelledAt " +
+           "WHERE t.id = :id AND t.status = com.demo.scheduler.model.Task$TaskStatus.SCHEDULED")
+    int markCancelled(@Param("id") Long id, @Param("cancelledAt") LocalDateTime cancelledAt);
 }
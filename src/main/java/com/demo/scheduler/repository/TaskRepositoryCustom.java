@@ -0,0 +1,88 @@
+package com.demo.scheduler.repository;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.TaskDependency;
+import com.demo.scheduler.model.Task.TaskStatus;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bulk persistence operations that bypass per-entity JPA round trips.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Inserts all tasks using JDBC batching. Generated IDs are assigned onto
+     * the given entities, which are detached when this method returns.
+     */
+    @Transactional
+    void insertAll(List<Task> tasks);
+
+    /**
+     * Applies terminal status transitions (PROCESSING -> COMPLETED / FAILED)
+     * as one JDBC batch in a single transaction. Rows no longer in PROCESSING
+     * are left untouched.
+     *
+     * In the same transaction, each workflow child of a task that actually
+     * completed has its pending-parent counter decremented, so the counters
+     * can never disagree with the parents' statuses.
+     *
+     * @return rows actually updated (of which COMPLETED), and the BLOCKED
+     *         children whose counter reached 0
+     */
+    @Transactional
+    AppliedStatusUpdates applyStatusUpdates(List<StatusUpdate> updates);
+
+    /**
+     * Inserts workflow edges as JDBC batches.
+     */
+    @Transactional
+    void insertDependencies(List<TaskDependency> dependencies);
+
+    /**
+     * Adds the tasks to the transactional outbox as JDBC batches; they are
+     * published by the relay once the caller's transaction commits.
+     */
+    @Transactional
+    void insertOutbox(List<Long> taskIds);
+
+    /**
+     * Moves workflow tasks whose parents have all completed BLOCKED -> PENDING
+     * as one JDBC batch. Tasks already released (e.g. by another node) are
+     * left untouched.
+     *
+     * @return IDs this call actually released, in input order
+     */
+    @Transactional
+    List<Long> releaseBlocked(List<Long> taskIds);
+
+    /**
+     * Moves due tasks SCHEDULED -> PENDING as one JDBC batch. Tasks that were
+     * cancelled, or already released by another node, are left untouched.
+     *
+     * @return IDs this call actually released, in input order
+     */
+    @Transactional
+    List<Long> releaseScheduled(List<Long> taskIds);
+
+    /**
+     * Moves dead-lettered tasks FAILED -> PENDING with a fresh attempt budget,
+     * as one JDBC batch. Tasks that are not FAILED are left untouched.
+     *
+     * @return IDs this call actually re-queued, in input order
+     */
+    @Transactional
+    List<Long> redriveFailed(List<Long> taskIds);
+
+    /**
+     * A terminal status transition for one task.
+     */
+    record StatusUpdate(Long taskId, TaskStatus status, String errorMessage, LocalDateTime at) {}
+
+    /**
+     * Outcome of {@link #applyStatusUpdates(List)}.
+     */
+    record AppliedStatusUpdates(int updated, int completed, List<Long> unblocked) {}
+}
@@ -0,0 +1,270 @@
+package com.demo.scheduler.repository;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.model.TaskDependency;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bulk implementation of {@link TaskRepositoryCustom}.
+ * Runs inside the caller's JPA transaction, so a batch is committed or rolled
+ * back together with the rest of the unit of work.
+ */
+class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final String STATUS_UPDATE_SQL =
+        "UPDATE tasks SET status = ?, error_message = ?, completed_at = ? WHERE id = ? AND status = 'PROCESSING'";
+
+    private static final String RELEASE_SQL =
+        "UPDATE tasks SET status = 'PENDING' WHERE id = ? AND status = 'SCHEDULED'";
+
+    private static final String REDRIVE_SQL =
+        "UPDATE tasks SET status = 'PENDING', attempt_count = 0, error_message = NULL, processed_at = NULL, " +
+        "completed_at = NULL WHERE id = ? AND status = 'FAILED'";
+
+    private static final String DECREMENT_SQL =
+        "UPDATE tasks SET pending_parents = pending_parents - ? WHERE id = ?";
+
+    private static final String UNBLOCK_SQL =
+        "UPDATE tasks SET status = 'PENDING' WHERE id = ? AND status = 'BLOCKED' AND pending_parents = 0";
+
+    private static final String CONFIRM_PENDING_SQL =
+        "SELECT id FROM tasks WHERE id IN (%s) AND status = 'PENDING'";
+
+    private static final String INSERT_DEPENDENCY_SQL =
+        "INSERT INTO task_dependencies (parent_id, child_id, workflow_id) VALUES (?, ?, ?)";
+
+    private static final String INSERT_OUTBOX_SQL =
+        "INSERT INTO task_outbox (task_id, created_at) VALUES (?, ?)";
+
+    private static final int MAX_IN_LIST = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    TaskRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * IDs come from the pooled-lo sequence allocator in memory, so persist()
+     * does not hit the database; Hibernate groups the queued INSERTs into JDBC
+     * batches of {@code batchSize} on each flush. Clearing after every flush
+     * keeps the persistence context from growing with the request.
+     */
+    @Override
+    public void insertAll(List<Task> tasks) {
+        for (int i = 0; i < tasks.size(); i++) {
+            entityManager.persist(tasks.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public AppliedStatusUpdates applyStatusUpdates(List<StatusUpdate> updates) {
+        List<Object[]> args = new ArrayList<>(updates.size());
+        for (StatusUpdate update : updates) {
+            args.add(new Object[] {
+                update.status().name(),
+                update.errorMessage(),
+                Timestamp.valueOf(update.at()),
+                update.taskId()
+            });
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(STATUS_UPDATE_SQL, args);
+        List<StatusUpdate> applied = new ArrayList<>(updates.size());
+        List<StatusUpdate> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                applied.add(updates.get(i));
+            } else if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(updates.get(i));
+            }
+        }
+        applied.addAll(confirmStatusUpdates(unknown));
+
+        // Only a confirmed transition may decrement children: a duplicate
+        // completion must not release a child early
+        List<Long> completed = new ArrayList<>();
+        for (StatusUpdate update : applied) {
+            if (update.status() == TaskStatus.COMPLETED) {
+                completed.add(update.taskId());
+            }
+        }
+        return new AppliedStatusUpdates(applied.size(), completed.size(), decrementChildren(completed));
+    }
+
+    /**
+     * Resolves updates whose batch count came back as SUCCESS_NO_INFO by
+     * re-reading the rows: an update took effect when the row now carries its
+     * status and its timestamp. A duplicate completion leaves the earlier
+     * completed_at in place, so it is not mistaken for this one.
+     */
+    private List<StatusUpdate> confirmStatusUpdates(List<StatusUpdate> unknown) {
+        if (unknown.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, StatusUpdate> byId = new HashMap<>();
+        for (StatusUpdate update : unknown) {
+            byId.put(update.taskId(), update);
+        }
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        List<StatusUpdate> confirmed = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, status, completed_at FROM tasks WHERE id IN (" + placeholders + ")", rs -> {
+                StatusUpdate update = byId.get(rs.getLong("id"));
+                Timestamp completedAt = rs.getTimestamp("completed_at");
+                if (update.status().name().equals(rs.getString("status")) && completedAt != null
+                        && sameInstant(completedAt.toLocalDateTime(), update.at())) {
+                    confirmed.add(update);
+                }
+            }, chunk.toArray());
+        }
+        return confirmed;
+    }
+
+    /**
+     * Column precision is coarser than LocalDateTime.now(), and PostgreSQL rounds
+     * rather than truncates, so stored timestamps are compared to the millisecond.
+     */
+    private static boolean sameInstant(LocalDateTime stored, LocalDateTime written) {
+        return Duration.between(stored, written).abs().toMillis() < 1;
+    }
+
+    /**
+     * Decrements the pending-parent counter of every child of the given
+     * completed tasks; a single indexed lookup when none of them has children.
+     * A child with several parents in the batch is updated once, by the
+     * number of those parents.
+     *
+     * @return children now at 0 and still BLOCKED
+     */
+    private List<Long> decrementChildren(List<Long> completed) {
+        if (completed.isEmpty()) {
+            return List.of();
+        }
+        List<Long> children = queryIds("SELECT child_id FROM task_dependencies WHERE parent_id IN (%s)", completed);
+        if (children.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> decrements = new TreeMap<>();
+        for (Long childId : children) {
+            decrements.merge(childId, 1, Integer::sum);
+        }
+        // Row locks on the children serialize parents finishing concurrently on other nodes;
+        // taken in ascending ID order so two flushes sharing children cannot deadlock
+        List<Object[]> args = new ArrayList<>(decrements.size());
+        decrements.forEach((childId, count) -> args.add(new Object[] {count, childId}));
+        jdbcTemplate.batchUpdate(DECREMENT_SQL, args);
+
+        return queryIds("SELECT id FROM tasks WHERE id IN (%s) AND status = 'BLOCKED' AND pending_parents = 0",
+            new ArrayList<>(decrements.keySet()));
+    }
+
+    /**
+     * Runs a query with one IN list, in chunks, collecting the first column.
+     */
+    private List<Long> queryIds(String sql, List<Long> ids) {
+        List<Long> result = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            result.addAll(jdbcTemplate.queryForList(String.format(sql, placeholders), Long.class, chunk.toArray()));
+        }
+        return result;
+    }
+
+    @Override
+    public void insertDependencies(List<TaskDependency> dependencies) {
+        jdbcTemplate.batchUpdate(INSERT_DEPENDENCY_SQL, dependencies, batchSize, (ps, dependency) -> {
+            ps.setLong(1, dependency.getParentId());
+            ps.setLong(2, dependency.getChildId());
+            ps.setLong(3, dependency.getWorkflowId());
+        });
+    }
+
+    @Override
+    public void insertOutbox(List<Long> taskIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, taskIds, batchSize, (ps, taskId) -> {
+            ps.setLong(1, taskId);
+            ps.setTimestamp(2, now);
+        });
+    }
+
+    @Override
+    public List<Long> releaseBlocked(List<Long> taskIds) {
+        return batchTransition(UNBLOCK_SQL, CONFIRM_PENDING_SQL, taskIds);
+    }
+
+    @Override
+    public List<Long> releaseScheduled(List<Long> taskIds) {
+        return batchTransition(RELEASE_SQL, CONFIRM_PENDING_SQL, taskIds);
+    }
+
+    @Override
+    public List<Long> redriveFailed(List<Long> taskIds) {
+        return batchTransition(REDRIVE_SQL, CONFIRM_PENDING_SQL, taskIds);
+    }
+
+    /**
+     * Runs a conditional single-ID UPDATE for each task as one JDBC batch.
+     * Rows the driver reports as SUCCESS_NO_INFO are re-read with
+     * {@code confirmSql}, which selects the IDs now in the target state.
+     *
+     * @return IDs whose row was updated, in input order
+     */
+    private List<Long> batchTransition(String sql, String confirmSql, List<Long> taskIds) {
+        List<Object[]> args = new ArrayList<>(taskIds.size());
+        for (Long taskId : taskIds) {
+            args.add(new Object[] {taskId});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(sql, args);
+        List<Long> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(taskIds.get(i));
+            }
+        }
+        Set<Long> confirmed = unknown.isEmpty() ? Set.of() : new HashSet<>(queryIds(confirmSql, unknown));
+
+        List<Long> updated = new ArrayList<>(taskIds.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || (counts[i] == Statement.SUCCESS_NO_INFO && confirmed.contains(taskIds.get(i)))) {
+                updated.add(taskIds.get(i));
+            }
+        }
+        return updated;
+    }
+}
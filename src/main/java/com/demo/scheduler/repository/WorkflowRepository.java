@@ -0,0 +1,12 @@
+package com.demo.scheduler.repository;
+
+import com.demo.scheduler.model.Workflow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for workflows (task DAGs).
+ */
+@Repository
+public interface WorkflowRepository extends JpaRepository<Workflow, Long> {
+}
@@ -0,0 +1,306 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.config.BrokerConfigManager;
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Live feed behind the dashboards (GET /api/dashboard/stream, Server-Sent
+ * Events).
+ *
+ * Every {@code scheduler.dashboard.interval-ms}, and only while someone is
+ * subscribed, the feed's own thread builds one snapshot: task stats, the
+ * recent tasks, captured broker messages and the inspector of the active
+ * broker (Kafka Admin or Redis INFO). Each section is serialized once and
+ * shared by all subscribers, so the database and broker load no longer
+ * grows with the number of open tabs.
+ *
+ * A subscriber is only sent the sections that changed since its last event.
+ * It holds at most one unsent snapshot: a newer one replaces it, so a client
+ * that falls behind skips intermediate states instead of queueing them. A
+ * client still stuck on one send after {@code slow-client-timeout-ms} is
+ * disconnected; EventSource reconnects on its own and gets a full snapshot.
+ */
+@Service
+public class DashboardFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardFeed.class);
+    private static final String EVENT_NAME = "snapshot";
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+    private static final int RECENT_MESSAGES = 20;
+
+    private final TaskStatusCounters statusCounters;
+    private final TaskWorker taskWorker;
+    private final TaskRepository taskRepository;
+    private final MessageCaptureService messageCapture;
+    private final KafkaAdminService kafkaAdminService;
+    private final BrokerConfigManager brokerConfigManager;
+    private final ObjectProvider<TaskProducer> taskProducer;
+    private final ObjectProvider<RedisAdminService> redisAdminService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${scheduler.dashboard.interval-ms:1000}")
+    private long intervalMs;
+
+    @Value("${scheduler.dashboard.max-subscribers:100}")
+    private int maxSubscribers;
+
+    @Value("${scheduler.dashboard.slow-client-timeout-ms:5000}")
+    private long slowClientTimeoutMs;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Sends block on slow sockets; a virtual thread per send keeps that cheap
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Last snapshot built: section name -> JSON
+    private volatile Map<String, String> latest;
+
+    private volatile boolean running;
+    private Thread feeder;
+
+    public DashboardFeed(TaskStatusCounters statusCounters,
+                         TaskWorker taskWorker,
+                         TaskRepository taskRepository,
+                         MessageCaptureService messageCapture,
+                         KafkaAdminService kafkaAdminService,
+                         BrokerConfigManager brokerConfigManager,
+                         ObjectProvider<TaskProducer> taskProducer,
+                         ObjectProvider<RedisAdminService> redisAdminService,
+                         ObjectMapper objectMapper) {
+        this.statusCounters = statusCounters;
+        this.taskWorker = taskWorker;
+        this.taskRepository = taskRepository;
+        this.messageCapture = messageCapture;
+        this.kafkaAdminService = kafkaAdminService;
+        this.brokerConfigManager = brokerConfigManager;
+        this.taskProducer = taskProducer;
+        this.redisAdminService = redisAdminService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        feeder = new Thread(this::runFeeder, "dashboard-feed");
+        feeder.setDaemon(true);
+        feeder.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (feeder != null) {
+            LockSupport.unpark(feeder);
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    /**
+     * Registers a new client; it gets the latest snapshot at once.
+     *
+     * @return null if max-subscribers clients are already connected
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        Map<String, String> snapshot = latest;
+        if (snapshot != null) {
+            offer(subscriber, snapshot);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void runFeeder() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            try {
+                publish();
+            } catch (Exception e) {
+                log.error("Dashboard feed error: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Builds one snapshot and hands it to every subscriber.
+     */
+    private void publish() {
+        if (subscribers.isEmpty()) {
+            latest = null;
+            return;
+        }
+        Map<String, String> snapshot = snapshot();
+        latest = snapshot;
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, snapshot);
+        }
+    }
+
+    private Map<String, String> snapshot() {
+        Map<String, String> sections = new LinkedHashMap<>();
+        String brokerType = brokerConfigManager.getBrokerType();
+        put(sections, "config", Map.of("brokerType", brokerType));
+        put(sections, "stats", stats());
+        put(sections, "recent", taskRepository.findTop20ByOrderByCreatedAtDesc());
+
+        List<Map<String, Object>> messages = messageCapture.getRecentMessages();
+        put(sections, "messages", messages.subList(0, Math.min(RECENT_MESSAGES, messages.size())));
+
+        if ("kafka".equalsIgnoreCase(brokerType)) {
+            Map<String, Object> kafka = new HashMap<>();
+            kafka.put("cluster", kafkaAdminService.getClusterInfo());
+            kafka.put("topic", kafkaAdminService.getTopicInfo(kafkaAdminService.getTopicName()));
+            kafka.put("consumerGroup", kafkaAdminService.getConsumerGroupInfo(kafkaAdminService.getConsumerGroupId()));
+            put(sections, "kafka", kafka);
+        } else {
+            RedisAdminService redis = redisAdminService.getIfAvailable();
+            if (redis != null) {
+                Map<String, Object> overview = new HashMap<>();
+                overview.put("server", redis.getRedisInfo());
+                overview.put("queue", redis.getQueueStats());
+                put(sections, "redis", overview);
+            }
+        }
+        return sections;
+    }
+
+    /**
+     * Same fields as GET /api/tasks/stats.
+     */
+    private Map<String, Object> stats() {
+        TaskProducer producer = taskProducer.getIfAvailable();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", producer != null ? producer.getQueueDepth() : -1);
+        stats.put("totalTasks", statusCounters.total());
+        stats.put("scheduledTasks", statusCounters.get(TaskStatus.SCHEDULED));
+        stats.put("pendingTasks", statusCounters.get(TaskStatus.PENDING));
+        stats.put("processingTasks", statusCounters.get(TaskStatus.PROCESSING));
+        stats.put("completedTasks", statusCounters.get(TaskStatus.COMPLETED));
+        stats.put("failedTasks", statusCounters.get(TaskStatus.FAILED));
+        stats.put("processedByWorker", taskWorker.getProcessedCount());
+        stats.put("failedByWorker", taskWorker.getFailedCount());
+        stats.put("skippedByWorker", taskWorker.getSkippedCount());
+        return stats;
+    }
+
+    private void put(Map<String, String> sections, String name, Object value) {
+        try {
+            sections.put(name, objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize dashboard section {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void offer(Subscriber subscriber, Map<String, String> snapshot) {
+        subscriber.pending.set(snapshot);
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        } else if (System.nanoTime() - subscriber.sendStartedAt > TimeUnit.MILLISECONDS.toNanos(slowClientTimeoutMs)) {
+            log.info("Disconnecting dashboard client stuck on one event for over {}ms", slowClientTimeoutMs);
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * Sends the subscriber's pending snapshot until there is none left.
+     */
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Map<String, String> snapshot = subscriber.pending.getAndSet(null);
+            if (snapshot == null) {
+                subscriber.sending.set(false);
+                // A snapshot offered after the getAndSet but before the flag cleared
+                if (subscriber.pending.get() == null || !subscriber.sending.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            subscriber.sendStartedAt = System.nanoTime();
+            try {
+                send(subscriber, snapshot);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                subscribers.remove(subscriber);
+                subscriber.sending.set(false);
+                return;
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, Map<String, String> snapshot) throws IOException {
+        StringBuilder changed = new StringBuilder("{");
+        for (Map.Entry<String, String> section : snapshot.entrySet()) {
+            if (!section.getValue().equals(subscriber.sent.get(section.getKey()))) {
+                if (changed.length() > 1) {
+                    changed.append(',');
+                }
+                changed.append('"').append(section.getKey()).append("\":").append(section.getValue());
+            }
+        }
+
+        long now = System.nanoTime();
+        if (changed.length() > 1) {
+            subscriber.emitter.send(SseEmitter.event().name(EVENT_NAME).data(changed.append('}').toString()));
+            subscriber.sent.putAll(snapshot);
+            subscriber.lastEventAt = now;
+        } else if (now - subscriber.lastEventAt > HEARTBEAT_NANOS) {
+            // Keeps proxies from closing an idle stream and detects dead clients
+            subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+            subscriber.lastEventAt = now;
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final AtomicReference<Map<String, String>> pending = new AtomicReference<>();
+        final AtomicBoolean sending = new AtomicBoolean();
+        // Sections as last sent to this client; only touched by the sending thread
+        final Map<String, String> sent = new HashMap<>();
+        volatile long sendStartedAt = System.nanoTime();
+        long lastEventAt = System.nanoTime();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Holds delayed tasks until their runAt and then releases them to the active
+ * broker.
+ *
+ * The database row (status SCHEDULED + run_at) is the durable copy; the
+ * in-memory {@link HierarchicalTimingWheel} is the index, so scheduling and
+ * cancelling are O(1) and nothing polls the tasks table for due work.
+ * A ticker thread advances the wheel every tick and releases due tasks in
+ * batches, one transaction each: a JDBC batch SCHEDULED -> PENDING (which
+ * also drops tasks that were cancelled or released by another node) and the
+ * released tasks' outbox entries ({@link OutboxRelay}). A task can therefore
+ * never be PENDING without being published, also when the node dies right
+ * after the release.
+ *
+ * Recovery: the wheel is rebuilt from SCHEDULED rows on startup, and a slow
+ * sweep picks up overdue rows left behind by a node that went away.
+ */
+@Service
+public class DelayedTaskScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DelayedTaskScheduler.class);
+    private static final int RECOVERY_PAGE_SIZE = 10_000;
+
+    private final TaskRepository taskRepository;
+    private final OutboxRelay outboxRelay;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskStatusCounters statusCounters;
+    private final HierarchicalTimingWheel<Long> wheel;
+
+    private final Map<Long, HierarchicalTimingWheel<Long>.Timeout> timeouts = new ConcurrentHashMap<>();
+
+    @Value("${scheduler.delay.release-batch-size:500}")
+    private int releaseBatchSize;
+
+    @Value("${scheduler.delay.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    @Value("${scheduler.delay.overdue-grace-ms:30000}")
+    private long overdueGraceMs;
+
+    private volatile boolean running;
+    private Thread ticker;
+
+    public DelayedTaskScheduler(
+            TaskRepository taskRepository,
+            OutboxRelay outboxRelay,
+            PlatformTransactionManager transactionManager,
+            TaskStatusCounters statusCounters,
+            @Value("${scheduler.delay.tick-ms:10}") long tickMs,
+            @Value("${scheduler.delay.wheel-size:512}") int wheelSize,
+            @Value("${scheduler.delay.levels:4}") int levels) {
+        this.taskRepository = taskRepository;
+        this.outboxRelay = outboxRelay;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statusCounters = statusCounters;
+        this.wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, levels, System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    public void start() {
+        recover();
+
+        running = true;
+        ticker = new Thread(this::runTicker, "delay-wheel");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            LockSupport.unpark(ticker);
+        }
+    }
+
+    /**
+     * Adds a persisted SCHEDULED task to the wheel. Inside a transaction this
+     * waits for the commit, so the release can never overtake the insert.
+     */
+    public void schedule(Task task) {
+        schedule(task.getId(), task.getRunAt());
+    }
+
+    /**
+     * Adds a task whose row is already SCHEDULED for {@code runAt}.
+     */
+    public void schedule(Long taskId, LocalDateTime runAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(taskId, runAt);
+                }
+            });
+        } else {
+            add(taskId, runAt);
+        }
+    }
+
+    /**
+     * Cancels a task that has not been released yet.
+     *
+     * @return false if the task is not SCHEDULED (unknown, released or already cancelled)
+     */
+    public boolean cancel(Long taskId) {
+        // The row is authoritative; other nodes still holding the ID will fail its release
+        if (taskRepository.markCancelled(taskId, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        statusCounters.moved(Task.TaskStatus.SCHEDULED, Task.TaskStatus.CANCELLED, 1);
+        HierarchicalTimingWheel<Long>.Timeout timeout = timeouts.remove(taskId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * Number of delayed tasks held in this node's wheel.
+     */
+    public int getScheduledCount() {
+        return wheel.size();
+    }
+
+    private void add(Long taskId, LocalDateTime runAt) {
+        addAt(taskId, runAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private void addAt(Long taskId, long deadlineMs) {
+        timeouts.computeIfAbsent(taskId, id -> wheel.schedule(id, deadlineMs));
+    }
+
+    private void runTicker() {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(wheel.getTickMs());
+        while (running) {
+            LockSupport.parkNanos(this, tickNanos);
+            try {
+                List<Long> due = wheel.advanceTo(System.currentTimeMillis());
+                for (int from = 0; from < due.size(); from += releaseBatchSize) {
+                    release(due.subList(from, Math.min(from + releaseBatchSize, due.size())));
+                }
+            } catch (Exception e) {
+                log.error("Delay wheel tick failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Releases one batch of due tasks. If the transaction fails, the batch
+     * goes back into the wheel and is retried after retry-delay-ms.
+     */
+    private void release(List<Long> due) {
+        for (Long taskId : due) {
+            timeouts.remove(taskId);
+        }
+
+        List<Long> released;
+        try {
+            released = transactionTemplate.execute(status -> {
+                List<Long> moved = taskRepository.releaseScheduled(due);
+                if (!moved.isEmpty()) {
+                    outboxRelay.publish(taskRepository.findAllById(moved));
+                }
+                return moved;
+            });
+        } catch (Exception e) {
+            log.error("Failed to release {} delayed tasks, retrying: {}", due.size(), e.getMessage());
+            retry(due);
+            return;
+        }
+        statusCounters.moved(Task.TaskStatus.SCHEDULED, Task.TaskStatus.PENDING, released.size());
+        log.debug("Released {} delayed tasks", released.size());
+    }
+
+    private void retry(List<Long> taskIds) {
+        long deadlineMs = System.currentTimeMillis() + retryDelayMs;
+        for (Long taskId : taskIds) {
+            addAt(taskId, deadlineMs);
+        }
+    }
+
+    /**
+     * Rebuilds the wheel from the SCHEDULED rows, one page at a time.
+     */
+    private void recover() {
+        long afterId = 0;
+        int recovered = 0;
+        List<Object[]> page;
+        do {
+            page = taskRepository.findScheduledAfter(afterId, PageRequest.of(0, RECOVERY_PAGE_SIZE));
+            for (Object[] row : page) {
+                Long taskId = (Long) row[0];
+                add(taskId, toLocalDateTime(row[1]));
+                afterId = taskId;
+            }
+            recovered += page.size();
+        } while (page.size() == RECOVERY_PAGE_SIZE);
+
+        if (recovered > 0) {
+            log.info("Recovered {} delayed tasks into the timing wheel", recovered);
+        }
+    }
+
+    /**
+     * Picks up SCHEDULED rows that are overdue by more than overdue-grace-ms,
+     * i.e. tasks whose owning node stopped before releasing them. An index
+     * range scan over (status, run_at); normally returns nothing.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.delay.recovery-sweep-ms:60000}")
+    public void sweepOverdue() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(overdueGraceMs));
+        List<Object[]> overdue = taskRepository.findOverdueScheduled(before, PageRequest.of(0, RECOVERY_PAGE_SIZE));
+        for (Object[] row : overdue) {
+            add((Long) row[0], toLocalDateTime(row[1]));
+        }
+        if (!overdue.isEmpty()) {
+            log.warn("Found {} overdue delayed tasks, releasing them", overdue.size());
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,218 @@
+package com.demo.scheduler.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hashed hierarchical timing wheel (Varghese &amp; Lauck) for delayed tasks.
+ *
+ * Time is cut into ticks of {@code tickMs}. Level 0 has {@code wheelSize}
+ * slots of one tick each; every level above covers {@code wheelSize} times
+ * the span of the one below. An entry goes into the lowest level whose span
+ * reaches its deadline, and is moved down (cascaded) when the cursor reaches
+ * its slot, until it expires from level 0. Deadlines further out than the
+ * top level are parked in its last slot and re-placed when it cascades.
+ *
+ * Insert and cancel are O(1) (slot index arithmetic plus a doubly linked
+ * list per slot); advancing costs O(1) per elapsed tick plus O(levels) per
+ * entry over its lifetime. Deadlines are rounded up to the next tick, so an
+ * entry never expires early and at most one tick late.
+ *
+ * Thread-safe; all operations take one short lock.
+ */
+public class HierarchicalTimingWheel<E> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] spans; // spans[level] = ticks covered by one slot at that level
+    private final Node<E>[][] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long cursor; // next tick to expire
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel geometry");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels + 1];
+        this.spans[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            this.spans[level] = Math.multiplyExact(spans[level - 1], (long) wheelSize);
+        }
+        this.slots = new Node[levels][wheelSize];
+        this.cursor = startMs / tickMs;
+    }
+
+    /**
+     * Adds an element that becomes due at {@code deadlineMs} (epoch millis).
+     * A deadline already in the past expires on the next tick.
+     */
+    public Timeout schedule(E element, long deadlineMs) {
+        long tick = Math.max(Math.floorDiv(deadlineMs + tickMs - 1, tickMs), 0);
+        Node<E> node = new Node<>(element, deadlineMs, tick);
+        lock.lock();
+        try {
+            place(node);
+            size++;
+            return new Timeout(node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the cursor up to {@code nowMs} and returns every element that
+     * became due, in deadline (tick) order.
+     */
+    public List<E> advanceTo(long nowMs) {
+        long nowTick = nowMs / tickMs;
+        List<E> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (cursor <= nowTick) {
+                // Cascade the levels whose slot boundary is this tick, highest first
+                for (int level = slots.length - 1; level >= 1; level--) {
+                    if (cursor % spans[level] == 0) {
+                        int index = (int) ((cursor / spans[level]) % wheelSize);
+                        Node<E> node = detachSlot(level, index);
+                        while (node != null) {
+                            Node<E> next = node.next;
+                            node.prev = node.next = null;
+                            place(node);
+                            node = next;
+                        }
+                    }
+                }
+
+                Node<E> node = detachSlot(0, (int) (cursor % wheelSize));
+                while (node != null) {
+                    Node<E> next = node.next;
+                    node.prev = node.next = null;
+                    node.level = -1;
+                    size--;
+                    expired.add(node.element);
+                    node = next;
+                }
+                cursor++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    /**
+     * Number of scheduled, not yet expired or cancelled elements.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    private void place(Node<E> node) {
+        long tick = Math.max(node.tick, cursor); // past deadlines expire at the cursor
+        long distance = tick - cursor;
+        int level = 0;
+        while (level < slots.length - 1 && distance >= spans[level + 1]) {
+            level++;
+        }
+        if (distance >= spans[slots.length]) {
+            tick = cursor + spans[slots.length] - 1; // beyond the top level: park, re-placed on cascade
+        }
+
+        int index = (int) ((tick / spans[level]) % wheelSize);
+        node.level = level;
+        node.index = index;
+        node.next = slots[level][index];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        slots[level][index] = node;
+    }
+
+    private Node<E> detachSlot(int level, int index) {
+        Node<E> head = slots[level][index];
+        slots[level][index] = null;
+        return head;
+    }
+
+    private void unlink(Node<E> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            slots[node.level][node.index] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = node.next = null;
+        node.level = -1;
+        size--;
+    }
+
+    /**
+     * Handle to a scheduled element.
+     */
+    public final class Timeout {
+        private final Node<E> node;
+
+        private Timeout(Node<E> node) {
+            this.node = node;
+        }
+
+        public E element() {
+            return node.element;
+        }
+
+        public long deadlineMs() {
+            return node.deadlineMs;
+        }
+
+        /**
+         * Removes the element from the wheel in O(1).
+         *
+         * @return false if it had already expired or been cancelled
+         */
+        public boolean cancel() {
+            lock.lock();
+            try {
+                if (node.level < 0) {
+                    return false;
+                }
+                unlink(node);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Node<E> {
+        final E element;
+        final long deadlineMs;
+        final long tick;
+        int level = -1;
+        int index;
+        Node<E> prev;
+        Node<E> next;
+
+        Node(E element, long deadlineMs, long tick) {
+            this.element = element;
+            this.deadlineMs = deadlineMs;
+            this.tick = tick;
+        }
+    }
+}
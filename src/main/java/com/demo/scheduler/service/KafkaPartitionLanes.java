@@ -0,0 +1,90 @@
+package com.demo.scheduler.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * One serial lane per assigned Kafka partition (kafka-ordering: partition).
+ *
+ * A lane is the chain of a partition's tasks: each task is dispatched to the
+ * worker pool only once the previous one has finished, so a partition never
+ * has more than one task in flight and its tasks run in offset order, while
+ * different partitions run in parallel. Lanes outlive a batch, so a record
+ * still running when its batch timed out keeps the records after it waiting.
+ *
+ * Registered as the batch container's rebalance listener: a revoked
+ * partition's lane is drained (up to kafka-batch-timeout-ms) before the
+ * partition goes to its next owner, and a lost one is dropped.
+ */
+@Component
+public class KafkaPartitionLanes implements ConsumerRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaPartitionLanes.class);
+
+    private final Map<TopicPartition, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final long drainTimeoutMs;
+
+    public KafkaPartitionLanes(@Value("${scheduler.broker.kafka-batch-timeout-ms:60000}") long drainTimeoutMs) {
+        this.drainTimeoutMs = drainTimeoutMs;
+    }
+
+    /**
+     * Appends a task to the partition's lane.
+     *
+     * @param dispatch starts the task once given the lane's previous task
+     *                 (null when the lane is idle) and returns its completion
+     * @return completes when the task has finished
+     */
+    public CompletableFuture<Void> append(TopicPartition partition,
+                                          Function<CompletableFuture<Void>, CompletableFuture<Void>> dispatch) {
+        CompletableFuture<Void> previous = tails.get(partition);
+        CompletableFuture<Void> task = dispatch.apply(previous == null || previous.isDone() ? null : previous);
+        tails.put(partition, task);
+        return task;
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        Map<TopicPartition, CompletableFuture<Void>> revoked = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            CompletableFuture<Void> tail = tails.remove(partition);
+            if (tail != null && !tail.isDone()) {
+                revoked.put(partition, tail);
+            }
+        }
+        for (Map.Entry<TopicPartition, CompletableFuture<Void>> lane : revoked.entrySet()) {
+            try {
+                lane.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Lane of revoked partition {} did not drain: {}", lane.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        // Lanes are created by the first record of a partition
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        // Already owned by another consumer; nothing is committed for them anyway
+        partitions.forEach(tails::remove);
+    }
+}
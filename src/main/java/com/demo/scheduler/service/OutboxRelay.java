@@ -0,0 +1,188 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.config.BrokerConfigManager;
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.repository.TaskOutboxRepository;
+import com.demo.scheduler.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes tasks to the active broker through a transactional outbox.
+ *
+ * Every move to PENDING goes through it: submissions, redrives, workflow
+ * roots and released children, and delayed tasks and retries once due.
+ *
+ * {@link #publish(List)} only inserts outbox rows, in the caller's
+ * transaction: a rolled-back submission leaves nothing to publish, and a
+ * committed one cannot be lost between the commit and the broker send.
+ * A relay thread drains the outbox in batches; each batch is locked with
+ * FOR UPDATE SKIP LOCKED, published in bulk and deleted in one transaction,
+ * so relays on several nodes work in parallel without sending an entry
+ * twice. Delivery is at-least-once: a relay that dies after publishing but
+ * before committing leaves its batch to be sent again, which the workers'
+ * conditional PENDING -> PROCESSING claim absorbs.
+ *
+ * A commit wakes the local relay at once; poll-interval-ms bounds the delay
+ * for rows committed by other nodes or left by a failed batch.
+ *
+ * With {@code scheduler.outbox.enabled=false} tasks are published directly
+ * after the commit instead (no crash safety, no extra writes).
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskOutboxRepository outboxRepository;
+    private final BrokerConfigManager brokerConfigManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${scheduler.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduler.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${scheduler.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private final AtomicLong relayedCount = new AtomicLong(0);
+
+    private volatile boolean running;
+    private Thread relay;
+
+    public OutboxRelay(TaskRepository taskRepository,
+                       TaskOutboxRepository outboxRepository,
+                       BrokerConfigManager brokerConfigManager,
+                       PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.outboxRepository = outboxRepository;
+        this.brokerConfigManager = brokerConfigManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        relay = new Thread(this::runRelay, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (relay != null) {
+            LockSupport.unpark(relay);
+        }
+    }
+
+    /**
+     * Publishes tasks persisted by the current transaction once it commits.
+     * Outside a transaction the tasks are published right away.
+     */
+    public void publish(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        if (enabled) {
+            taskRepository.insertOutbox(tasks.stream().map(Task::getId).toList());
+            afterCommit(this::wakeUp);
+        } else {
+            afterCommit(() -> brokerConfigManager.resolveActiveBroker().submitTasks(tasks));
+        }
+    }
+
+    /**
+     * Tasks this node's relay has handed to the broker.
+     */
+    public long getRelayedCount() {
+        return relayedCount.get();
+    }
+
+    private void wakeUp() {
+        if (relay != null) {
+            LockSupport.unpark(relay);
+        }
+    }
+
+    private void runRelay() {
+        long pollNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMs);
+        while (running) {
+            int relayed = 0;
+            try {
+                relayed = relayBatch();
+            } catch (Exception e) {
+                log.error("Outbox relay failed, retrying: {}", e.getMessage());
+            }
+            // A full batch means there is probably more; otherwise wait for a commit or the poll
+            if (relayed < batchSize) {
+                LockSupport.parkNanos(this, pollNanos);
+            }
+        }
+    }
+
+    /**
+     * Locks, publishes and deletes the oldest batch of outbox entries. If the
+     * publish throws, the transaction rolls back and the entries stay.
+     *
+     * @return entries relayed
+     */
+    int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<Object[]> entries = outboxRepository.lockOldest(batchSize);
+            if (entries.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> entryIds = new ArrayList<>(entries.size());
+            List<Long> taskIds = new ArrayList<>(entries.size());
+            for (Object[] entry : entries) {
+                entryIds.add(((Number) entry[0]).longValue());
+                taskIds.add(((Number) entry[1]).longValue());
+            }
+
+            // Task IDs come from a sequence, so this restores submission order
+            List<Task> tasks = new ArrayList<>(taskRepository.findAllById(taskIds));
+            tasks.sort(Comparator.comparing(Task::getId));
+            brokerConfigManager.resolveActiveBroker().submitTasks(tasks);
+            outboxRepository.deleteByIds(entryIds);
+            return entries.size();
+        });
+        relayedCount.addAndGet(relayed);
+        return relayed;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
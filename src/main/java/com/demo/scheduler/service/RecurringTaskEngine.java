@@ -0,0 +1,243 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.RecurringTaskDefinition;
+import com.demo.scheduler.repository.RecurringTaskDefinitionRepository;
+import com.demo.scheduler.service.TaskProducer.SubmitOptions;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Trigger engine for {@link RecurringTaskDefinition}s.
+ *
+ * Every node keeps a min-heap of (nextFireAt, definition) and a tick only
+ * looks at the head, so the cost per tick is independent of the number of
+ * definitions; each fire is O(log n). Any node may fire a definition, but
+ * it has to win the claim first: one UPDATE moving next_fire_at forward
+ * from the value it expected, in the same transaction as the Task insert
+ * done through {@link TaskProducer}. A fire time is therefore materialized
+ * exactly once across the cluster, and a crash between claim and insert
+ * rolls both back.
+ *
+ * A node that loses a claim reloads that one row and re-queues the new fire
+ * time. Definitions edited on other nodes are picked up through an indexed
+ * updated_at query, never a full scan.
+ *
+ * Missed fires (all nodes down) are not replayed: the definition fires once
+ * on recovery and continues from the next cron time after now.
+ *
+ * A fire that throws (bad cron or time zone in the row, a failing insert) is
+ * retried after a backoff that starts at one tick and doubles up to
+ * max-backoff-ms, so one broken definition cannot hold the head of the heap
+ * and starve the others.
+ */
+//@Service
+public class RecurringTaskEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringTaskEngine.class);
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final RecurringTaskDefinitionRepository repository;
+    private final TaskProducer taskProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId systemZone = ZoneId.systemDefault();
+    private final long tickMs;
+    private final long maxBackoffMs;
+
+    private final PriorityBlockingQueue<Trigger> heap = new PriorityBlockingQueue<>();
+    // Latest known fire time per definition; heap entries that disagree are stale and skipped
+    private final Map<Long, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+
+    @Value("${scheduler.recurring.max-fires-per-tick:1000}")
+    private int maxFiresPerTick;
+
+    private volatile LocalDateTime lastRefresh;
+
+    public RecurringTaskEngine(RecurringTaskDefinitionRepository repository,
+                               TaskProducer taskProducer,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${scheduler.recurring.tick-ms:200}") long tickMs,
+                               @Value("${scheduler.recurring.max-backoff-ms:60000}") long maxBackoffMs) {
+        this.repository = repository;
+        this.taskProducer = taskProducer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tickMs = Math.max(1, tickMs);
+        this.maxBackoffMs = Math.max(this.tickMs, maxBackoffMs);
+    }
+
+    @PostConstruct
+    public void init() {
+        lastRefresh = LocalDateTime.now();
+        long afterId = 0;
+        int loaded = 0;
+        List<Object[]> page;
+        do {
+            page = repository.findEnabledAfter(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (Object[] row : page) {
+                afterId = (Long) row[0];
+                track(afterId, toLocalDateTime(row[1]));
+            }
+            loaded += page.size();
+        } while (page.size() == LOAD_PAGE_SIZE);
+        log.info("Recurring task engine started with {} enabled definitions", loaded);
+    }
+
+    /**
+     * Computes the first fire time strictly after {@code after} (server local
+     * time), evaluating the cron expression in the definition's time zone.
+     *
+     * @return null if the expression never fires again
+     */
+    public LocalDateTime nextFireTime(String cronExpression, String timeZone, LocalDateTime after) {
+        CronExpression cron = CronExpression.parse(cronExpression);
+        ZonedDateTime next = cron.next(after.atZone(systemZone).withZoneSameInstant(ZoneId.of(timeZone)));
+        return next == null ? null : next.withZoneSameInstant(systemZone).toLocalDateTime();
+    }
+
+    /**
+     * Registers a created or edited definition on this node. Other nodes see
+     * it on their next refresh.
+     */
+    public void reschedule(RecurringTaskDefinition definition) {
+        if (definition.isEnabled() && definition.getNextFireAt() != null) {
+            track(definition.getId(), definition.getNextFireAt());
+        } else {
+            scheduled.remove(definition.getId());
+        }
+    }
+
+    public void unschedule(Long definitionId) {
+        scheduled.remove(definitionId);
+    }
+
+    /**
+     * Fires every definition whose time has come (at most max-fires-per-tick).
+     */
+    @Scheduled(fixedDelayString = "${scheduler.recurring.tick-ms:200}")
+    public void fireDue() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int fired = 0; fired < maxFiresPerTick; fired++) {
+            Trigger head = heap.peek();
+            if (head == null || head.dueAt.isAfter(now)) {
+                return;
+            }
+            heap.poll();
+            if (!head.fireAt.equals(scheduled.get(head.definitionId))) {
+                continue; // Superseded by a newer fire time, or unscheduled
+            }
+            try {
+                fire(head, now);
+            } catch (Exception e) {
+                // Claim and insert rolled back together; back off and go on with the other due definitions
+                long delayMs = backoffMillis(head.failures + 1, tickMs, maxBackoffMs);
+                log.error("Failed to fire recurring definition {} (retry in {} ms): {}",
+                    head.definitionId, delayMs, e.getMessage());
+                heap.offer(new Trigger(now.plusNanos(delayMs * 1_000_000L), head.fireAt, head.definitionId,
+                    head.failures + 1));
+            }
+        }
+    }
+
+    private void fire(Trigger trigger, LocalDateTime now) {
+        Optional<RecurringTaskDefinition> found = repository.findById(trigger.definitionId);
+        if (found.isEmpty() || !found.get().isEnabled()) {
+            scheduled.remove(trigger.definitionId);
+            return;
+        }
+        RecurringTaskDefinition definition = found.get();
+
+        // Next time after now, not after the missed time: no catch-up storm
+        LocalDateTime base = now.isAfter(trigger.fireAt) ? now : trigger.fireAt;
+        LocalDateTime next = nextFireTime(definition.getCronExpression(), definition.getTimeZone(), base);
+
+        Boolean won = transactionTemplate.execute(status -> {
+            if (repository.claimFire(definition.getId(), trigger.fireAt, next, now) == 0) {
+                return false;
+            }
+            taskProducer.submitTask(definition.getPayload(), new SubmitOptions(null, definition.getPriority(), null, null));
+            return true;
+        });
+
+        if (Boolean.TRUE.equals(won)) {
+            log.debug("Fired recurring definition {} ({}), next at {}", definition.getId(), definition.getName(), next);
+            if (next != null) {
+                track(definition.getId(), next);
+            } else {
+                scheduled.remove(definition.getId());
+            }
+        } else {
+            // Another node fired it, or it was edited: follow the row
+            repository.findById(definition.getId()).ifPresentOrElse(this::reschedule,
+                () -> scheduled.remove(definition.getId()));
+        }
+    }
+
+    /**
+     * Picks up definitions created, edited or disabled on other nodes.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.recurring.refresh-ms:5000}")
+    public void refresh() {
+        LocalDateTime since = lastRefresh;
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap the window a little so a commit racing the previous query is not missed
+        for (RecurringTaskDefinition definition : repository.findByUpdatedAtAfter(since.minusSeconds(1))) {
+            reschedule(definition);
+        }
+        lastRefresh = now;
+    }
+
+    /**
+     * Number of definitions this node is tracking.
+     */
+    public int getTrackedCount() {
+        return scheduled.size();
+    }
+
+    /**
+     * Delay before retrying a fire that failed {@code failures} times in a
+     * row: one tick, doubled per failure, capped at {@code maxMs}.
+     */
+    static long backoffMillis(int failures, long tickMs, long maxMs) {
+        return (long) Math.min(maxMs, tickMs * Math.pow(2, Math.max(failures - 1, 0)));
+    }
+
+    private void track(Long definitionId, LocalDateTime fireAt) {
+        if (fireAt == null) {
+            return;
+        }
+        LocalDateTime previous = scheduled.put(definitionId, fireAt);
+        if (!fireAt.equals(previous)) {
+            heap.offer(new Trigger(fireAt, fireAt, definitionId, 0));
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    // dueAt is fireAt until a fire fails, then fireAt stays the claim token and dueAt moves back
+    private record Trigger(LocalDateTime dueAt, LocalDateTime fireAt, Long definitionId, int failures)
+            implements Comparable<Trigger> {
+        @Override
+        public int compareTo(Trigger other) {
+            return dueAt.compareTo(other.dueAt);
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.demo.scheduler.service;
 
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.service.broker.RedisStreamsTaskBroker;
+import com.demo.scheduler.service.broker.RedisTaskBroker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumer;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoGroup;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -21,10 +28,13 @@ public class RedisAdminService {
     @Value("${scheduler.queue.name:task-queue}")
     private String queueName;
 
+    @Value("${scheduler.broker.redis-streams.group:scheduler-workers}")
+    private String streamGroup;
+
     public Map<String, Object> getRedisInfo() {
         Map<String, Object> info = new HashMap<>();
         try {
-            Properties props = redisTemplate.getRequiredConnectionFactory().getConnection().info();
+            Properties props = redisTemplate.getRequiredConnectionFactory().getConnection().serverCommands().info();
             if (props != null) {
                 info.put("version", props.getProperty("redis_version"));
                 info.put("os", props.getProperty("os"));
@@ -46,9 +56,16 @@ public class RedisAdminService {
     public Map<String, Object> getQueueStats() {
         Map<String, Object> stats = new HashMap<>();
         try {
-            Long size = redisTemplate.opsForList().size(queueName);
+            long total = 0;
+            Map<String, Long> lanes = new HashMap<>();
+            for (Task.Priority priority : Task.Priority.values()) {
+                Long size = redisTemplate.opsForList().size(RedisTaskBroker.laneKey(queueName, priority));
+                lanes.put(priority.name(), size != null ? size : 0);
+                total += size != null ? size : 0;
+            }
             stats.put("queueName", queueName);
-            stats.put("size", size != null ? size : 0);
+            stats.put("size", total);
+            stats.put("sizeByPriority", lanes);
         } catch (Exception e) {
             log.error("Failed to get queue stats", e);
             stats.put("error", e.getMessage());
@@ -56,6 +73,50 @@ public class RedisAdminService {
         return stats;
     }
 
+    /**
+     * Per priority stream: its length, the consumer group's pending count
+     * and, per consumer, pending entries and time since it last read.
+     */
+    public Map<String, Object> getStreamStats() {
+        Map<String, Object> stats = new HashMap<>();
+        try {
+            Map<String, Object> lanes = new HashMap<>();
+            for (Task.Priority priority : Task.Priority.values()) {
+                String key = RedisStreamsTaskBroker.streamKey(queueName, priority);
+                Map<String, Object> lane = new HashMap<>();
+                Long length = redisTemplate.opsForStream().size(key);
+                lane.put("stream", key);
+                lane.put("length", length != null ? length : 0);
+
+                long pending = 0;
+                for (XInfoGroup group : redisTemplate.opsForStream().groups(key)) {
+                    if (streamGroup.equals(group.groupName())) {
+                        pending = group.pendingCount();
+                        lane.put("lastDeliveredId", group.lastDeliveredId());
+                    }
+                }
+                lane.put("pending", pending);
+
+                List<Map<String, Object>> consumers = new ArrayList<>();
+                for (XInfoConsumer consumer : redisTemplate.opsForStream().consumers(key, streamGroup)) {
+                    Map<String, Object> entry = new HashMap<>();
+                    entry.put("name", consumer.consumerName());
+                    entry.put("pending", consumer.pendingCount());
+                    entry.put("idleMs", consumer.idleTimeMs());
+                    consumers.add(entry);
+                }
+                lane.put("consumers", consumers);
+                lanes.put(priority.name(), lane);
+            }
+            stats.put("group", streamGroup);
+            stats.put("lanes", lanes);
+        } catch (Exception e) {
+            log.error("Failed to get stream stats", e);
+            stats.put("error", e.getMessage());
+        }
+        return stats;
+    }
+
     public String getQueueName() {
         return queueName;
     }
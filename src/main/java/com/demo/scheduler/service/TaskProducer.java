@@ -2,15 +2,19 @@ package com.demo.scheduler.service;
 
 import com.demo.scheduler.config.BrokerConfigManager;
 import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
 import com.demo.scheduler.repository.TaskRepository;
-import com.demo.scheduler.service.broker.TaskBroker;
+import com.demo.scheduler.service.broker.RedisTaskBroker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -24,78 +28,203 @@ public class TaskProducer {
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final TaskRepository taskRepository;
-    private final List<TaskBroker> brokers;
     private final BrokerConfigManager brokerConfigManager;
+    private final DelayedTaskScheduler delayedTaskScheduler;
+    private final OutboxRelay outboxRelay;
+    private final TaskStatusCounters statusCounters;
 
     @Value("${scheduler.queue.name:task-queue}")
     private String queueName;
 
+    @Value("${scheduler.retry.max-attempts:3}")
+    private int maxAttempts;
+
     public TaskProducer(RedisTemplate<String, Object> redisTemplate, 
                         TaskRepository taskRepository,
-                        List<TaskBroker> brokers,
-                        BrokerConfigManager brokerConfigManager) {
+                        BrokerConfigManager brokerConfigManager,
+                        DelayedTaskScheduler delayedTaskScheduler,
+                        OutboxRelay outboxRelay,
+                        TaskStatusCounters statusCounters) {
         this.redisTemplate = redisTemplate;
         this.taskRepository = taskRepository;
-        this.brokers = brokers;
         this.brokerConfigManager = brokerConfigManager;
+        this.delayedTaskScheduler = delayedTaskScheduler;
+        this.outboxRelay = outboxRelay;
+        this.statusCounters = statusCounters;
     }
 
     /**
-     * Submits a task: saves to PostgreSQL and pushes to configured broker.
-     * 
+     * Submits a task: saves to PostgreSQL and pushes to configured broker
+     * through the outbox, i.e. only once the row has been committed. A runAt
+     * in the future stores the task as SCHEDULED and hands it to the delay
+     * wheel instead, which publishes it when due.
+     *
      * @param payload The task payload/data
+     * @param options type, priority, runAt and partition key (see SubmitOptions)
      * @return The created Task with its assigned ID
      */
     @Transactional
-    public Task submitTask(String payload) {
+    public Task submitTask(String payload, SubmitOptions options) {
         // 1. Create and persist the task to PostgreSQL
-        Task task = new Task(payload);
+        Task task = newTask(payload, options);
+        boolean delayed = isDelayed(options.runAt());
+        if (delayed) {
+            markScheduled(task, options.runAt());
+        }
         task = taskRepository.save(task);
+        statusCounters.created(task.getStatus(), 1);
         
-        String currentBroker = brokerConfigManager.getBrokerType();
+        // 2. Route to configured broker via the outbox (or the delay wheel)
+        if (delayed) {
+            delayedTaskScheduler.schedule(task);
+        } else {
+            outboxRelay.publish(List.of(task));
+        }
+        return task;
+    }
+
+    /**
+     * Submits many tasks at once, all with the same options: one
+     * transaction, JDBC batch inserts and a single bulk publish to the
+     * configured broker. Whether the batch is delayed is decided once, up
+     * front, so a runAt falling due while the batch is built cannot leave
+     * part of it SCHEDULED and the rest on the broker.
+     *
+     * @param payloads The task payloads, in submission order
+     * @return The created Tasks with their assigned IDs, in the same order
+     */
+    @Transactional
+    public List<Task> submitTasks(List<String> payloads, SubmitOptions options) {
+        // 1. Persist all tasks in JDBC batches
+        List<Task> tasks = new ArrayList<>(payloads.size());
+        boolean delayed = isDelayed(options.runAt());
+        for (String payload : payloads) {
+            Task task = newTask(payload, options);
+            if (delayed) {
+                markScheduled(task, options.runAt());
+            }
+            tasks.add(task);
+        }
+        taskRepository.insertAll(tasks);
+        statusCounters.created(delayed ? Task.TaskStatus.SCHEDULED : Task.TaskStatus.PENDING, tasks.size());
+
+        // 2. Publish the whole batch to configured broker via the outbox (or the delay wheel)
+        if (delayed) {
+            tasks.forEach(delayedTaskScheduler::schedule);
+        } else {
+            outboxRelay.publish(tasks);
+        }
+        return tasks;
+    }
+
+    /**
+     * Cancels a delayed task that has not been released to the broker yet.
+     *
+     * @return false if the task is not SCHEDULED
+     */
+    public boolean cancelTask(Long taskId) {
+        return delayedTaskScheduler.cancel(taskId);
+    }
 
-        // 2. Route to configured broker
-        TaskBroker broker = brokers.stream()
-            .filter(b -> b.getBrokerType().equalsIgnoreCase(currentBroker))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Unknown broker type: " + currentBroker));
+    /**
+     * Re-queues dead-lettered (FAILED) tasks with a fresh attempt budget and
+     * publishes them to the configured broker through the outbox. Without explicit IDs, the
+     * oldest {@code limit} FAILED tasks are taken.
+     *
+     * @return IDs actually re-queued; IDs that were not FAILED are skipped
+     */
+    @Transactional
+    public List<Long> redriveFailed(List<Long> taskIds, int limit) {
+        List<Long> candidates = taskIds != null && !taskIds.isEmpty()
+            ? taskIds
+            : taskRepository.findFailedAfter(0L, PageRequest.of(0, limit));
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
 
-        broker.submitTask(task);
+        List<Long> redriven = taskRepository.redriveFailed(candidates);
+        statusCounters.moved(Task.TaskStatus.FAILED, Task.TaskStatus.PENDING, redriven.size());
+        if (!redriven.isEmpty()) {
+            outboxRelay.publish(taskRepository.findAllById(redriven));
+            log.info("Redrove {} dead-lettered tasks", redriven.size());
+        }
+        return redriven;
+    }
+
+    private Task newTask(String payload, SubmitOptions options) {
+        Task task = new Task(payload, options.priority());
+        task.setType(options.type());
+        task.setPartitionKey(options.partitionKey());
+        task.setMaxAttempts(maxAttempts);
         return task;
     }
 
+    private static boolean isDelayed(LocalDateTime runAt) {
+        return runAt != null && runAt.isAfter(LocalDateTime.now());
+    }
+
+    private static void markScheduled(Task task, LocalDateTime runAt) {
+        task.setStatus(Task.TaskStatus.SCHEDULED);
+        task.setRunAt(runAt);
+    }
+
     /**
-     * Gets the current queue depth (number of pending tasks in Redis).
+     * Gets the current queue depth (number of pending tasks in Redis, all priority lanes).
      * Note: This is specific to Redis; for Kafka, we might return 0 or implement a Lag checker.
      */
     public long getQueueDepth() {
         if ("redis".equalsIgnoreCase(brokerConfigManager.getBrokerType())) {
-            Long size = redisTemplate.opsForList().size(queueName);
-            return size != null ? size : 0;
+            long depth = 0;
+            for (Priority priority : Priority.values()) {
+                Long size = redisTemplate.opsForList().size(RedisTaskBroker.laneKey(queueName, priority));
+                depth += size != null ? size : 0;
+            }
+            return depth;
         }
         return -1; // Not supported for others yet
     }
 
     /**
-     * Gets task statistics from the database.
+     * Gets task statistics from the in-memory status counters (see
+     * TaskStatusCounters); no query against the tasks table.
      */
     public TaskStats getStats() {
         TaskStats stats = new TaskStats();
         stats.queueDepth = getQueueDepth();
-        stats.totalTasks = taskRepository.count();
-        stats.pendingTasks = taskRepository.countByStatus(Task.TaskStatus.PENDING);
-        stats.processingTasks = taskRepository.countByStatus(Task.TaskStatus.PROCESSING);
-        stats.completedTasks = taskRepository.countByStatus(Task.TaskStatus.COMPLETED);
-        stats.failedTasks = taskRepository.countByStatus(Task.TaskStatus.FAILED);
+        stats.totalTasks = statusCounters.total();
+        stats.scheduledTasks = statusCounters.get(Task.TaskStatus.SCHEDULED);
+        stats.pendingTasks = statusCounters.get(Task.TaskStatus.PENDING);
+        stats.processingTasks = statusCounters.get(Task.TaskStatus.PROCESSING);
+        stats.completedTasks = statusCounters.get(Task.TaskStatus.COMPLETED);
+        stats.failedTasks = statusCounters.get(Task.TaskStatus.FAILED);
         return stats;
     }
 
+    /**
+     * How a submission's tasks are created. A null type or priority means the
+     * default ("default" handler, NORMAL).
+     *
+     * @param type         selects the task handler (see TaskHandler)
+     * @param priority     routes the tasks to that priority's lane or topic
+     * @param runAt        not before this time; null or past runs now
+     * @param partitionKey on Kafka, tasks with the same key (a tenant, an
+     *                     order, ...) go to the same partition, in order
+     */
+    public record SubmitOptions(String type, Priority priority, LocalDateTime runAt, String partitionKey) {
+
+        public SubmitOptions {
+            type = type != null ? type : Task.DEFAULT_TYPE;
+            priority = priority != null ? priority : Priority.NORMAL;
+        }
+    }
+
     /**
      * Task statistics DTO.
      */
     public static class TaskStats {
         public long queueDepth;
         public long totalTasks;
+        public long scheduledTasks;
         public long pendingTasks;
         public long processingTasks;
         public long completedTasks;
@@ -0,0 +1,127 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.config.BrokerConfigManager;
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides what happens to a task whose attempt threw.
+ *
+ * Before the last attempt the task goes PROCESSING -> SCHEDULED with runAt
+ * set to now + backoff and is handed to the {@link DelayedTaskScheduler},
+ * which republishes it when due. The worker thread only does two small
+ * queries, it never sleeps. The last attempt fails the task for good
+ * (FAILED) and publishes it to the broker's dead-letter queue.
+ *
+ * Backoff is exponential with "equal jitter": half of the capped delay is
+ * fixed and the other half random, so retries of tasks that failed together
+ * (e.g. during a database blip) spread out instead of arriving in waves.
+ */
+@Service
+public class TaskRetryHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskRetryHandler.class);
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final TaskRepository taskRepository;
+    private final TaskStatusWriteBuffer statusBuffer;
+    private final DelayedTaskScheduler delayedTaskScheduler;
+    private final BrokerConfigManager brokerConfigManager;
+    private final TaskStatusCounters statusCounters;
+
+    @Value("${scheduler.retry.base-delay-ms:1000}")
+    private long baseDelayMs;
+
+    @Value("${scheduler.retry.max-delay-ms:300000}")
+    private long maxDelayMs;
+
+    private final AtomicLong retriedCount = new AtomicLong(0);
+    private final AtomicLong deadLetteredCount = new AtomicLong(0);
+
+    public TaskRetryHandler(TaskRepository taskRepository,
+                            TaskStatusWriteBuffer statusBuffer,
+                            DelayedTaskScheduler delayedTaskScheduler,
+                            BrokerConfigManager brokerConfigManager,
+                            TaskStatusCounters statusCounters) {
+        this.taskRepository = taskRepository;
+        this.statusBuffer = statusBuffer;
+        this.delayedTaskScheduler = delayedTaskScheduler;
+        this.brokerConfigManager = brokerConfigManager;
+        this.statusCounters = statusCounters;
+    }
+
+    /**
+     * Handles a failed attempt of a claimed (PROCESSING) task.
+     */
+    public void onFailure(Long taskId, String errorMessage) {
+        if (errorMessage != null && errorMessage.length() > MAX_ERROR_LENGTH) {
+            errorMessage = errorMessage.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        List<Object[]> attempts = taskRepository.findAttempts(taskId);
+        if (attempts.isEmpty()) {
+            return;
+        }
+        int attemptCount = ((Number) attempts.get(0)[0]).intValue();
+        int maxAttempts = ((Number) attempts.get(0)[1]).intValue();
+
+        if (attemptCount < maxAttempts) {
+            long delayMs = backoffMillis(attemptCount, baseDelayMs, maxDelayMs, ThreadLocalRandom.current().nextDouble());
+            LocalDateTime runAt = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMs));
+            if (taskRepository.markRetry(taskId, runAt, errorMessage) == 1) {
+                statusCounters.moved(TaskStatus.PROCESSING, TaskStatus.SCHEDULED, 1);
+                delayedTaskScheduler.schedule(taskId, runAt);
+                retriedCount.incrementAndGet();
+                log.debug("Task {} failed attempt {}/{}, retrying in {}ms", taskId, attemptCount, maxAttempts, delayMs);
+            }
+            return;
+        }
+
+        statusBuffer.fail(taskId, errorMessage);
+        deadLetteredCount.incrementAndGet();
+        log.warn("Task {} failed after {} attempts, moving it to the dead-letter queue: {}",
+            taskId, attemptCount, errorMessage);
+        try {
+            String reason = errorMessage;
+            taskRepository.findById(taskId).ifPresent(task -> brokerConfigManager.resolveActiveBroker().deadLetter(task, reason));
+        } catch (Exception e) {
+            // The FAILED row is still there for redrive
+            log.error("Failed to publish task {} to the dead-letter queue: {}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * Delay before the attempt following {@code attempt} (1-based):
+     * base * 2^(attempt-1), capped at max, with the upper half scaled by
+     * {@code random} in [0, 1).
+     */
+    static long backoffMillis(int attempt, long baseDelayMs, long maxDelayMs, double random) {
+        long capped = (long) Math.min(maxDelayMs, baseDelayMs * Math.pow(2, Math.max(attempt - 1, 0)));
+        long half = capped / 2;
+        return half + (long) (random * (capped - half));
+    }
+
+    /**
+     * Returns the count of failed attempts that were scheduled for a retry.
+     */
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    /**
+     * Returns the count of tasks that ran out of attempts.
+     */
+    public long getDeadLetteredCount() {
+        return deadLetteredCount.get();
+    }
+}
@@ -0,0 +1,186 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of tasks in each status, kept in memory so the stats endpoint
+ * never has to count the tasks table.
+ *
+ * Every status transition is recorded here by the component that makes it
+ * (producer, worker, status buffer, retry handler, delay wheel, workflows),
+ * right after its UPDATE or INSERT reports the rows it changed. Transitions
+ * that are rolled back afterwards, or that the counters cannot see (a claim
+ * taking over a stale PROCESSING task counts as PENDING -> PROCESSING), make
+ * the counts drift; {@link #reconcile()} corrects them against one GROUP BY
+ * query every {@code scheduler.stats.reconcile-interval-ms}.
+ *
+ * With {@code scheduler.stats.shared=true} the counts are cluster-wide: each
+ * node adds its changes to the Redis hash {@code {queue}:stats} (HINCRBY)
+ * every {@code push-interval-ms} and reads the totals back in the same round
+ * trip. Reads then lag other nodes by up to one push interval.
+ */
+@Service
+public class TaskStatusCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatusCounters.class);
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final TaskRepository taskRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean shared;
+    private final String sharedKey;
+
+    // This node's counts; when shared, its changes not yet pushed to Redis
+    private final LongAdder[] counts = new LongAdder[STATUSES.length];
+
+    // Cluster-wide counts as of the last push (shared only)
+    private volatile long[] sharedCounts = new long[STATUSES.length];
+
+    public TaskStatusCounters(TaskRepository taskRepository,
+                              StringRedisTemplate redisTemplate,
+                              @Value("${scheduler.stats.shared:false}") boolean shared,
+                              @Value("${scheduler.queue.name:task-queue}") String queueName) {
+        this.taskRepository = taskRepository;
+        this.redisTemplate = redisTemplate;
+        this.shared = shared;
+        this.sharedKey = queueName + ":stats";
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records newly inserted tasks.
+     */
+    public void created(TaskStatus status, int count) {
+        if (count > 0) {
+            counts[status.ordinal()].add(count);
+        }
+    }
+
+    /**
+     * Records tasks moved from one status to another.
+     */
+    public void moved(TaskStatus from, TaskStatus to, int count) {
+        if (count > 0) {
+            counts[from.ordinal()].add(-count);
+            counts[to.ordinal()].add(count);
+        }
+    }
+
+    /**
+     * Tasks currently in the given status.
+     */
+    public long get(TaskStatus status) {
+        return Math.max(0, sharedCounts[status.ordinal()] + counts[status.ordinal()].sum());
+    }
+
+    /**
+     * Tasks in any status.
+     */
+    public long total() {
+        long total = 0;
+        for (TaskStatus status : STATUSES) {
+            total += get(status);
+        }
+        return total;
+    }
+
+    /**
+     * Adds this node's changes to the shared hash and reads the totals back.
+     * Changes that fail to reach Redis are kept for the next push.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.stats.push-interval-ms:1000}")
+    public void push() {
+        if (!shared) {
+            return;
+        }
+        long[] deltas = new long[STATUSES.length];
+        for (int i = 0; i < STATUSES.length; i++) {
+            deltas[i] = counts[i].sumThenReset();
+        }
+        try {
+            List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (int i = 0; i < STATUSES.length; i++) {
+                    if (deltas[i] != 0) {
+                        redis.hIncrBy(sharedKey, STATUSES[i].name(), deltas[i]);
+                    }
+                }
+                redis.hGetAll(sharedKey);
+                return null;
+            });
+            sharedCounts = toCounts((Map<?, ?>) replies.get(replies.size() - 1));
+        } catch (Exception e) {
+            for (int i = 0; i < STATUSES.length; i++) {
+                counts[i].add(deltas[i]);
+            }
+            log.warn("Failed to push task status counts to Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resets the counts to the database's. Transitions recorded while the
+     * query runs are kept on top, so at worst they are counted twice until
+     * the next reconcile.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.stats.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        push();
+        long[] before = new long[STATUSES.length];
+        for (int i = 0; i < STATUSES.length; i++) {
+            before[i] = counts[i].sum();
+        }
+
+        long[] actual = new long[STATUSES.length];
+        try {
+            for (Object[] row : taskRepository.getStatusCounts()) {
+                actual[((TaskStatus) row[0]).ordinal()] = ((Number) row[1]).longValue();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reconcile task status counts: {}", e.getMessage());
+            return;
+        }
+
+        if (!shared) {
+            for (int i = 0; i < STATUSES.length; i++) {
+                counts[i].add(actual[i] - before[i]);
+            }
+            return;
+        }
+        // Changes pushed by other nodes since the query are overwritten until the next reconcile
+        try {
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < STATUSES.length; i++) {
+                fields.put(STATUSES[i].name(), Long.toString(actual[i]));
+            }
+            redisTemplate.opsForHash().putAll(sharedKey, fields);
+            sharedCounts = actual;
+        } catch (Exception e) {
+            log.warn("Failed to reconcile shared task status counts: {}", e.getMessage());
+        }
+    }
+
+    private static long[] toCounts(Map<?, ?> hash) {
+        long[] values = new long[STATUSES.length];
+        for (int i = 0; i < STATUSES.length; i++) {
+            Object value = hash.get(STATUSES[i].name());
+            values[i] = value != null ? Long.parseLong(value.toString()) : 0;
+        }
+        return values;
+    }
+}
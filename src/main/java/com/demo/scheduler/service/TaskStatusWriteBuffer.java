@@ -0,0 +1,243 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.repository.TaskRepositoryCustom.AppliedStatusUpdates;
+import com.demo.scheduler.repository.TaskRepositoryCustom.StatusUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind buffer between {@link TaskWorker} and {@link TaskRepository}.
+ *
+ * Terminal status transitions (COMPLETED / FAILED) are queued in a bounded
+ * lock-free queue and written by a flusher thread as one JDBC batch whenever
+ * {@code batch-size} updates are waiting or {@code flush-interval-ms} elapses.
+ *
+ * Durability modes:
+ * - sync:  the caller wakes the flusher and blocks until the batch holding its
+ *          update is committed (group commit: workers that arrive while a
+ *          batch is being written share the next round trip).
+ * - async: the caller returns immediately. A crash can lose at most
+ *          {@code capacity} updates, or roughly one flush interval of work;
+ *          those tasks stay PROCESSING in the database.
+ *
+ * Workflow children unblocked by a batch of completions are handed to the
+ * {@link WorkflowService} once the batch is committed.
+ */
+@Service
+public class TaskStatusWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatusWriteBuffer.class);
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    public enum Durability { SYNC, ASYNC }
+
+    private final TaskRepository taskRepository;
+    private final WorkflowService workflowService;
+    private final TaskStatusCounters statusCounters;
+    private final Durability durability;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final ConcurrentLinkedQueue<PendingUpdate> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public TaskStatusWriteBuffer(
+            TaskRepository taskRepository,
+            WorkflowService workflowService,
+            TaskStatusCounters statusCounters,
+            @Value("${scheduler.worker.status-buffer.durability:sync}") String durability,
+            @Value("${scheduler.worker.status-buffer.capacity:10000}") int capacity,
+            @Value("${scheduler.worker.status-buffer.batch-size:500}") int batchSize,
+            @Value("${scheduler.worker.status-buffer.flush-interval-ms:5}") long flushIntervalMs) {
+        this.taskRepository = taskRepository;
+        this.workflowService = workflowService;
+        this.statusCounters = statusCounters;
+        this.durability = Durability.valueOf(durability.toUpperCase());
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "status-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Status write buffer started: durability={}, capacity={}, batchSize={}, flushInterval={}ms",
+            durability, capacity, batchSize, TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos));
+    }
+
+    /**
+     * Records PROCESSING -> COMPLETED for a task.
+     */
+    public void complete(Long taskId) {
+        submit(new StatusUpdate(taskId, TaskStatus.COMPLETED, null, LocalDateTime.now()));
+    }
+
+    /**
+     * Records PROCESSING -> FAILED for a task.
+     */
+    public void fail(Long taskId, String errorMessage) {
+        if (errorMessage != null && errorMessage.length() > MAX_ERROR_LENGTH) {
+            // One oversized value would fail the whole JDBC batch
+            errorMessage = errorMessage.substring(0, MAX_ERROR_LENGTH);
+        }
+        submit(new StatusUpdate(taskId, TaskStatus.FAILED, errorMessage, LocalDateTime.now()));
+    }
+
+    private void submit(StatusUpdate update) {
+        PendingUpdate pending = new PendingUpdate(update,
+            durability == Durability.SYNC ? new CompletableFuture<>() : null);
+
+        // Bounded: when full, the caller drains a batch itself instead of growing the queue
+        while (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            flush();
+        }
+        queue.offer(pending);
+
+        if (pending.done == null) {
+            if (size.get() >= batchSize) {
+                LockSupport.unpark(flusher);
+            }
+            return;
+        }
+        // A waiting caller wakes the flusher right away; callers arriving while
+        // it writes share the next batch
+        if (running) {
+            LockSupport.unpark(flusher);
+        } else {
+            flush();
+        }
+        pending.done.join();
+    }
+
+    /**
+     * Writes everything currently buffered. Safe to call from any thread.
+     */
+    public void flush() {
+        List<PendingUpdate> batch = new ArrayList<>(batchSize);
+        while (true) {
+            PendingUpdate next;
+            while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            size.addAndGet(-batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingUpdate> batch) {
+        List<StatusUpdate> updates = new ArrayList<>(batch.size());
+        for (PendingUpdate pending : batch) {
+            updates.add(pending.update);
+        }
+
+        List<Long> unblocked = new ArrayList<>();
+        try {
+            unblocked.addAll(count(taskRepository.applyStatusUpdates(updates)).unblocked());
+            for (PendingUpdate pending : batch) {
+                if (pending.done != null) {
+                    pending.done.complete(null);
+                }
+            }
+        } catch (Exception e) {
+            // Retry row by row so one bad update does not take the rest of the batch down
+            log.error("Batched status flush of {} updates failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (PendingUpdate pending : batch) {
+                try {
+                    AppliedStatusUpdates applied = count(taskRepository.applyStatusUpdates(List.of(pending.update)));
+                    unblocked.addAll(applied.unblocked());
+                    if (pending.done != null) {
+                        pending.done.complete(null);
+                    }
+                } catch (Exception single) {
+                    log.error("Failed to persist status {} for task {}: {}",
+                        pending.update.status(), pending.update.taskId(), single.getMessage());
+                    if (pending.done != null) {
+                        pending.done.completeExceptionally(single);
+                    }
+                }
+            }
+        }
+
+        try {
+            workflowService.release(unblocked);
+        } catch (Exception e) {
+            // Their counters are committed at 0: the workflow sweep releases them
+            log.error("Failed to release {} workflow tasks: {}", unblocked.size(), e.getMessage());
+        }
+    }
+
+    private AppliedStatusUpdates count(AppliedStatusUpdates applied) {
+        statusCounters.moved(TaskStatus.PROCESSING, TaskStatus.COMPLETED, applied.completed());
+        statusCounters.moved(TaskStatus.PROCESSING, TaskStatus.FAILED, applied.updated() - applied.completed());
+        return applied;
+    }
+
+    private void runFlusher() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Status flusher error: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Number of updates waiting to be written.
+     */
+    public int getPendingCount() {
+        return size.get();
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+        }
+        flush();
+        log.info("Status write buffer stopped");
+    }
+
+    private static final class PendingUpdate {
+        final StatusUpdate update;
+        final CompletableFuture<Void> done;
+
+        PendingUpdate(StatusUpdate update, CompletableFuture<Void> done) {
+            this.update = update;
+            this.done = done;
+        }
+    }
+}
@@ -1,24 +1,43 @@
 package com.demo.scheduler.service;
 
-import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
 import com.demo.scheduler.model.Task.TaskStatus;
 import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.service.broker.KafkaTaskBroker;
+import com.demo.scheduler.service.broker.PollableTaskBroker;
+import com.demo.scheduler.service.broker.PolledTask;
+import com.demo.scheduler.service.broker.TaskBroker;
+import com.demo.scheduler.service.handler.TaskHandlerRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.demo.scheduler.model.TaskEvent;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.demo.scheduler.config.BrokerConfigManager;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -27,86 +46,296 @@ import com.fasterxml.jackson.core.JsonProcessingException;
  * Task Worker service - consumes tasks from configured broker and processes them.
  * This is the "Consumer" in the Producer-Broker-Consumer pattern.
  * 
- * Supports both Redis (poll) and Kafka (push) modes.
+ * Supports Redis (lists or streams), Postgres, in-memory and journal (pull, via a dedicated consumer loop) and Kafka (push) modes.
+ *
+ * Received tasks are not handed to the executor directly: they go into a
+ * per-priority {@link WeightedFairQueue} and each executor slot, when it
+ * becomes free, takes the next task by weight. A HIGH task received behind
+ * thousands of LOW ones therefore starts on the next free slot, while LOW
+ * still gets its share. Pull-style brokers keep that local queue topped up
+ * to the backpressure watermark, so a HIGH task is picked up as soon as a
+ * poll reaches it. The Kafka batch listener only polls again once its batch
+ * has finished, so there priority is per batch: a HIGH record published
+ * after a poll waits for up to max.poll.records earlier ones.
+ *
+ * An executor slot only claims the task; the work itself runs on the
+ * {@link TaskHandlerRegistry} lane of the task's type, and the task counts
+ * as in flight (backpressure, acknowledgment) until its handler finishes.
  */
 @Service
 public class TaskWorker {
 
     private static final Logger log = LoggerFactory.getLogger(TaskWorker.class);
 
-    private final RedisTemplate<String, Object> redisTemplate;
     private final TaskRepository taskRepository;
+    private final TaskStatusWriteBuffer statusBuffer;
+    private final WorkerBackpressure backpressure;
+    private final TaskRetryHandler retryHandler;
+    private final TaskHandlerRegistry handlerRegistry;
     private final ExecutorService taskExecutor;
     private final MessageCaptureService messageCapture;
     private final ObjectMapper objectMapper;
     private final BrokerConfigManager brokerConfigManager;
+    private final KafkaPartitionLanes partitionLanes;
+    private final KafkaTaskBroker kafkaTaskBroker;
+    private final TaskStatusCounters statusCounters;
 
     @Value("${scheduler.queue.name:task-queue}")
     private String queueName;
 
+    @Value("${scheduler.worker.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    @Value("${scheduler.worker.consumer.batch-size:100}")
+    private int consumerBatchSize;
+
+    @Value("${scheduler.worker.consumer.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    @Value("${scheduler.worker.visibility-timeout-ms:30000}")
+    private long visibilityTimeoutMs;
+
+    @Value("#{'${scheduler.broker.kafka-ordering:key}' == 'key'}")
+    private boolean orderByKey;
+
+    @Value("#{'${scheduler.broker.kafka-ordering:key}' == 'partition'}")
+    private boolean orderByPartition;
+
+    @Value("${scheduler.broker.kafka-batch-timeout-ms:60000}")
+    private long kafkaBatchTimeoutMs;
+
+    // Received tasks waiting for an executor slot, one lane per priority
+    private final WeightedFairQueue<QueuedTask> runQueue;
+
+    // Finished task IDs waiting to be acknowledged, per pull-style broker
+    private final Map<PollableTaskBroker, Queue<Long>> pendingAcks = new ConcurrentHashMap<>();
+
+    private volatile boolean consuming;
+    private Thread consumerThread;
+
     // Metrics
     private final AtomicLong processedCount = new AtomicLong(0);
     private final AtomicLong failedCount = new AtomicLong(0);
+    private final AtomicLong skippedCount = new AtomicLong(0);
 
     public TaskWorker(
-            RedisTemplate<String, Object> redisTemplate,
             TaskRepository taskRepository,
+            TaskStatusWriteBuffer statusBuffer,
+            WorkerBackpressure backpressure,
+            TaskRetryHandler retryHandler,
+            TaskHandlerRegistry handlerRegistry,
             @Qualifier("taskExecutor") ExecutorService taskExecutor,
             MessageCaptureService messageCapture,
             ObjectMapper objectMapper,
-            BrokerConfigManager brokerConfigManager) {
-        this.redisTemplate = redisTemplate;
+            BrokerConfigManager brokerConfigManager,
+            KafkaPartitionLanes partitionLanes,
+            KafkaTaskBroker kafkaTaskBroker,
+            TaskStatusCounters statusCounters,
+            @Value("${scheduler.priority.weights:8,3,1}") int[] priorityWeights) {
         this.taskRepository = taskRepository;
+        this.statusBuffer = statusBuffer;
+        this.backpressure = backpressure;
+        this.retryHandler = retryHandler;
+        this.handlerRegistry = handlerRegistry;
         this.taskExecutor = taskExecutor;
         this.messageCapture = messageCapture;
         this.objectMapper = objectMapper;
         this.brokerConfigManager = brokerConfigManager;
+        this.partitionLanes = partitionLanes;
+        this.kafkaTaskBroker = kafkaTaskBroker;
+        this.statusCounters = statusCounters;
+        this.runQueue = new WeightedFairQueue<>(priorityWeights);
     }
 
     @PostConstruct
     public void init() {
         log.info("TaskWorker initialized. Broker Type: {}", brokerConfigManager.getBrokerType());
+
+        consuming = true;
+        consumerThread = new Thread(this::runConsumerLoop, "broker-consumer");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        consuming = false;
+        if (consumerThread != null) {
+            consumerThread.interrupt();
+        }
+        flushAcks();
     }
 
     /**
-     * Polls Redis queue at fixed intervals.
-     * Only runs if scheduler.broker.type = redis
+     * Consumer loop for pull-style brokers (Redis, Postgres, in-memory, journal).
+     * Drains up to consumer batch-size IDs per round trip and hands them to the
+     * executor; it only blocks (e.g. BLPOP, LISTEN) when the queue is empty,
+     * so a busy queue is picked up without any polling delay.
+     * While the worker pool is above its high watermark no IDs are popped.
      */
-    @Scheduled(fixedDelayString = "${scheduler.worker.poll-interval-ms:100}")
-    public void pollRedis() {
-        if (!"redis".equalsIgnoreCase(brokerConfigManager.getBrokerType())) {
-            return;
-        }
+    private void runConsumerLoop() {
+        while (consuming) {
+            try {
+                TaskBroker broker = brokerConfigManager.findActiveBroker().orElse(null);
+                if (!(broker instanceof PollableTaskBroker pollable)) {
+                    // Push-style broker (Kafka) is active; check again later
+                    Thread.sleep(pollIntervalMs);
+                    continue;
+                }
 
-        // Try to pop a task ID from the queue
-        Object taskIdObj = redisTemplate.opsForList().leftPop(queueName);
-        
-        if (taskIdObj != null) {
-            Long taskId = convertToLong(taskIdObj);
-            if (taskId != null) {
-                // Capture for inspector
+                flushAcks();
+
+                // Backpressure: never pop more than the worker pool has room for
+                int room = backpressure.remainingCapacity();
+                if (room == 0) {
+                    backpressure.awaitCapacity(blockTimeoutMs);
+                    continue;
+                }
+
+                List<PolledTask> tasks = pollable.poll(Math.min(consumerBatchSize, room), Duration.ofMillis(blockTimeoutMs));
+                if (tasks.isEmpty()) {
+                    continue;
+                }
+
+                // Capture for inspector (one entry per round trip)
+                Long firstId = tasks.get(0).taskId();
                 messageCapture.captureConsumed(
-                    "REDIS",
+                    broker.getBrokerType().toUpperCase(),
                     queueName,
-                    taskId.toString(),
-                    "Task ID: " + taskId
+                    tasks.size() == 1 ? firstId.toString() : firstId + ".." + tasks.get(tasks.size() - 1).taskId(),
+                    tasks.size() == 1 ? "Task ID: " + firstId : "Batch of " + tasks.size() + " task IDs"
                 );
 
                 // Submit to thread pool for parallel processing
-                taskExecutor.submit(() -> processTask(taskId));
+                for (PolledTask task : tasks) {
+                    dispatch(task.taskId(), task.priority(), pollable);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Consumer loop error: {}", e.getMessage());
+                backOff();
+            }
+        }
+    }
+
+    private void backOff() {
+        try {
+            Thread.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs a task on the worker pool. The future completes once processing has
+     * finished (successfully, failed, or skipped as a duplicate).
+     */
+    private CompletableFuture<Void> dispatch(Long taskId, Priority priority) {
+        QueuedTask queued = track(taskId);
+        enqueue(priority, queued);
+        return queued.done;
+    }
+
+    /**
+     * Runs a task on the worker pool once a previous task has finished.
+     */
+    private CompletableFuture<Void> dispatchAfter(CompletableFuture<Void> previous, Long taskId, Priority priority) {
+        QueuedTask queued = track(taskId);
+        previous.whenComplete((result, error) -> enqueue(priority, queued));
+        return queued.done;
+    }
+
+    private QueuedTask track(Long taskId) {
+        QueuedTask queued = new QueuedTask(taskId, new CompletableFuture<>());
+        backpressure.onDispatched();
+        queued.done.whenComplete((result, error) -> backpressure.onFinished());
+        return queued;
+    }
+
+    /**
+     * Adds the task to its priority lane and gives the executor one more slot
+     * to fill; the slot runs whichever task is next by weight at that point.
+     */
+    private void enqueue(Priority priority, QueuedTask queued) {
+        runQueue.offer(priority, queued);
+        try {
+            taskExecutor.execute(this::runNext);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: this slot never runs, so one queued task is left
+            // without one. Fail it, which also releases its backpressure slot;
+            // the broker redelivers whatever did not finish
+            QueuedTask orphan = runQueue.poll();
+            if (orphan != null) {
+                orphan.done.completeExceptionally(e);
             }
         }
     }
 
+    private void runNext() {
+        QueuedTask next = runQueue.poll();
+        if (next == null) {
+            return;
+        }
+        CompletableFuture<Void> processed;
+        try {
+            processed = processTask(next.taskId);
+        } catch (RuntimeException e) {
+            next.done.complete(null);
+            throw e;
+        }
+        processed.whenComplete((result, error) -> next.done.complete(null));
+    }
+
+    /**
+     * Dispatches a task pulled from a broker and queues its acknowledgment once
+     * processing has finished.
+     */
+    private void dispatch(Long taskId, Priority priority, PollableTaskBroker source) {
+        dispatch(taskId, priority).thenRun(() ->
+            pendingAcks.computeIfAbsent(source, b -> new ConcurrentLinkedQueue<>()).offer(taskId));
+    }
+
+    /**
+     * Sends all queued acknowledgments, one batched call per broker.
+     */
+    private void flushAcks() {
+        pendingAcks.forEach((broker, queue) -> {
+            List<Long> batch = new ArrayList<>();
+            Long taskId;
+            while ((taskId = queue.poll()) != null) {
+                batch.add(taskId);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    broker.acknowledge(batch);
+                } catch (Exception e) {
+                    // Unacknowledged tasks are redelivered once their lease expires
+                    log.error("Failed to acknowledge {} tasks: {}", batch.size(), e.getMessage());
+                }
+            }
+        });
+    }
+
     /**
-     * Listens to Kafka topic.
-     * Uses JSON Deserializer to convert payload to TaskEvent
+     * Listens to Kafka topic, one record at a time (kafka-listener: record).
+     * Values are decoded by TaskEventAvroDeserializer (binary Avro, or JSON from older producers)
+     * behind ErrorHandlingDeserializer; a record it could not decode is
+     * dead-lettered as received (see KafkaConsumerConfig)
      */
-    @KafkaListener(topics = "${scheduler.broker.topic}", groupId = "${spring.kafka.consumer.group-id}", autoStartup = "${scheduler.broker.kafka-enabled:true}")
+    @KafkaListener(id = "task-listener", groupId = "${spring.kafka.consumer.group-id}",
+            topics = {"${scheduler.broker.topic}", "${scheduler.broker.topic}-high", "${scheduler.broker.topic}-low"},
+            autoStartup = "#{${scheduler.broker.kafka-enabled:true} and '${scheduler.broker.kafka-listener:batch}' == 'record'}")
     public void listenKafka(ConsumerRecord<String, com.demo.scheduler.model.TaskEvent> record) {
         if (!"kafka".equalsIgnoreCase(brokerConfigManager.getBrokerType())) {
             return;
         }
+        if (record.value() == null) {
+            // Throws if the dead-letter send fails, so the container redelivers the record
+            kafkaTaskBroker.deadLetterUndecodable(record, null).join();
+            return;
+        }
         
         log.debug("Received task from Kafka: {}", record.value());
         
@@ -121,8 +350,130 @@ public class TaskWorker {
             payload
         );
         
-        Long taskId = record.value().getTaskId();
-        taskExecutor.submit(() -> processTask(taskId));
+        dispatch(record.value().getTaskId(), Priority.fromLevel(record.value().getPriority()));
+    }
+
+    /**
+     * Listens to Kafka topic in batches (kafka-listener: batch).
+     *
+     * The whole poll is processed in parallel on the worker pool, which also
+     * bounds in-flight work to one batch (max.poll.records). Offsets are then
+     * committed manually, per partition, only up to the highest offset below
+     * which every record has finished; a partition with an unfinished record
+     * is rewound to it so it is redelivered on the next poll.
+     *
+     * With kafka-ordering: key, records sharing a key run one after another in
+     * offset order while different keys run in parallel. With kafka-ordering:
+     * partition, each partition is a serial lane (KafkaPartitionLanes): one
+     * task of the partition at a time, across batches.
+     *
+     * While another broker is active the batch is neither processed nor
+     * committed: every partition is rewound to the start of the batch.
+     *
+     * A record ErrorHandlingDeserializer could not decode arrives with a null
+     * value; it is dead-lettered as received and counts as finished once that
+     * send is acknowledged.
+     *
+     * Priority only reorders the records of this batch: the next poll, and
+     * with it any HIGH record published meanwhile, waits for the whole batch.
+     * A smaller max.poll.records bounds that wait.
+     */
+    @KafkaListener(id = "task-batch-listener", groupId = "${spring.kafka.consumer.group-id}",
+            topics = {"${scheduler.broker.topic}", "${scheduler.broker.topic}-high", "${scheduler.broker.topic}-low"},
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{${scheduler.broker.kafka-enabled:true} and '${scheduler.broker.kafka-listener:batch}' == 'batch'}")
+    public void listenKafkaBatch(List<ConsumerRecord<String, TaskEvent>> records, Consumer<?, ?> consumer) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (!"kafka".equalsIgnoreCase(brokerConfigManager.getBrokerType())) {
+            // Another broker is active: leave the batch for when Kafka is switched
+            // back on. Nothing is committed; each partition is rewound to its first
+            // record, and the next poll waits like the pull consumer loop does
+            Map<TopicPartition, Long> firstOffsets = new HashMap<>();
+            for (ConsumerRecord<String, TaskEvent> record : records) {
+                firstOffsets.putIfAbsent(new TopicPartition(record.topic(), record.partition()), record.offset());
+            }
+            firstOffsets.forEach(consumer::seek);
+            backOff();
+            return;
+        }
+
+        log.debug("Received batch of {} tasks from Kafka", records.size());
+
+        // Capture for inspector (one entry per batch)
+        ConsumerRecord<String, TaskEvent> first = records.get(0);
+        ConsumerRecord<String, TaskEvent> last = records.get(records.size() - 1);
+        messageCapture.captureConsumed(
+            "KAFKA",
+            first.topic(),
+            String.format("P-%d/O-%d..P-%d/O-%d", first.partition(), first.offset(), last.partition(), last.offset()),
+            "Batch of " + records.size() + " task events"
+        );
+
+        // 1. Fan the batch out to the worker pool
+        List<CompletableFuture<Void>> futures = new ArrayList<>(records.size());
+        Map<String, CompletableFuture<Void>> keyChains = new HashMap<>();
+        for (ConsumerRecord<String, TaskEvent> record : records) {
+            if (record.value() == null) {
+                // Its offset is committed once the dead-letter record is written
+                futures.add(kafkaTaskBroker.deadLetterUndecodable(record, null));
+                continue;
+            }
+            Long taskId = record.value().getTaskId();
+            Priority priority = Priority.fromLevel(record.value().getPriority());
+            CompletableFuture<Void> future;
+            if (orderByPartition) {
+                future = partitionLanes.append(new TopicPartition(record.topic(), record.partition()),
+                    previous -> previous == null
+                        ? dispatch(taskId, priority)
+                        : dispatchAfter(previous, taskId, priority));
+            } else if (orderByKey && record.key() != null) {
+                CompletableFuture<Void> previous = keyChains.get(record.key());
+                future = previous == null
+                    ? dispatch(taskId, priority)
+                    : dispatchAfter(previous, taskId, priority);
+                keyChains.put(record.key(), future);
+            } else {
+                future = dispatch(taskId, priority);
+            }
+            futures.add(future);
+        }
+
+        // 2. Wait for the batch (bounded)
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .get(kafkaBatchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Kafka batch did not complete cleanly: {}", e.getMessage());
+        }
+
+        // 3. Commit the contiguous completed prefix of each partition
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        Map<TopicPartition, Long> rewinds = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, TaskEvent> record = records.get(i);
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (rewinds.containsKey(partition)) {
+                continue;
+            }
+            CompletableFuture<Void> future = futures.get(i);
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                commits.put(partition, new OffsetAndMetadata(record.offset() + 1));
+            } else {
+                rewinds.put(partition, record.offset());
+            }
+        }
+
+        if (!commits.isEmpty()) {
+            consumer.commitSync(commits);
+        }
+        rewinds.forEach((partition, offset) -> {
+            log.warn("Rewinding {} to unfinished offset {}", partition, offset);
+            consumer.seek(partition, offset);
+        });
     }
 
     private String serializeEvent(com.demo.scheduler.model.TaskEvent event) {
@@ -135,85 +486,83 @@ public class TaskWorker {
 
     /**
      * Processes a single task by ID.
-     * Updates task status in PostgreSQL throughout the lifecycle.
+     * The claim is one conditional UPDATE; the terminal status goes through
+     * the write-behind buffer and is persisted in batches.
+     *
+     * @return completes once the task's handler has finished and its outcome
+     *         is recorded (immediately for a skipped duplicate)
      */
-    private void processTask(Long taskId) {
+    private CompletableFuture<Void> processTask(Long taskId) {
         try {
-            // 1. Fetch task from database
-            Optional<Task> optTask = taskRepository.findById(taskId);
-            if (optTask.isEmpty()) {
-                log.warn("Task {} not found in database", taskId);
-                return;
+            // 1. Claim: PENDING -> PROCESSING. Zero rows means the task does not
+            //    exist or another delivery already claimed it, so skip it.
+            //    A claim older than the visibility timeout is a redelivery
+            //    after a worker crash and may be taken over.
+            LocalDateTime now = LocalDateTime.now();
+            if (taskRepository.markProcessing(taskId, now, now.minus(Duration.ofMillis(visibilityTimeoutMs))) == 0) {
+                skippedCount.incrementAndGet();
+                log.debug("Task {} is missing or already claimed, skipping duplicate delivery", taskId);
+                return CompletableFuture.completedFuture(null);
             }
+            statusCounters.moved(TaskStatus.PENDING, TaskStatus.PROCESSING, 1);
 
-            Task task = optTask.get();
-            
-            // 2. Mark as PROCESSING
-            task.setStatus(TaskStatus.PROCESSING);
-            task.setProcessedAt(LocalDateTime.now());
-            taskRepository.save(task);
-
-            // 3. Execute the task (simulate work)
-            executeTask(task);
-
-            // 4. Mark as COMPLETED
-            task.setStatus(TaskStatus.COMPLETED);
-            task.setCompletedAt(LocalDateTime.now());
-            taskRepository.save(task);
-
-            processedCount.incrementAndGet();
-            
-            if (processedCount.get() % 10000 == 0) {
-                log.info("Processed {} tasks so far", processedCount.get());
+            // 2. Hand the task to the handler for its type
+            List<Object[]> input = taskRepository.findHandlerInput(taskId);
+            if (input.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
             }
+            String type = (String) input.get(0)[0];
+            String payload = (String) input.get(0)[1];
+            return handlerRegistry.execute(type, taskId, payload)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        onSuccess(taskId);
+                    } else {
+                        onFailure(taskId, error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                    }
+                    return null;
+                });
+        } catch (Exception e) {
+            onFailure(taskId, e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 
+    private void onSuccess(Long taskId) {
+        try {
+            // 3. Mark as COMPLETED
+            statusBuffer.complete(taskId);
         } catch (Exception e) {
-            log.error("Error processing task {}: {}", taskId, e.getMessage());
-            failedCount.incrementAndGet();
-            
-            // Mark task as FAILED
-            taskRepository.findById(taskId).ifPresent(task -> {
-                task.setStatus(TaskStatus.FAILED);
-                task.setErrorMessage(e.getMessage());
-                task.setCompletedAt(LocalDateTime.now());
-                taskRepository.save(task);
-            });
+            // Stays PROCESSING; taken over as a stale claim once the broker redelivers it
+            log.error("Failed to record completion of task {}: {}", taskId, e.getMessage());
+            return;
+        }
+
+        long processed = processedCount.incrementAndGet();
+        if (processed % 10000 == 0) {
+            log.info("Processed {} tasks so far", processed);
         }
     }
 
-    /**
-     * Executes the actual task logic.
-     * In a real system, this would parse the payload and perform business logic.
-     * Here we simulate a small amount of work.
-     */
-    private void executeTask(Task task) {
-        // Simulate some processing time (1-5ms)
+    private void onFailure(Long taskId, Throwable error) {
+        log.error("Error processing task {}: {}", taskId, error.getMessage());
+        failedCount.incrementAndGet();
+
+        // Retry with backoff through the delay wheel, or FAILED + dead-letter on the last attempt
         try {
-            Thread.sleep((long) (Math.random() * 4 + 1));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Task interrupted", e);
+            retryHandler.onFailure(taskId, error.getMessage());
+        } catch (Exception retryError) {
+            // Stays PROCESSING; taken over as a stale claim once the broker redelivers it
+            log.error("Failed to record failure of task {}: {}", taskId, retryError.getMessage());
         }
     }
 
     /**
-     * Converts various number types to Long.
+     * Number of received tasks waiting for an executor slot.
      */
-    private Long convertToLong(Object obj) {
-        if (obj instanceof Long) {
-            return (Long) obj;
-        } else if (obj instanceof Integer) {
-            return ((Integer) obj).longValue();
-        } else if (obj instanceof String) {
-            try {
-                return Long.parseLong((String) obj);
-            } catch (NumberFormatException e) {
-                log.error("Failed to parse task ID: {}", obj);
-                return null;
-            }
-        }
-        log.error("Unknown task ID type: {}", obj.getClass());
-        return null;
+    public int getRunQueueSize() {
+        return runQueue.size();
     }
 
     /**
@@ -224,9 +573,19 @@ public class TaskWorker {
     }
 
     /**
-     * Returns the count of failed tasks.
+     * Returns the count of failed attempts (retried or final).
      */
     public long getFailedCount() {
         return failedCount.get();
     }
+
+    /**
+     * Returns the count of deliveries skipped because the task was already claimed.
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    private record QueuedTask(Long taskId, CompletableFuture<Void> done) {
+    }
 }
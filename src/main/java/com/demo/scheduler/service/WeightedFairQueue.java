@@ -0,0 +1,109 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.Task.Priority;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-lane queue, one FIFO lane per {@link Priority}, drained by smooth
+ * weighted round-robin (the nginx upstream algorithm).
+ *
+ * With weights HIGH=8, NORMAL=3, LOW=1 and every lane backlogged, each run of
+ * 12 polls returns 8 HIGH, 3 NORMAL and 1 LOW, interleaved rather than in
+ * bursts. Empty lanes are skipped, so a lone lane gets the full throughput,
+ * and every non-empty lane is served at least once per round: low priorities
+ * slow down under load but are never starved.
+ *
+ * Polls are O(number of priorities) under a short lock.
+ */
+public class WeightedFairQueue<E> {
+
+    private static final Priority[] LANES = Priority.values();
+
+    private final int[] weights = new int[LANES.length];
+    private final int[] current = new int[LANES.length];
+    private final ArrayDeque<E>[] lanes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int size;
+
+    /**
+     * @param weights one weight per priority, in {@link Priority} declaration order (HIGH first)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public WeightedFairQueue(int... weights) {
+        if (weights.length != LANES.length) {
+            throw new IllegalArgumentException("Expected " + LANES.length + " priority weights, got " + weights.length);
+        }
+        this.lanes = new ArrayDeque[LANES.length];
+        for (int i = 0; i < LANES.length; i++) {
+            if (weights[i] <= 0) {
+                throw new IllegalArgumentException("Priority weights must be positive");
+            }
+            this.weights[i] = weights[i];
+            this.lanes[i] = new ArrayDeque<>();
+        }
+    }
+
+    public void offer(Priority priority, E element) {
+        lock.lock();
+        try {
+            lanes[priority.ordinal()].addLast(element);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the next element by weight, or returns null when empty.
+     */
+    public E poll() {
+        lock.lock();
+        try {
+            if (size == 0) {
+                return null;
+            }
+
+            int best = -1;
+            int total = 0;
+            for (int i = 0; i < lanes.length; i++) {
+                if (lanes[i].isEmpty()) {
+                    current[i] = 0; // An idle lane does not bank credit for a later burst
+                    continue;
+                }
+                current[i] += weights[i];
+                total += weights[i];
+                if (best < 0 || current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            size--;
+            return lanes[best].pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of elements waiting in one lane.
+     */
+    public int size(Priority priority) {
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
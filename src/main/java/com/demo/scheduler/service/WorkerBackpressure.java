@@ -0,0 +1,131 @@
+package com.demo.scheduler.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Watermark-based backpressure between the brokers and the worker pool.
+ *
+ * Tracks how many tasks have been handed to the executor but not finished
+ * (queued + running). Reaching the high watermark pauses consumption: the
+ * Kafka listener containers are paused and the pull consumer loop stops
+ * taking from Redis. Consumption resumes once occupancy drains to the low
+ * watermark, so the heap never holds more than roughly high-watermark tasks.
+ */
+@Service
+public class WorkerBackpressure {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerBackpressure.class);
+
+    private final KafkaListenerEndpointRegistry kafkaRegistry;
+    private final MeterRegistry meterRegistry;
+    private final int highWatermark;
+    private final int lowWatermark;
+
+    private final AtomicInteger occupancy = new AtomicInteger(0);
+    private final AtomicBoolean paused = new AtomicBoolean(false);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition resumed = lock.newCondition();
+
+    public WorkerBackpressure(
+            KafkaListenerEndpointRegistry kafkaRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${scheduler.worker.backpressure.high-watermark:5000}") int highWatermark,
+            @Value("${scheduler.worker.backpressure.low-watermark:1000}") int lowWatermark) {
+        if (lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("low-watermark must be below high-watermark");
+        }
+        this.kafkaRegistry = kafkaRegistry;
+        this.meterRegistry = meterRegistry;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("scheduler.worker.queue.occupancy", occupancy, AtomicInteger::get)
+            .description("Tasks handed to the worker pool and not yet finished")
+            .register(meterRegistry);
+        Gauge.builder("scheduler.worker.consumption.paused", paused, p -> p.get() ? 1 : 0)
+            .description("1 while broker consumption is paused by backpressure")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Called before a task is handed to the executor.
+     */
+    public void onDispatched() {
+        if (occupancy.incrementAndGet() >= highWatermark && paused.compareAndSet(false, true)) {
+            log.warn("Worker queue reached high watermark ({}), pausing broker consumption", highWatermark);
+            for (MessageListenerContainer container : kafkaRegistry.getListenerContainers()) {
+                if (container.isRunning()) {
+                    container.pause();
+                }
+            }
+        }
+    }
+
+    /**
+     * Called once a dispatched task has finished, however it ended.
+     */
+    public void onFinished() {
+        if (occupancy.decrementAndGet() <= lowWatermark && paused.compareAndSet(true, false)) {
+            log.info("Worker queue drained to low watermark ({}), resuming broker consumption", lowWatermark);
+            for (MessageListenerContainer container : kafkaRegistry.getListenerContainers()) {
+                if (container.isPauseRequested()) {
+                    container.resume();
+                }
+            }
+            lock.lock();
+            try {
+                resumed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * How many more tasks may be taken before hitting the high watermark.
+     */
+    public int remainingCapacity() {
+        return paused.get() ? 0 : Math.max(0, highWatermark - occupancy.get());
+    }
+
+    /**
+     * Blocks a pull consumer while consumption is paused, up to the timeout.
+     */
+    public void awaitCapacity(long timeoutMs) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            while (remainingCapacity() == 0 && remaining > 0) {
+                remaining = resumed.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getOccupancy() {
+        return occupancy.get();
+    }
+
+    public boolean isPaused() {
+        return paused.get();
+    }
+}
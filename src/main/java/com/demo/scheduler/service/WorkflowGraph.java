@@ -0,0 +1,109 @@
+package com.demo.scheduler.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Graph algorithms for workflow DAGs. Nodes are indexes 0..n-1 and
+ * {@code parents[i]} lists the nodes that must complete before node i.
+ * Everything is O(V + E) over primitive arrays, so DAGs with tens of
+ * thousands of nodes are validated and analysed in milliseconds.
+ */
+public final class WorkflowGraph {
+
+    private WorkflowGraph() {
+    }
+
+    /**
+     * Orders the nodes so that every parent comes before its children
+     * (Kahn's algorithm).
+     *
+     * @throws IllegalArgumentException if the graph contains a cycle
+     */
+    public static int[] topologicalOrder(int[][] parents) {
+        int n = parents.length;
+        int[][] children = children(parents);
+        int[] remaining = new int[n];
+        int[] order = new int[n];
+        int tail = 0;
+        for (int node = 0; node < n; node++) {
+            remaining[node] = parents[node].length;
+            if (remaining[node] == 0) {
+                order[tail++] = node;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            for (int child : children[order[head]]) {
+                if (--remaining[child] == 0) {
+                    order[tail++] = child;
+                }
+            }
+        }
+        if (tail != n) {
+            throw new IllegalArgumentException("Workflow contains a dependency cycle");
+        }
+        return order;
+    }
+
+    /**
+     * The chain of nodes that determined when the workflow (so far) finished:
+     * starting from the node that completed last, repeatedly step to the
+     * parent that completed last, i.e. the one that released it.
+     *
+     * @param completedAt completion time per node, or a negative value if the node has not completed
+     * @return node indexes from the root to the last completed node; empty if nothing completed
+     */
+    public static List<Integer> criticalPath(int[][] parents, long[] completedAt) {
+        int last = latest(allNodes(parents.length), completedAt);
+        if (last < 0) {
+            return List.of();
+        }
+
+        List<Integer> path = new ArrayList<>();
+        for (int node = last; node >= 0; node = latest(parents[node], completedAt)) {
+            path.add(node);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static int latest(int[] nodes, long[] completedAt) {
+        int latest = -1;
+        for (int node : nodes) {
+            if (completedAt[node] >= 0 && (latest < 0 || completedAt[node] > completedAt[latest])) {
+                latest = node;
+            }
+        }
+        return latest;
+    }
+
+    private static int[] allNodes(int n) {
+        int[] nodes = new int[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = i;
+        }
+        return nodes;
+    }
+
+    private static int[][] children(int[][] parents) {
+        int n = parents.length;
+        int[] counts = new int[n];
+        for (int[] nodeParents : parents) {
+            for (int parent : nodeParents) {
+                counts[parent]++;
+            }
+        }
+        int[][] children = new int[n][];
+        for (int node = 0; node < n; node++) {
+            children[node] = new int[counts[node]];
+            counts[node] = 0;
+        }
+        for (int node = 0; node < n; node++) {
+            for (int parent : parents[node]) {
+                children[parent][counts[parent]++] = node;
+            }
+        }
+        return children;
+    }
+}
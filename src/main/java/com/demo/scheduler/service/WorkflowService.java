@@ -0,0 +1,290 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.model.TaskDependency;
+import com.demo.scheduler.model.Workflow;
+import com.demo.scheduler.repository.TaskDependencyRepository;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.repository.WorkflowRepository;
+import com.demo.scheduler.service.handler.TaskHandlerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Workflows: DAGs of tasks with fan-out / fan-in.
+ *
+ * Submission validates the graph (unique keys, known parents, no cycles),
+ * then inserts the workflow, its tasks and its edges with JDBC batches in
+ * one transaction. Roots go through the outbox ({@link OutboxRelay}), so
+ * they are published once that commits; every other node starts BLOCKED
+ * with pending_parents = its parent count.
+ *
+ * Release is push-based, never polled: when a completion is written
+ * (see {@link TaskStatusWriteBuffer}), the same transaction decrements the
+ * counters of the task's children, and the children that reached 0 are
+ * moved BLOCKED -> PENDING right after, together with their outbox entries
+ * in one transaction. A slow sweep picks up children left ready by a node
+ * that died between the two transactions.
+ *
+ * A child of a task that failed for good stays BLOCKED; redriving the
+ * parent lets the workflow continue.
+ */
+@Service
+public class WorkflowService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowService.class);
+    private static final int SWEEP_PAGE_SIZE = 1_000;
+
+    private final WorkflowRepository workflowRepository;
+    private final TaskRepository taskRepository;
+    private final TaskDependencyRepository dependencyRepository;
+    private final TaskHandlerRegistry handlerRegistry;
+    private final OutboxRelay outboxRelay;
+    private final TaskStatusCounters statusCounters;
+
+    @Value("${scheduler.workflow.max-nodes:50000}")
+    private int maxNodes;
+
+    @Value("${scheduler.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    public WorkflowService(WorkflowRepository workflowRepository,
+                           TaskRepository taskRepository,
+                           TaskDependencyRepository dependencyRepository,
+                           TaskHandlerRegistry handlerRegistry,
+                           OutboxRelay outboxRelay,
+                           TaskStatusCounters statusCounters) {
+        this.workflowRepository = workflowRepository;
+        this.taskRepository = taskRepository;
+        this.dependencyRepository = dependencyRepository;
+        this.handlerRegistry = handlerRegistry;
+        this.outboxRelay = outboxRelay;
+        this.statusCounters = statusCounters;
+    }
+
+    /**
+     * Submits a workflow.
+     *
+     * @return the workflow and the task ID assigned to each node key
+     * @throws IllegalArgumentException if the definition is invalid
+     */
+    @Transactional
+    public SubmittedWorkflow submit(String name, List<WorkflowNode> nodes) {
+        // 1. Validate and index the graph
+        if (nodes == null || nodes.isEmpty()) {
+            throw new IllegalArgumentException("A workflow needs at least one task");
+        }
+        if (nodes.size() > maxNodes) {
+            throw new IllegalArgumentException("Workflow size exceeds limit of " + maxNodes);
+        }
+        Map<String, Integer> indexByKey = new HashMap<>(nodes.size() * 2);
+        for (WorkflowNode node : nodes) {
+            if (node.key() == null || node.key().isBlank()) {
+                throw new IllegalArgumentException("Every task needs a key");
+            }
+            if (indexByKey.putIfAbsent(node.key(), indexByKey.size()) != null) {
+                throw new IllegalArgumentException("Duplicate task key: " + node.key());
+            }
+            if (node.payload() == null || node.payload().isBlank()) {
+                throw new IllegalArgumentException("Payload cannot be empty: " + node.key());
+            }
+            if (!handlerRegistry.hasHandler(node.type())) {
+                throw new IllegalArgumentException("No handler for task type: " + node.type());
+            }
+        }
+        int[][] parents = new int[nodes.size()][];
+        for (int i = 0; i < nodes.size(); i++) {
+            Set<Integer> nodeParents = new LinkedHashSet<>();
+            for (String parentKey : nodes.get(i).dependsOn()) {
+                Integer parent = indexByKey.get(parentKey);
+                if (parent == null) {
+                    throw new IllegalArgumentException("Unknown dependency '" + parentKey + "' of " + nodes.get(i).key());
+                }
+                nodeParents.add(parent);
+            }
+            parents[i] = nodeParents.stream().mapToInt(Integer::intValue).toArray();
+        }
+        WorkflowGraph.topologicalOrder(parents);
+
+        // 2. Persist workflow, tasks and edges in JDBC batches
+        Workflow workflow = workflowRepository.save(new Workflow(name, nodes.size()));
+        List<Task> tasks = new ArrayList<>(nodes.size());
+        List<Task> roots = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            WorkflowNode node = nodes.get(i);
+            Task task = new Task(node.payload(), node.priority());
+            task.setType(node.type());
+            task.setMaxAttempts(maxAttempts);
+            task.setWorkflowId(workflow.getId());
+            task.setPendingParents(parents[i].length);
+            if (parents[i].length > 0) {
+                task.setStatus(TaskStatus.BLOCKED);
+            } else {
+                roots.add(task);
+            }
+            tasks.add(task);
+        }
+        taskRepository.insertAll(tasks);
+        statusCounters.created(TaskStatus.PENDING, roots.size());
+        statusCounters.created(TaskStatus.BLOCKED, tasks.size() - roots.size());
+
+        List<TaskDependency> edges = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int parent : parents[i]) {
+                edges.add(new TaskDependency(tasks.get(parent).getId(), tasks.get(i).getId(), workflow.getId()));
+            }
+        }
+        taskRepository.insertDependencies(edges);
+
+        // 3. Publish the roots once the rows are visible to workers
+        outboxRelay.publish(roots);
+
+        Map<String, Long> taskIds = new LinkedHashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++) {
+            taskIds.put(nodes.get(i).key(), tasks.get(i).getId());
+        }
+        log.info("Submitted workflow {} with {} tasks, {} edges, {} roots",
+            workflow.getId(), tasks.size(), edges.size(), roots.size());
+        return new SubmittedWorkflow(workflow.getId(), taskIds);
+    }
+
+    /**
+     * Releases children whose last parent just completed: BLOCKED -> PENDING
+     * and into the outbox, in one transaction, so a released task is always
+     * published. Called after the completion has been committed.
+     */
+    @Transactional
+    public void release(List<Long> unblocked) {
+        if (unblocked.isEmpty()) {
+            return;
+        }
+        List<Long> released = taskRepository.releaseBlocked(unblocked);
+        if (released.isEmpty()) {
+            return;
+        }
+        outboxRelay.publish(taskRepository.findAllById(released));
+        statusCounters.moved(TaskStatus.BLOCKED, TaskStatus.PENDING, released.size());
+        log.debug("Released {} workflow tasks", released.size());
+    }
+
+    /**
+     * Releases BLOCKED tasks whose parents have all completed but that were
+     * never published, e.g. because a node died right after the completion.
+     * Normally finds nothing.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.workflow.sweep-ms:30000}")
+    @Transactional
+    public void sweepReady() {
+        List<Long> ready = taskRepository.findReadyBlocked(PageRequest.of(0, SWEEP_PAGE_SIZE));
+        if (!ready.isEmpty()) {
+            log.warn("Found {} unreleased workflow tasks, releasing them", ready.size());
+            release(ready);
+        }
+    }
+
+    /**
+     * Progress and critical-path timing of a workflow.
+     */
+    public Optional<WorkflowReport> report(Long workflowId) {
+        Optional<Workflow> found = workflowRepository.findById(workflowId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Workflow workflow = found.get();
+
+        List<Object[]> rows = taskRepository.findWorkflowTimings(workflowId);
+        Map<Long, Integer> indexById = new HashMap<>(rows.size() * 2);
+        Map<TaskStatus, Long> statusCounts = new EnumMap<>(TaskStatus.class);
+        long[] completedAt = new long[rows.size()];
+        LocalDateTime[] processedAt = new LocalDateTime[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            indexById.put((Long) row[0], i);
+            TaskStatus status = (TaskStatus) row[1];
+            statusCounts.merge(status, 1L, Long::sum);
+            processedAt[i] = (LocalDateTime) row[2];
+            completedAt[i] = status == TaskStatus.COMPLETED && row[3] != null ? toMillis((LocalDateTime) row[3]) : -1;
+        }
+
+        List<List<Integer>> parentLists = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            parentLists.add(new ArrayList<>());
+        }
+        for (Object[] edge : dependencyRepository.findEdges(workflowId)) {
+            parentLists.get(indexById.get((Long) edge[1])).add(indexById.get((Long) edge[0]));
+        }
+        int[][] parents = new int[rows.size()][];
+        for (int i = 0; i < rows.size(); i++) {
+            parents[i] = parentLists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Each step waits from the moment its critical parent completed (or the
+        // submission, for the root) until its last claim, then runs until completion
+        long submittedAt = toMillis(workflow.getCreatedAt());
+        List<CriticalPathStep> steps = new ArrayList<>();
+        long readyAt = submittedAt;
+        long runMs = 0;
+        for (int node : WorkflowGraph.criticalPath(parents, completedAt)) {
+            long startedAt = processedAt[node] != null ? toMillis(processedAt[node]) : readyAt;
+            steps.add(new CriticalPathStep((Long) rows.get(node)[0],
+                Math.max(startedAt - readyAt, 0), completedAt[node] - startedAt));
+            runMs += completedAt[node] - startedAt;
+            readyAt = completedAt[node];
+        }
+
+        long completed = statusCounts.getOrDefault(TaskStatus.COMPLETED, 0L);
+        boolean finished = completed == rows.size();
+        return Optional.of(new WorkflowReport(workflow.getId(), workflow.getName(), rows.size(),
+            statusCounts, finished, steps.isEmpty() ? 0 : readyAt - submittedAt, runMs, steps));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * One node of a submitted workflow. {@code dependsOn} lists the keys of
+     * the nodes that must complete first.
+     */
+    public record WorkflowNode(String key, String type, String payload, Priority priority, List<String> dependsOn) {
+        public WorkflowNode {
+            type = type != null ? type : Task.DEFAULT_TYPE;
+            priority = priority != null ? priority : Priority.NORMAL;
+            dependsOn = dependsOn != null ? dependsOn : List.of();
+        }
+    }
+
+    public record SubmittedWorkflow(Long workflowId, Map<String, Long> taskIds) {
+    }
+
+    /**
+     * @param makespanMs       submission until the last completion so far
+     * @param criticalPathRunMs time the critical path spent running (the rest is queueing)
+     */
+    public record WorkflowReport(Long workflowId, String name, int taskCount, Map<TaskStatus, Long> statusCounts,
+                                 boolean finished, long makespanMs, long criticalPathRunMs,
+                                 List<CriticalPathStep> criticalPath) {
+    }
+
+    public record CriticalPathStep(Long taskId, long waitMs, long runMs) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process broker for single-node deployments and tests
+ * ({@code scheduler.broker.type=inmemory}): no network hop, nothing to run.
+ *
+ * Each priority has its own preallocated {@link MpmcRingBuffer} of task IDs,
+ * and workers take from them through the same consumer loop as Redis, with
+ * the batch shared across the lanes by {@code scheduler.priority.weights}.
+ * Publishing and polling never allocate per task beyond the PolledTask the
+ * consumer loop receives.
+ *
+ * Idle workers sleep on a condition. Producers only take its lock when a
+ * worker is actually asleep, so a busy queue runs lock-free end to end.
+ *
+ * Like Redis in non-reliable mode, queued IDs live only in memory: tasks
+ * queued when the process stops stay PENDING in the database.
+ */
+@Service
+public class InMemoryTaskBroker implements PollableTaskBroker {
+
+    private static final Priority[] LANES = Priority.values();
+
+    private final MpmcRingBuffer[] lanes = new MpmcRingBuffer[LANES.length];
+    private final PollLanes pollLanes;
+    private final long offerTimeoutNanos;
+
+    // drainTo() target, one per polling thread
+    private final ThreadLocal<long[]> pollBuffer;
+
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition published = idleLock.newCondition();
+    private volatile int idlePollers;
+
+    public InMemoryTaskBroker(@Value("${scheduler.broker.inmemory.capacity:65536}") int capacity,
+                              @Value("${scheduler.broker.inmemory.offer-timeout-ms:5000}") long offerTimeoutMs,
+                              @Value("${scheduler.worker.consumer.batch-size:100}") int batchSize,
+                              @Value("${scheduler.priority.weights:8,3,1}") int[] priorityWeights) {
+        for (int i = 0; i < LANES.length; i++) {
+            lanes[i] = new MpmcRingBuffer(capacity);
+        }
+        this.pollLanes = new PollLanes(priorityWeights);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        this.pollBuffer = ThreadLocal.withInitial(() -> new long[batchSize]);
+    }
+
+    @Override
+    public void submitTask(Task task) {
+        offer(task);
+        wakePollers();
+    }
+
+    @Override
+    public void submitTasks(List<Task> tasks) {
+        for (Task task : tasks) {
+            offer(task);
+        }
+        wakePollers();
+    }
+
+    /**
+     * Takes up to maxItems IDs: first up to each lane's share, then whatever
+     * is left, most urgent lane first. Waits for at most {@code timeout} when
+     * every lane is empty.
+     */
+    @Override
+    public List<PolledTask> poll(int maxItems, Duration timeout) {
+        List<PolledTask> tasks = drain(maxItems);
+        if (!tasks.isEmpty() || !awaitPublish(timeout.toNanos())) {
+            return tasks;
+        }
+        return drain(maxItems);
+    }
+
+    /**
+     * Number of queued IDs across all lanes.
+     */
+    public int size() {
+        int size = 0;
+        for (MpmcRingBuffer lane : lanes) {
+            size += lane.size();
+        }
+        return size;
+    }
+
+    /**
+     * A full lane pushes back on the producer (outbox relay, delay wheel)
+     * until workers make room; past offer-timeout-ms the publish fails and
+     * the caller keeps the batch to retry.
+     */
+    private void offer(Task task) {
+        MpmcRingBuffer lane = lanes[task.getPriority().ordinal()];
+        if (lane.offer(task.getId())) {
+            return;
+        }
+
+        wakePollers();
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (!lane.offer(task.getId())) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("In-memory " + task.getPriority() + " lane is full (" + lane.capacity() + " tasks)");
+            }
+            LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(50));
+        }
+    }
+
+    private List<PolledTask> drain(int maxItems) {
+        long[] buffer = pollBuffer.get();
+        if (buffer.length < maxItems) {
+            buffer = new long[maxItems];
+            pollBuffer.set(buffer);
+        }
+
+        List<PolledTask> tasks = new ArrayList<>();
+        int taken = 0;
+        for (int pass = 1; pass <= 2 && taken < maxItems; pass++) {
+            for (int i = 0; i < LANES.length && taken < maxItems; i++) {
+                int remaining = maxItems - taken;
+                int count = pass == 1 ? Math.min(pollLanes.share(i, maxItems), remaining) : remaining;
+                int drained = lanes[i].drainTo(buffer, 0, count);
+                for (int j = 0; j < drained; j++) {
+                    tasks.add(new PolledTask(buffer[j], LANES[i]));
+                }
+                taken += drained;
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Sleep side of the handshake with {@link #wakePollers()}: announce the
+     * sleeper, then re-check the lanes under the lock. A producer either sees
+     * the announcement and signals after taking the lock, or published before
+     * it, in which case the re-check sees the task.
+     *
+     * @return false if the timeout elapsed with every lane still empty
+     */
+    private boolean awaitPublish(long timeoutNanos) {
+        idleLock.lock();
+        try {
+            idlePollers++;
+            long nanos = timeoutNanos;
+            while (isEmpty()) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = published.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            idlePollers--;
+            idleLock.unlock();
+        }
+    }
+
+    private void wakePollers() {
+        // Orders the slot writes before the read of idlePollers (see awaitPublish)
+        VarHandle.fullFence();
+        if (idlePollers == 0) {
+            return;
+        }
+        idleLock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    private boolean isEmpty() {
+        for (MpmcRingBuffer lane : lanes) {
+            if (!lane.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getBrokerType() {
+        return "inmemory";
+    }
+}
@@ -0,0 +1,45 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.Task;
+
+import java.util.function.Function;
+
+/**
+ * How the Kafka broker spreads tasks over partitions, selected by
+ * {@code scheduler.broker.kafka-partitioning}. Each strategy yields the
+ * record key; Kafka hashes it to a partition, and a null key leaves the
+ * choice to the producer's sticky partitioner.
+ *
+ * - key:    the task's partitionKey (e.g. its tenant), so tasks of one key
+ *           stay in order; unkeyed tasks are batched like sticky
+ * - type:   the task type, so each handler's tasks share a partition;
+ *           needs kafka-ordering partition or none, since key ordering
+ *           would run a type's tasks one at a time
+ * - sticky: no key; the producer fills a batch for one partition before
+ *           moving to the next (round-robin across batches)
+ * - id:     the task ID, one partition per task at random (no ordering)
+ */
+public enum KafkaPartitioning {
+
+    KEY(Task::getPartitionKey),
+    TYPE(Task::getType),
+    STICKY(task -> null),
+    ID(task -> task.getId().toString());
+
+    private final Function<Task, String> key;
+
+    KafkaPartitioning(Function<Task, String> key) {
+        this.key = key;
+    }
+
+    /**
+     * Record key for the task; null when the producer picks the partition.
+     */
+    public String recordKey(Task task) {
+        return key.apply(task);
+    }
+
+    public static KafkaPartitioning of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -2,58 +2,93 @@ package com.demo.scheduler.service.broker;
 
 import com.demo.scheduler.model.TaskEvent;
 import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
 import com.demo.scheduler.service.MessageCaptureService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Slf4j
 @Service
 public class KafkaTaskBroker implements TaskBroker {
 
+    private static final String ERROR_HEADER = "x-error";
+    private static final String ATTEMPTS_HEADER = "x-attempts";
+
     private final KafkaTemplate<String, TaskEvent> kafkaTemplate;
     private final MessageCaptureService messageCapture;
-    private final ObjectMapper objectMapper;
+    private final KafkaPartitioning partitioning;
+
+    // Same producer settings with a byte[] value serializer; created on first use
+    private volatile DefaultKafkaProducerFactory<String, byte[]> rawProducerFactory;
+    private volatile KafkaTemplate<String, byte[]> rawTemplate;
 
     @Value("${scheduler.broker.topic}")
     private String topicName;
 
-    public KafkaTaskBroker(KafkaTemplate<String, TaskEvent> kafkaTemplate, 
+    /**
+     * @throws IllegalArgumentException for kafka-partitioning: type together
+     *         with kafka-ordering: key, under which the worker would run every
+     *         task of a type one after another
+     */
+    public KafkaTaskBroker(KafkaTemplate<String, TaskEvent> kafkaTemplate,
                            MessageCaptureService messageCapture,
-                           ObjectMapper objectMapper) {
+                           @Value("${scheduler.broker.kafka-partitioning:key}") String partitioning,
+                           @Value("${scheduler.broker.kafka-ordering:key}") String ordering) {
         this.kafkaTemplate = kafkaTemplate;
         this.messageCapture = messageCapture;
-        this.objectMapper = objectMapper;
+        this.partitioning = KafkaPartitioning.of(partitioning);
+        if (this.partitioning == KafkaPartitioning.TYPE && "key".equalsIgnoreCase(ordering.trim())) {
+            throw new IllegalArgumentException("kafka-partitioning: type keys records by task type, so "
+                + "kafka-ordering: key would serialize every task of a type; use kafka-ordering: partition or none");
+        }
+    }
+
+    /**
+     * Topic carrying tasks of the given priority. NORMAL keeps the plain topic
+     * name; the others get a -high / -low suffix.
+     */
+    public static String topicFor(String topicName, Priority priority) {
+        return priority == Priority.NORMAL ? topicName : topicName + "-" + priority.name().toLowerCase();
     }
 
     @Override
     public void submitTask(Task task) {
-        TaskEvent event = new TaskEvent(
-            task.getId(),
-            task.getPayload(),
-            task.getCreatedAt().toString()
-        );
+        TaskEvent event = toEvent(task);
         
-        kafkaTemplate.send(topicName, task.getId().toString(), event)
+        String topic = topicFor(topicName, task.getPriority());
+        kafkaTemplate.send(topic, partitioning.recordKey(task), event)
                 .whenComplete((result, ex) -> {
                     if (ex == null) {
                         log.debug("Task {} sent to Kafka topic: {} [offset={}]", 
-                            task.getId(), topicName, result.getRecordMetadata().offset());
+                            task.getId(), topic, result.getRecordMetadata().offset());
                         
-                        // Capture for inspector
-                        String payload = serializeEvent(event);
-                        String id = String.format("P-%d/O-%d", 
-                            result.getRecordMetadata().partition(), 
-                            result.getRecordMetadata().offset());
-                            
+                        // Capture for inspector. This runs on the producer's I/O thread, so
+                        // the event is described, not serialized a second time
                         messageCapture.captureProduced(
                             "KAFKA",
-                            topicName,
-                            id,
-                            payload
+                            topic,
+                            "P-" + result.getRecordMetadata().partition() + "/O-" + result.getRecordMetadata().offset(),
+                            event.toString()
                         );
                     } else {
                         log.error("Failed to send task {} to Kafka", task.getId(), ex);
@@ -61,12 +96,132 @@ public class KafkaTaskBroker implements TaskBroker {
                 });
     }
 
-    private String serializeEvent(TaskEvent event) {
-        try {
-            return objectMapper.writeValueAsString(event);
-        } catch (JsonProcessingException e) {
-            return event.toString();
+    /**
+     * Pipelines all sends through the producer's accumulator and flushes once,
+     * so the batch goes out in as few produce requests as the linger/batch
+     * settings allow instead of waiting on each record. Throws if any send
+     * failed, so callers (the outbox relay, delayed release) keep the batch
+     * and try again.
+     */
+    @Override
+    public void submitTasks(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger failed = new AtomicInteger();
+        for (Task task : tasks) {
+            TaskEvent event = toEvent(task);
+            kafkaTemplate.send(topicFor(topicName, task.getPriority()), partitioning.recordKey(task), event)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            failed.incrementAndGet();
+                            log.error("Failed to send task {} to Kafka", task.getId(), ex);
+                        }
+                    });
+        }
+        kafkaTemplate.flush();
+        // flush() returns once every send above has completed
+        if (failed.get() > 0) {
+            throw new IllegalStateException("Failed to send " + failed.get() + " of " + tasks.size() + " tasks to Kafka");
+        }
+        log.debug("{} tasks sent to Kafka topic: {}", tasks.size(), topicName);
+
+        messageCapture.captureProduced(
+            "KAFKA",
+            topicName,
+            tasks.get(0).getId() + ".." + tasks.get(tasks.size() - 1).getId(),
+            "Batch of " + tasks.size() + " task events"
+        );
+    }
+
+    /**
+     * Sends the task event to {topic}-dlq, with the error and attempt count as
+     * record headers. Nothing subscribes to it by default.
+     */
+    @Override
+    public void deadLetter(Task task, String errorMessage) {
+        TaskEvent event = toEvent(task);
+        String topic = deadLetterTopic(topicName);
+        ProducerRecord<String, TaskEvent> record = new ProducerRecord<>(topic, task.getId().toString(), event);
+        if (errorMessage != null) {
+            record.headers().add(ERROR_HEADER, errorMessage.getBytes(StandardCharsets.UTF_8));
         }
+        record.headers().add(ATTEMPTS_HEADER, String.valueOf(task.getAttemptCount()).getBytes(StandardCharsets.UTF_8));
+
+        kafkaTemplate.send(record).whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Failed to dead-letter task {} to Kafka", task.getId(), ex);
+            }
+        });
+        messageCapture.captureProduced("KAFKA", topic, task.getId().toString(), event.toString());
+    }
+
+    /**
+     * Sends a record the consumer could not decode to {topic}-dlq as it was
+     * received: same key, the value bytes ErrorHandlingDeserializer kept, and
+     * the error and source partition/offset as headers. The record does not
+     * say which task it carried, so the task row itself is left as it is.
+     *
+     * @param error the decoding failure; looked up in the record's headers when null
+     * @return completes once the dead-letter record is acknowledged
+     */
+    public CompletableFuture<Void> deadLetterUndecodable(ConsumerRecord<?, ?> record, DeserializationException error) {
+        if (error == null) {
+            error = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new LogAccessor(KafkaTaskBroker.class));
+        }
+        String topic = deadLetterTopic(topicName);
+        ProducerRecord<String, byte[]> deadLetter = new ProducerRecord<>(topic,
+            record.key() != null ? record.key().toString() : null, error != null ? error.getData() : null);
+        String message = error != null ? error.getMessage() : "undecodable value";
+        deadLetter.headers().add(ERROR_HEADER, String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+        deadLetter.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic().getBytes(StandardCharsets.UTF_8));
+        // Binary int/long, as DeadLetterPublishingRecoverer writes them
+        deadLetter.headers().add(KafkaHeaders.DLT_ORIGINAL_PARTITION,
+            ByteBuffer.allocate(Integer.BYTES).putInt(record.partition()).array());
+        deadLetter.headers().add(KafkaHeaders.DLT_ORIGINAL_OFFSET,
+            ByteBuffer.allocate(Long.BYTES).putLong(record.offset()).array());
+
+        log.error("Dead-lettering undecodable Kafka record {}-{}@{}: {}",
+            record.topic(), record.partition(), record.offset(), message);
+        return rawTemplate().send(deadLetter).thenAccept(result -> { });
+    }
+
+    private KafkaTemplate<String, byte[]> rawTemplate() {
+        if (rawTemplate == null) {
+            synchronized (this) {
+                if (rawTemplate == null) {
+                    Map<String, Object> configs = new HashMap<>(kafkaTemplate.getProducerFactory().getConfigurationProperties());
+                    configs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+                    rawProducerFactory = new DefaultKafkaProducerFactory<>(configs);
+                    rawTemplate = new KafkaTemplate<>(rawProducerFactory);
+                }
+            }
+        }
+        return rawTemplate;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (rawProducerFactory != null) {
+            rawProducerFactory.destroy();
+        }
+    }
+
+    public static String deadLetterTopic(String topicName) {
+        return topicName + "-dlq";
+    }
+
+    private static TaskEvent toEvent(Task task) {
+        TaskEvent event = new TaskEvent(
+            task.getId(),
+            task.getPayload(),
+            task.getCreatedAt().toString(),
+            task.getPriority().getLevel()
+        );
+        event.setType(task.getType());
+        return event;
     }
 
     @Override
@@ -0,0 +1,89 @@
+package com.demo.scheduler.service.broker;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File-based stand-in for a schema registry: one {@code <id>.avsc} file per
+ * writer schema in a directory shared by producers and consumers (or
+ * shipped with the deployment).
+ *
+ * A schema's ID is derived from its parsing-canonical-form fingerprint, so
+ * every node computes the same ID for the same schema without a registry
+ * service to hand them out. Schemas are cached in memory once read.
+ */
+public class LocalSchemaRegistry {
+
+    private static final String SUFFIX = ".avsc";
+
+    private final Path directory;
+    private final Map<Integer, Schema> schemas = new ConcurrentHashMap<>();
+
+    public LocalSchemaRegistry(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * ID of a schema: the low 32 bits of its CRC-64-AVRO fingerprint.
+     */
+    public static int idOf(Schema schema) {
+        return (int) SchemaNormalization.parsingFingerprint64(schema);
+    }
+
+    /**
+     * Stores the schema under its ID unless it is already there.
+     *
+     * @return the schema's ID
+     */
+    public int register(Schema schema) {
+        int id = idOf(schema);
+        if (schemas.putIfAbsent(id, schema) == null) {
+            Path file = file(id);
+            try {
+                if (!Files.exists(file)) {
+                    Files.createDirectories(directory);
+                    // Written aside and renamed so readers never see half a schema
+                    Path temporary = Files.createTempFile(directory, "schema", ".tmp");
+                    Files.writeString(temporary, schema.toString(true), StandardCharsets.UTF_8);
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                schemas.remove(id);
+                throw new UncheckedIOException("Failed to register schema " + id + " in " + directory, e);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * The writer schema with the given ID.
+     *
+     * @throws IllegalArgumentException if no such schema has been registered
+     */
+    public Schema lookup(int id) {
+        return schemas.computeIfAbsent(id, key -> {
+            Path file = file(key);
+            if (!Files.exists(file)) {
+                throw new IllegalArgumentException("Unknown schema ID " + key + " (no " + file + ")");
+            }
+            try {
+                return new Schema.Parser().parse(Files.readString(file, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read schema " + file, e);
+            }
+        });
+    }
+
+    private Path file(int id) {
+        return directory.resolve(Integer.toUnsignedString(id) + SUFFIX);
+    }
+}
@@ -0,0 +1,166 @@
+package com.demo.scheduler.service.broker;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Bounded lock-free multi-producer / multi-consumer queue of longs over a
+ * preallocated ring (Vyukov's algorithm, the Disruptor's slot layout).
+ *
+ * Every slot carries a sequence number saying whose turn it is: a producer
+ * may write slot {@code i} at position {@code p} once its sequence equals p,
+ * a consumer may read it once it equals p + 1. Producers and consumers each
+ * claim positions with one CAS on their own cursor; the cursors are padded
+ * onto separate cache lines so the two sides do not invalidate each other.
+ *
+ * Offering and draining never allocate. Values are arbitrary longs.
+ */
+public final class MpmcRingBuffer {
+
+    private static final VarHandle SLOT_SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int mask;
+    private final long[] values;
+    private final long[] sequences;
+
+    private final PaddedSequence producerCursor = new PaddedSequence(0);
+    private final PaddedSequence consumerCursor = new PaddedSequence(0);
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public MpmcRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 2 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.values = new long[size];
+        this.sequences = new long[size];
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+        VarHandle.releaseFence();
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Adds a value at the tail.
+     *
+     * @return false if the ring is full
+     */
+    public boolean offer(long value) {
+        long position = producerCursor.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long sequence = (long) SLOT_SEQUENCE.getAcquire(sequences, index);
+            long lag = sequence - position;
+            if (lag == 0) {
+                if (producerCursor.compareAndSet(position, position + 1)) {
+                    values[index] = value;
+                    SLOT_SEQUENCE.setRelease(sequences, index, position + 1);
+                    return true;
+                }
+                position = producerCursor.get();
+            } else if (lag < 0) {
+                // The slot still holds the value from one lap ago
+                return false;
+            } else {
+                // Another producer took this position
+                position = producerCursor.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} values from the head into {@code buffer}, starting at {@code offset}.
+     *
+     * @return values moved; 0 if the ring is empty
+     */
+    public int drainTo(long[] buffer, int offset, int max) {
+        int drained = 0;
+        long position = consumerCursor.get();
+        while (drained < max) {
+            int index = (int) (position & mask);
+            long sequence = (long) SLOT_SEQUENCE.getAcquire(sequences, index);
+            long lag = sequence - (position + 1);
+            if (lag == 0) {
+                if (consumerCursor.compareAndSet(position, position + 1)) {
+                    buffer[offset + drained++] = values[index];
+                    // Hand the slot back to producers for the next lap
+                    SLOT_SEQUENCE.setRelease(sequences, index, position + mask + 1);
+                    position++;
+                } else {
+                    position = consumerCursor.get();
+                }
+            } else if (lag < 0) {
+                break;
+            } else {
+                position = consumerCursor.get();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Whether the head slot is empty, read with volatile semantics so that it
+     * can be paired with a volatile write in a sleep / wake-up handshake.
+     */
+    public boolean isEmpty() {
+        long position = consumerCursor.getVolatile();
+        long sequence = (long) SLOT_SEQUENCE.getVolatile(sequences, (int) (position & mask));
+        return sequence - (position + 1) < 0;
+    }
+
+    /**
+     * Approximate number of queued values (exact when quiescent).
+     */
+    public int size() {
+        long size = producerCursor.getVolatile() - consumerCursor.getVolatile();
+        return (int) Math.max(0, Math.min(size, values.length));
+    }
+
+    // Cache-line padding around the cursor value, kept in declaration order by the class hierarchy
+    @SuppressWarnings("unused")
+    private static class LeftPadding {
+        protected long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static class SequenceValue extends LeftPadding {
+        protected long value;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class PaddedSequence extends SequenceValue {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        protected long p9, p10, p11, p12, p13, p14, p15;
+
+        PaddedSequence(long initial) {
+            VALUE.setRelease(this, initial);
+        }
+
+        long get() {
+            return (long) VALUE.getAcquire(this);
+        }
+
+        long getVolatile() {
+            return (long) VALUE.getVolatile(this);
+        }
+
+        boolean compareAndSet(long expected, long next) {
+            return VALUE.compareAndSet(this, expected, next);
+        }
+    }
+}
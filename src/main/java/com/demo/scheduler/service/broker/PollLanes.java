@@ -0,0 +1,104 @@
+package com.demo.scheduler.service.broker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * What the pollable brokers share: how a poll is split across the priority
+ * lanes, and the wake-up handshake for pollers that found every lane empty.
+ *
+ * A poll first takes up to each lane's share of maxItems, then whatever is
+ * left, most urgent lane first. A poller that comes back empty-handed reads
+ * {@link #currentSignal()} before its last look at the lanes and then waits
+ * in {@link #awaitSignal(long, long)}, so a publish that lands in between is
+ * not missed.
+ */
+final class PollLanes {
+
+    private final int[] weights;
+    private final int totalWeight;
+
+    // Wake-ups for idle pollers; the sequence tells a poller whether it missed one
+    private final ReentrantLock signalLock = new ReentrantLock();
+    private final Condition signalled = signalLock.newCondition();
+    private long signalSequence;
+    private volatile boolean closed;
+
+    PollLanes(int[] priorityWeights) {
+        this.weights = priorityWeights.clone();
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * The lane's part of maxItems by weight, at least one so a small batch
+     * still reaches LOW.
+     */
+    int share(int lane, int maxItems) {
+        return (int) Math.max(1, (long) maxItems * weights[lane] / totalWeight);
+    }
+
+    /**
+     * Every lane's share, as script arguments for the Redis brokers.
+     */
+    List<String> shareArgs(int maxItems) {
+        List<String> shares = new ArrayList<>(weights.length);
+        for (int i = 0; i < weights.length; i++) {
+            shares.add(String.valueOf(share(i, maxItems)));
+        }
+        return shares;
+    }
+
+    long currentSignal() {
+        signalLock.lock();
+        try {
+            return signalSequence;
+        } finally {
+            signalLock.unlock();
+        }
+    }
+
+    void signal() {
+        signalLock.lock();
+        try {
+            signalSequence++;
+            signalled.signalAll();
+        } finally {
+            signalLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a wake-up newer than {@code sequence} arrives.
+     *
+     * @return false if the timeout elapsed (or the broker stopped) first
+     */
+    boolean awaitSignal(long sequence, long timeoutNanos) {
+        signalLock.lock();
+        try {
+            long nanos = timeoutNanos;
+            while (signalSequence == sequence && nanos > 0 && !closed) {
+                nanos = signalled.awaitNanos(nanos);
+            }
+            return signalSequence != sequence;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            signalLock.unlock();
+        }
+    }
+
+    /**
+     * Releases every waiting poller and stops further waits.
+     */
+    void close() {
+        closed = true;
+        signal();
+    }
+}
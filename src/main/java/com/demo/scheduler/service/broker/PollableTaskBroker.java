@@ -0,0 +1,26 @@
+package com.demo.scheduler.service.broker;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A broker whose queue is pulled by the worker's consumer loop
+ * (as opposed to push-style brokers such as Kafka listeners).
+ */
+public interface PollableTaskBroker extends TaskBroker {
+
+    /**
+     * Takes up to {@code maxItems} task IDs in as few round trips as possible,
+     * sharing {@code maxItems} across priority lanes by weight.
+     * Returns immediately when work is queued; otherwise blocks for at most
+     * {@code timeout} waiting for the next task, then returns an empty list.
+     */
+    List<PolledTask> poll(int maxItems, Duration timeout);
+
+    /**
+     * Confirms that the given tasks are finished so the broker can forget them.
+     * Called in batches by the consumer loop; a no-op for fire-and-forget queues.
+     */
+    default void acknowledge(List<Long> taskIds) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.Task.Priority;
+
+/**
+ * A task ID taken from a pull-style broker, with the priority lane it came from.
+ */
+public record PolledTask(Long taskId, Priority priority) {
+}
@@ -0,0 +1,296 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import com.demo.scheduler.service.MessageCaptureService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Broker backed by the database itself, for environments without Redis or
+ * Kafka ({@code scheduler.broker.type=postgres}).
+ *
+ * Publishing upserts one task_queue row per task in the caller's transaction
+ * (with the outbox, the relay's: the queue row and the outbox delete commit
+ * together) and sends NOTIFY, which Postgres delivers on commit.
+ *
+ * A poll locks up to maxItems visible rows with FOR UPDATE SKIP LOCKED,
+ * sharing the batch across priorities by weight like the Redis lanes, and
+ * leases them in the same transaction by moving visible_at to the lease
+ * deadline. Workers polling concurrently skip each other's rows instead of
+ * queueing behind their locks. Acknowledging deletes the rows; a lease that
+ * runs out (worker died or stuck) makes the row pollable again, so there is
+ * no separate reaper.
+ *
+ * An idle poll waits for a notification rather than re-querying: a listener
+ * thread keeps one pooled connection in LISTEN. Other databases (H2 in demo
+ * mode and tests) have no LISTEN/NOTIFY; there a local publish wakes the
+ * pollers after its commit, and tasks published by other nodes are found by
+ * the next poll, at most block-timeout-ms later.
+ */
+@Slf4j
+@Service
+public class PostgresTaskBroker implements PollableTaskBroker {
+
+    public static final String CHANNEL = "task_queue";
+
+    private static final String UPSERT_POSTGRES_SQL =
+        "INSERT INTO task_queue (task_id, priority, visible_at) VALUES (?, ?, ?) " +
+        "ON CONFLICT (task_id) DO UPDATE SET visible_at = EXCLUDED.visible_at, leased_by = NULL";
+
+    // Standard MERGE for databases without ON CONFLICT (H2)
+    private static final String UPSERT_MERGE_SQL =
+        "MERGE INTO task_queue q " +
+        "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(10)), CAST(? AS TIMESTAMP(6)))) s (task_id, priority, visible_at) " +
+        "ON q.task_id = s.task_id " +
+        "WHEN MATCHED THEN UPDATE SET visible_at = s.visible_at, leased_by = NULL " +
+        "WHEN NOT MATCHED THEN INSERT (task_id, priority, visible_at) VALUES (s.task_id, s.priority, s.visible_at)";
+
+    private static final String LOCK_LANE_SQL =
+        "SELECT task_id FROM task_queue WHERE priority = ? AND visible_at <= ? ORDER BY visible_at LIMIT ? " +
+        "FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+        "UPDATE task_queue SET visible_at = ?, leased_by = ? WHERE task_id = ?";
+
+    // A re-published task (retry) has leased_by reset and is not dropped by a late ack
+    private static final String ACK_SQL =
+        "DELETE FROM task_queue WHERE task_id = ? AND leased_by = ?";
+
+    private static final int LISTEN_TIMEOUT_MS = 500;
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private static final Priority[] LANES = Priority.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageCaptureService messageCapture;
+    private final String workerId;
+    private final long visibilityTimeoutMs;
+    private final PollLanes pollLanes;
+
+    private final AtomicBoolean listening = new AtomicBoolean();
+    private volatile boolean running = true;
+    private volatile boolean postgres;
+
+    public PostgresTaskBroker(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MessageCaptureService messageCapture,
+                              @Value("${scheduler.worker.id}") String workerId,
+                              @Value("${scheduler.worker.visibility-timeout-ms:30000}") long visibilityTimeoutMs,
+                              @Value("${scheduler.priority.weights:8,3,1}") int[] priorityWeights) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messageCapture = messageCapture;
+        this.workerId = workerId;
+        this.visibilityTimeoutMs = visibilityTimeoutMs;
+        this.pollLanes = new PollLanes(priorityWeights);
+    }
+
+    @PostConstruct
+    public void init() {
+        String product = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        postgres = "PostgreSQL".equalsIgnoreCase(product);
+        if (!postgres) {
+            log.info("Postgres broker on {}: no LISTEN/NOTIFY, idle workers re-poll every block timeout", product);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        pollLanes.close();
+    }
+
+    @Override
+    public void submitTask(Task task) {
+        submitTasks(List.of(task));
+    }
+
+    /**
+     * Upserts the batch as one JDBC batch. A task that is already queued
+     * (re-sent by the outbox, or retried before its previous delivery was
+     * acknowledged) becomes visible again rather than failing the batch.
+     */
+    @Override
+    public void submitTasks(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(postgres ? UPSERT_POSTGRES_SQL : UPSERT_MERGE_SQL, tasks, tasks.size(), (ps, task) -> {
+            ps.setLong(1, task.getId());
+            ps.setString(2, task.getPriority().name());
+            ps.setTimestamp(3, now);
+        });
+        wakePollers();
+        log.debug("{} tasks queued in table {}", tasks.size(), CHANNEL);
+
+        Long firstId = tasks.get(0).getId();
+        messageCapture.captureProduced(
+            "POSTGRES",
+            CHANNEL,
+            tasks.size() == 1 ? firstId.toString() : firstId + ".." + tasks.get(tasks.size() - 1).getId(),
+            tasks.size() == 1 ? "Task ID: " + firstId : "Batch of " + tasks.size() + " task IDs"
+        );
+    }
+
+    /**
+     * Claims queued tasks in one short transaction. Returns immediately when
+     * work is queued; otherwise waits for a publish (NOTIFY, or a local commit
+     * on other databases) for at most {@code timeout} and tries once more.
+     */
+    @Override
+    public List<PolledTask> poll(int maxItems, Duration timeout) {
+        long sequence = pollLanes.currentSignal();
+        List<PolledTask> tasks = claim(maxItems);
+        if (!tasks.isEmpty()) {
+            return tasks;
+        }
+
+        startListener();
+        return pollLanes.awaitSignal(sequence, timeout.toNanos()) ? claim(maxItems) : List.of();
+    }
+
+    /**
+     * Deletes the rows of finished tasks that this worker still leases.
+     */
+    @Override
+    public void acknowledge(List<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ACK_SQL, taskIds, taskIds.size(), (ps, taskId) -> {
+            ps.setLong(1, taskId);
+            ps.setString(2, workerId);
+        });
+    }
+
+    /**
+     * Locks and leases up to maxItems visible rows: first up to each lane's
+     * share, then whatever is left from the lanes that still had rows, most
+     * urgent first. Leasing right after each lane's SELECT keeps the second
+     * pass from seeing the rows again.
+     */
+    private List<PolledTask> claim(int maxItems) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp visibleBefore = Timestamp.valueOf(now);
+        Timestamp leaseDeadline = Timestamp.valueOf(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(visibilityTimeoutMs)));
+
+        return transactionTemplate.execute(status -> {
+            List<PolledTask> tasks = new ArrayList<>();
+            boolean[] drained = new boolean[LANES.length];
+            for (int pass = 1; pass <= 2; pass++) {
+                for (int i = 0; i < LANES.length && tasks.size() < maxItems; i++) {
+                    if (drained[i]) {
+                        continue;
+                    }
+                    int remaining = maxItems - tasks.size();
+                    int count = pass == 1 ? Math.min(pollLanes.share(i, maxItems), remaining) : remaining;
+                    List<Long> ids = jdbcTemplate.queryForList(LOCK_LANE_SQL, Long.class,
+                        LANES[i].name(), visibleBefore, count);
+                    drained[i] = ids.size() < count;
+                    if (ids.isEmpty()) {
+                        continue;
+                    }
+
+                    jdbcTemplate.batchUpdate(LEASE_SQL, ids, ids.size(), (ps, taskId) -> {
+                        ps.setTimestamp(1, leaseDeadline);
+                        ps.setString(2, workerId);
+                        ps.setLong(3, taskId);
+                    });
+                    for (Long taskId : ids) {
+                        tasks.add(new PolledTask(taskId, LANES[i]));
+                    }
+                }
+            }
+            return tasks;
+        });
+    }
+
+    private void wakePollers() {
+        if (postgres) {
+            // Transactional: delivered to every listening node once the caller commits
+            jdbcTemplate.execute("NOTIFY " + CHANNEL);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pollLanes.signal();
+                }
+            });
+        } else {
+            pollLanes.signal();
+        }
+    }
+
+    private void startListener() {
+        if (!postgres || !listening.compareAndSet(false, true)) {
+            return;
+        }
+        Thread listener = new Thread(this::runListener, "postgres-broker-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * Holds one connection in LISTEN and turns notifications into wake-ups.
+     * Reconnects after a failure; pollers are woken on every (re)connect,
+     * since notifications sent while not listening are lost.
+     */
+    private void runListener() {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                pollLanes.signal();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(LISTEN_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        pollLanes.signal();
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.error("LISTEN {} failed, reconnecting: {}", CHANNEL, e.getMessage());
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(RECONNECT_DELAY_MS));
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getBrokerType() {
+        return "postgres";
+    }
+}
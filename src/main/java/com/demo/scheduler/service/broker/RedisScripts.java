@@ -0,0 +1,25 @@
+package com.demo.scheduler.service.broker;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Script definitions shared by the Redis brokers.
+ */
+final class RedisScripts {
+
+    private RedisScripts() {
+    }
+
+    /**
+     * A script returning a (possibly nested) array reply. The serializer
+     * only knows the raw {@code List} class, so the element type is declared
+     * here once instead of at every call site.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> RedisScript<List<T>> listScript(String source) {
+        return (RedisScript) new DefaultRedisScript<>(source, List.class);
+    }
+}
@@ -0,0 +1,444 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import com.demo.scheduler.service.MessageCaptureService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Redis Streams broker ({@code scheduler.broker.type=redis-streams}).
+ *
+ * Each priority has its own stream: {queue}:stream, {queue}:stream:high and
+ * {queue}:stream:low, each entry holding one task ID. Publishing is one
+ * {@code XADD} per task in a script call per lane. Unlike the list broker,
+ * acknowledged entries stay in the stream, so they can be replayed or read by
+ * a second consumer group, until the lane grows past {@code max-length}. A
+ * sweep every trim-interval-ms then trims it with {@code MINID ~} up to the
+ * oldest entry that a group has not read or not acknowledged yet, so the
+ * group scan is paid once per interval rather than on every publish. Unread
+ * and pending entries are never trimmed, so a backlog can keep a lane above
+ * max-length; between sweeps a lane can also overshoot by what was published.
+ *
+ * Every node reads through the consumer group {@code
+ * scheduler.broker.redis-streams.group} under its worker ID. A poll reads up
+ * to maxItems new entries across the lanes in one script call, sharing the
+ * batch by {@code scheduler.priority.weights} like the list broker; only
+ * when every lane is empty does it block in {@code XREADGROUP ... BLOCK} on
+ * all three streams. Finished tasks are acknowledged with one XACK per lane.
+ *
+ * Entries delivered to a consumer that died (or is stuck) stay in the
+ * group's pending entries list. A sweep every claim-interval-ms takes over
+ * those idle for longer than the visibility timeout with {@code XAUTOCLAIM}
+ * and hands them to the next poll, so delivery is at-least-once.
+ */
+@Slf4j
+//@Service
+@RequiredArgsConstructor
+public class RedisStreamsTaskBroker implements PollableTaskBroker {
+
+    /**
+     * Appends one entry per task ID ARGV[1..n] to the stream KEYS[1].
+     */
+    private static final RedisScript<Long> ADD_BATCH = new DefaultRedisScript<>("""
+        for i = 1, #ARGV do
+            redis.call('XADD', KEYS[1], '*', 'id', ARGV[i])
+        end
+        return #ARGV
+        """, Long.class);
+
+    /**
+     * Once the stream KEYS[1] holds more than ARGV[1] entries, trims (MINID ~)
+     * up to the oldest entry that some consumer group has not read yet or
+     * still has pending, so a task is never trimmed before every group is done
+     * with it. Returns the number of entries removed.
+     */
+    private static final RedisScript<Long> TRIM = new DefaultRedisScript<>("""
+        if redis.call('XLEN', KEYS[1]) <= tonumber(ARGV[1]) then
+            return 0
+        end
+        local function before(a, b)
+            local ams, aseq = string.match(a, '(%d+)-(%d+)')
+            local bms, bseq = string.match(b, '(%d+)-(%d+)')
+            if tonumber(ams) ~= tonumber(bms) then return tonumber(ams) < tonumber(bms) end
+            return tonumber(aseq) < tonumber(bseq)
+        end
+        local floor
+        for _, group in ipairs(redis.call('XINFO', 'GROUPS', KEYS[1])) do
+            local info = {}
+            for j = 1, #group, 2 do info[group[j]] = group[j + 1] end
+            local oldest = info['last-delivered-id']
+            if tonumber(info['pending']) > 0 then
+                local pending = redis.call('XPENDING', KEYS[1], info['name'])
+                if before(pending[2], oldest) then oldest = pending[2] end
+            end
+            if not floor or before(oldest, floor) then floor = oldest end
+        end
+        if not floor then
+            return 0
+        end
+        return redis.call('XTRIM', KEYS[1], 'MINID', '~', floor)
+        """, Long.class);
+
+    /**
+     * Reads up to ARGV[3] new entries for consumer ARGV[2] of group ARGV[1]
+     * from the lanes KEYS[1..n]: first up to each lane's share ARGV[i + 3],
+     * then whatever is left, most urgent lane first. Returns one flat list of
+     * entry ID, task ID pairs per lane.
+     */
+    private static final RedisScript<List<Object>> READ_BATCH = RedisScripts.listScript("""
+        local result = {}
+        local remaining = tonumber(ARGV[3])
+        for i = 1, #KEYS do result[i] = {} end
+        for pass = 1, 2 do
+            for i = 1, #KEYS do
+                local count = remaining
+                if pass == 1 then count = math.min(tonumber(ARGV[i + 3]), remaining) end
+                if count > 0 then
+                    local reply = redis.call('XREADGROUP', 'GROUP', ARGV[1], ARGV[2], 'COUNT', count, 'STREAMS', KEYS[i], '>')
+                    if reply then
+                        for _, entry in ipairs(reply[1][2]) do
+                            table.insert(result[i], entry[1])
+                            table.insert(result[i], entry[2][2])
+                            remaining = remaining - 1
+                        end
+                    end
+                end
+            end
+        end
+        return result
+        """);
+
+    /**
+     * Claims for consumer ARGV[2] of group ARGV[1] up to ARGV[5] entries of
+     * KEYS[1] that have been pending for at least ARGV[3] ms, scanning from
+     * ARGV[4]. Returns the next scan start, the number of pending entries
+     * found deleted from the stream, then entry ID, task ID pairs. ADD_BATCH
+     * never trims pending entries, so only an XDEL or XTRIM from outside
+     * deletes them; Redis 7 lists those separately (reply[3]), Redis 6.2
+     * returns them as empty entries.
+     */
+    private static final RedisScript<List<Object>> AUTO_CLAIM = RedisScripts.listScript("""
+        local reply = redis.call('XAUTOCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4], 'COUNT', ARGV[5])
+        local deleted = reply[3] and #reply[3] or 0
+        local result = { reply[1], deleted }
+        for _, entry in ipairs(reply[2]) do
+            if entry and entry[2] then
+                table.insert(result, entry[1])
+                table.insert(result, entry[2][2])
+            else
+                result[2] = result[2] + 1
+            end
+        end
+        return result
+        """);
+
+    private static final String SCAN_START = "0-0";
+    private static final String ID_FIELD = "id";
+
+    private static final Priority[] LANES = Priority.values();
+
+    private final StringRedisTemplate redisTemplate;
+    private final MessageCaptureService messageCapture;
+
+    @Value("${scheduler.queue.name}")
+    private String queueName;
+
+    @Value("${scheduler.broker.redis-streams.group:scheduler-workers}")
+    private String group;
+
+    @Value("${scheduler.broker.redis-streams.max-length:1000000}")
+    private long maxLength;
+
+    @Value("${scheduler.broker.redis-streams.claim-batch-size:500}")
+    private int claimBatchSize;
+
+    @Value("${scheduler.worker.id}")
+    private String workerId;
+
+    @Value("${scheduler.worker.visibility-timeout-ms:30000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${scheduler.priority.weights:8,3,1}")
+    private int[] priorityWeights;
+
+    @Value("${scheduler.retry.dead-letter-max-length:100000}")
+    private long deadLetterMaxLength;
+
+    private PollLanes pollLanes;
+    private List<String> streamKeys;
+
+    // Entry ID of each delivered, unacknowledged task, per lane
+    private final List<Map<Long, String>> inFlight = new ArrayList<>();
+
+    // Entries taken over from idle consumers, delivered by the next poll
+    private final Queue<PolledTask> reclaimed = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        pollLanes = new PollLanes(priorityWeights);
+        streamKeys = new ArrayList<>(LANES.length);
+        for (Priority priority : LANES) {
+            streamKeys.add(streamKey(queueName, priority));
+            inFlight.add(new ConcurrentHashMap<>());
+        }
+
+        // The group starts at the end of each stream; MKSTREAM creates empty lanes
+        for (String key : streamKeys) {
+            try {
+                redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(key.getBytes(StandardCharsets.UTF_8), group, ReadOffset.latest(), true));
+                log.info("Created consumer group {} on {}", group, key);
+            } catch (DataAccessException e) {
+                if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("BUSYGROUP")) {
+                    throw e;
+                }
+            }
+        }
+        log.info("Redis Streams broker: worker {} consuming as group {}", workerId, group);
+    }
+
+    /**
+     * Stream holding tasks of the given priority.
+     */
+    public static String streamKey(String queueName, Priority priority) {
+        String key = queueName + ":stream";
+        return priority == Priority.NORMAL ? key : key + ":" + priority.name().toLowerCase();
+    }
+
+    public static String deadLetterKey(String queueName) {
+        return queueName + ":stream:dead";
+    }
+
+    @Override
+    public void submitTask(Task task) {
+        submitTasks(List.of(task));
+    }
+
+    @Override
+    public void submitTasks(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        // One script call per priority lane, keeping submission order within a lane
+        Map<Priority, List<String>> byLane = new EnumMap<>(Priority.class);
+        for (Task task : tasks) {
+            byLane.computeIfAbsent(task.getPriority(), p -> new ArrayList<>()).add(task.getId().toString());
+        }
+        byLane.forEach((priority, ids) ->
+            redisTemplate.execute(ADD_BATCH, List.of(streamKey(queueName, priority)), ids.toArray()));
+        log.debug("{} tasks added to Redis streams: {}", tasks.size(), queueName);
+
+        messageCapture.captureProduced(
+            "REDIS",
+            streamKey(queueName, tasks.get(0).getPriority()),
+            tasks.size() == 1 ? tasks.get(0).getId().toString() : tasks.get(0).getId() + ".." + tasks.get(tasks.size() - 1).getId(),
+            tasks.size() == 1 ? "Task ID: " + tasks.get(0).getId() : "Batch of " + tasks.size() + " task IDs"
+        );
+    }
+
+    /**
+     * Adds the task ID and error to the {queue}:stream:dead stream, keeping
+     * about dead-letter-max-length entries.
+     */
+    @Override
+    public void deadLetter(Task task, String errorMessage) {
+        String key = deadLetterKey(queueName);
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            Map<byte[], byte[]> fields = Map.of(
+                ID_FIELD.getBytes(StandardCharsets.UTF_8), task.getId().toString().getBytes(StandardCharsets.UTF_8),
+                "error".getBytes(StandardCharsets.UTF_8), String.valueOf(errorMessage).getBytes(StandardCharsets.UTF_8));
+            return connection.streamCommands().xAdd(
+                MapRecord.create(key.getBytes(StandardCharsets.UTF_8), fields),
+                XAddOptions.maxlen(deadLetterMaxLength).approximateTrimming(true));
+        });
+        log.debug("Task {} added to Redis dead-letter stream: {}", task.getId(), key);
+
+        messageCapture.captureProduced(
+            "REDIS",
+            key,
+            task.getId().toString(),
+            "Dead-lettered task ID: " + task.getId() + (errorMessage != null ? " (" + errorMessage + ")" : "")
+        );
+    }
+
+    /**
+     * Returns reclaimed entries first, then reads new ones across the lanes
+     * in one script call. Only when every lane is empty does it block in
+     * XREADGROUP on all three streams, at most maxItems / 3 per stream so a
+     * wake-up never exceeds the batch.
+     */
+    @Override
+    public List<PolledTask> poll(int maxItems, Duration timeout) {
+        List<PolledTask> tasks = new ArrayList<>();
+        PolledTask next;
+        while (tasks.size() < maxItems && (next = reclaimed.poll()) != null) {
+            tasks.add(next);
+        }
+        if (tasks.size() == maxItems) {
+            return tasks;
+        }
+
+        int wanted = maxItems - tasks.size();
+        List<Object> args = new ArrayList<>(3 + LANES.length);
+        args.add(group);
+        args.add(workerId);
+        args.add(String.valueOf(wanted));
+        args.addAll(pollLanes.shareArgs(wanted));
+        List<?> perLane = redisTemplate.execute(READ_BATCH, streamKeys, args.toArray());
+        if (perLane != null) {
+            for (int i = 0; i < perLane.size() && i < LANES.length; i++) {
+                deliver(i, (List<?>) perLane.get(i), 0, tasks);
+            }
+        }
+        if (!tasks.isEmpty()) {
+            return tasks;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        StreamOffset<String>[] offsets = new StreamOffset[LANES.length];
+        for (int i = 0; i < LANES.length; i++) {
+            offsets[i] = StreamOffset.create(streamKeys.get(i), ReadOffset.lastConsumed());
+        }
+        StreamReadOptions options = StreamReadOptions.empty()
+            .count(Math.max(1, maxItems / LANES.length))
+            .block(timeout.isZero() ? Duration.ofMillis(1) : timeout);
+        List<MapRecord<String, Object, Object>> records =
+            redisTemplate.opsForStream().read(Consumer.from(group, workerId), options, offsets);
+        if (records != null) {
+            for (MapRecord<String, Object, Object> record : records) {
+                int lane = streamKeys.indexOf(record.getStream());
+                Object value = record.getValue().get(ID_FIELD);
+                if (lane >= 0 && value != null) {
+                    deliver(lane, List.of(record.getId().getValue(), value), 0, tasks);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Acknowledges finished tasks with one XACK per lane.
+     */
+    @Override
+    public void acknowledge(List<Long> taskIds) {
+        for (int i = 0; i < LANES.length; i++) {
+            List<String> entryIds = new ArrayList<>();
+            for (Long taskId : taskIds) {
+                String entryId = inFlight.get(i).remove(taskId);
+                if (entryId != null) {
+                    entryIds.add(entryId);
+                }
+            }
+            if (!entryIds.isEmpty()) {
+                redisTemplate.opsForStream().acknowledge(streamKeys.get(i), group, entryIds.toArray(new String[0]));
+            }
+        }
+    }
+
+    /**
+     * Trims every lane that has grown past max-length, up to what all groups
+     * are done with (see TRIM). Cheap when a lane is below max-length: one XLEN.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.broker.redis-streams.trim-interval-ms:1000}")
+    public void trimStreams() {
+        for (String key : streamKeys) {
+            Long removed = redisTemplate.execute(TRIM, List.of(key), String.valueOf(maxLength));
+            if (removed != null && removed > 0) {
+                log.debug("Trimmed {} acknowledged entries from {}", removed, key);
+            }
+        }
+    }
+
+    /**
+     * Takes over, for this worker, entries that another consumer (or this
+     * one before a restart) read but has not acknowledged within the
+     * visibility timeout. At most claim-batch-size per lane per sweep.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.broker.redis-streams.claim-interval-ms:5000}")
+    public void claimIdleEntries() {
+        for (int i = 0; i < LANES.length; i++) {
+            String start = SCAN_START;
+            int claimed = 0;
+            long deleted = 0;
+            do {
+                List<?> reply = redisTemplate.execute(AUTO_CLAIM, List.of(streamKeys.get(i)),
+                    group, workerId, String.valueOf(visibilityTimeoutMs), start,
+                    String.valueOf(claimBatchSize - claimed));
+                if (reply == null || reply.isEmpty()) {
+                    break;
+                }
+                start = String.valueOf(reply.get(0));
+                deleted += ((Number) reply.get(1)).longValue();
+                List<PolledTask> tasks = new ArrayList<>();
+                deliver(i, reply, 2, tasks);
+                reclaimed.addAll(tasks);
+                claimed += tasks.size();
+            } while (!SCAN_START.equals(start) && claimed < claimBatchSize);
+
+            if (claimed > 0) {
+                log.warn("Claimed {} idle {} entries from other consumers", claimed, LANES[i]);
+            }
+            if (deleted > 0) {
+                log.error("{} pending {} entries were deleted from {} before being acknowledged; their tasks stay PENDING",
+                    deleted, LANES[i], streamKeys.get(i));
+            }
+        }
+    }
+
+    /**
+     * Records entry ID, task ID pairs (from {@code from} on) as in flight and
+     * adds them to {@code tasks}.
+     */
+    private void deliver(int lane, List<?> pairs, int from, List<PolledTask> tasks) {
+        for (int j = from; j + 1 < pairs.size(); j += 2) {
+            String entryId = String.valueOf(pairs.get(j));
+            String value = String.valueOf(pairs.get(j + 1));
+            long taskId;
+            try {
+                taskId = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                log.error("Failed to parse task ID {} of entry {}", value, entryId);
+                redisTemplate.opsForStream().acknowledge(streamKeys.get(lane), group, entryId);
+                continue;
+            }
+            // A task added again while still in flight: the newer entry stands for both
+            String previous = inFlight.get(lane).put(taskId, entryId);
+            if (previous != null && !previous.equals(entryId)) {
+                redisTemplate.opsForStream().acknowledge(streamKeys.get(lane), group, previous);
+            }
+            tasks.add(new PolledTask(taskId, LANES[lane]));
+        }
+    }
+
+    @Override
+    public String getBrokerType() {
+        return "redis-streams";
+    }
+}
@@ -1,38 +1,532 @@
 package com.demo.scheduler.service.broker;
 
 import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
 import com.demo.scheduler.service.MessageCaptureService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Redis list broker. Task IDs are stored as plain decimal strings.
+ *
+ * Each priority has its own list: {queue}:high, {queue} (NORMAL) and
+ * {queue}:low. A poll shares its batch across the lanes by
+ * {@code scheduler.priority.weights}; capacity a lane cannot use goes to the
+ * others, most urgent first.
+ *
+ * In reliable mode ({@code scheduler.broker.redis.reliable=true}) a pop moves
+ * the ID into this worker's processing list and records a lease (visibility
+ * timeout) in a sorted set; the ID is removed only when the worker
+ * acknowledges it. A reaper re-queues entries whose lease has expired, so a
+ * node dying mid-task does not lose the task. BLMOVE can only wait on one
+ * list, so there publishers also push a token to a wake-up list that idle
+ * pollers block on, and a woken poller leases from every lane.
+ *
+ * Keys: {queue}[:high|:low], {queue}:processing:{workerId}, {queue}:leases
+ * (lease member = "{workerId}|{taskId}", score = lease deadline in epoch ms),
+ * {queue}:lease-lanes (lease member -> lane the ID is returned to),
+ * {queue}:wake (reliable mode: wake-up tokens for idle pollers).
+ *
+ * Every script declares the keys it touches in KEYS; a lane read back from
+ * {queue}:lease-lanes is only used if it is one of the declared lanes. On
+ * Redis Cluster the keys of one call must also share a slot, so give the
+ * queue name a hash tag there (e.g. {@code scheduler.queue.name={task-queue}}).
+ */
 @Slf4j
 //@Service
 @RequiredArgsConstructor
-public class RedisTaskBroker implements TaskBroker {
+public class RedisTaskBroker implements PollableTaskBroker {
+
+    /**
+     * Pops up to ARGV[1] IDs from the lanes KEYS[1..n]: first up to each lane's
+     * share ARGV[i + 1], then whatever is left, most urgent lane first.
+     * Returns one list of IDs per lane.
+     */
+    private static final RedisScript<List<Object>> POP_BATCH = RedisScripts.listScript("""
+        local result = {}
+        local remaining = tonumber(ARGV[1])
+        for i = 1, #KEYS do result[i] = {} end
+        for pass = 1, 2 do
+            for i = 1, #KEYS do
+                local count = remaining
+                if pass == 1 then count = math.min(tonumber(ARGV[i + 1]), remaining) end
+                if count > 0 then
+                    local ids = redis.call('LPOP', KEYS[i], count)
+                    if ids then
+                        for _, id in ipairs(ids) do table.insert(result[i], id) end
+                        remaining = remaining - #ids
+                    end
+                end
+            end
+        end
+        return result
+        """);
+
+    /**
+     * Reliable variant of POP_BATCH: moves IDs from the lanes KEYS[4..n] into
+     * the processing list KEYS[1], leasing each one (KEYS[2]) and recording its
+     * lane (KEYS[3]). ARGV = max items, lease deadline, worker ID, lane shares.
+     */
+    private static final RedisScript<List<Object>> LEASE_BATCH = RedisScripts.listScript("""
+        local result = {}
+        local remaining = tonumber(ARGV[1])
+        for i = 4, #KEYS do result[i - 3] = {} end
+        for pass = 1, 2 do
+            for i = 4, #KEYS do
+                local count = remaining
+                if pass == 1 then count = math.min(tonumber(ARGV[i]), remaining) end
+                while count > 0 do
+                    local id = redis.call('LMOVE', KEYS[i], KEYS[1], 'LEFT', 'RIGHT')
+                    if not id then break end
+                    local member = ARGV[3] .. '|' .. id
+                    redis.call('ZADD', KEYS[2], ARGV[2], member)
+                    redis.call('HSET', KEYS[3], member, KEYS[i])
+                    table.insert(result[i - 3], id)
+                    count = count - 1
+                    remaining = remaining - 1
+                end
+            end
+        end
+        return result
+        """);
+
+    /**
+     * Reliable-mode publish: appends the IDs ARGV[2..n] to lane KEYS[1] and
+     * one wake-up token per ID to KEYS[2], which is trimmed to ARGV[1]
+     * tokens so it stays small while no poller is idle.
+     */
+    private static final RedisScript<Long> PUSH_AND_WAKE = new DefaultRedisScript<>("""
+        for i = 2, #ARGV, 1000 do
+            redis.call('RPUSH', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV)))
+        end
+        for i = 1, math.min(#ARGV - 1, tonumber(ARGV[1])) do
+            redis.call('RPUSH', KEYS[2], '1')
+        end
+        redis.call('LTRIM', KEYS[2], -tonumber(ARGV[1]), -1)
+        return #ARGV - 1
+        """, Long.class);
+
+    /** Acknowledges a batch: drop each ID from the processing list, its lease and its lane record. */
+    private static final RedisScript<Long> ACK = new DefaultRedisScript<>("""
+        for i = 2, #ARGV do
+            local member = ARGV[1] .. '|' .. ARGV[i]
+            redis.call('LREM', KEYS[1], 1, ARGV[i])
+            redis.call('ZREM', KEYS[2], member)
+            redis.call('HDEL', KEYS[3], member)
+        end
+        return #ARGV - 1
+        """, Long.class);
+
+    /**
+     * Resolves the lane a lease member goes back to: the lane recorded in
+     * KEYS[3] if it is one of the lanes KEYS[5..n], else the default lane KEYS[4].
+     */
+    private static final String LANE_OF = """
+        local function laneOf(member)
+            local recorded = redis.call('HGET', KEYS[3], member)
+            for i = 5, #KEYS do
+                if KEYS[i] == recorded then return recorded end
+            end
+            return KEYS[4]
+        end
+        """;
+
+    /**
+     * Re-queues the IDs ARGV[3..n] of worker ARGV[2] whose lease (KEYS[2])
+     * expired before ARGV[1]: removed from its processing list KEYS[1], pushed
+     * back to their own lane. IDs acknowledged in the meantime are skipped.
+     */
+    private static final RedisScript<Long> REAP = new DefaultRedisScript<>(LANE_OF + """
+        local requeued = 0
+        for i = 3, #ARGV do
+            local member = ARGV[2] .. '|' .. ARGV[i]
+            local deadline = redis.call('ZSCORE', KEYS[2], member)
+            if deadline and tonumber(deadline) <= tonumber(ARGV[1]) then
+                if redis.call('LREM', KEYS[1], 1, ARGV[i]) > 0 then
+                    redis.call('LPUSH', laneOf(member), ARGV[i])
+                    requeued = requeued + 1
+                end
+                redis.call('ZREM', KEYS[2], member)
+                redis.call('HDEL', KEYS[3], member)
+            end
+        end
+        return requeued
+        """, Long.class);
+
+    /**
+     * Moves up to ARGV[2] entries of worker ARGV[1]'s processing list KEYS[1]
+     * back to the head of their lane, dropping their leases (KEYS[2]).
+     */
+    private static final RedisScript<Long> RECOVER = new DefaultRedisScript<>(LANE_OF + """
+        local moved = 0
+        while moved < tonumber(ARGV[2]) do
+            local id = redis.call('RPOP', KEYS[1])
+            if not id then break end
+            local member = ARGV[1] .. '|' .. id
+            redis.call('LPUSH', laneOf(member), id)
+            redis.call('ZREM', KEYS[2], member)
+            redis.call('HDEL', KEYS[3], member)
+            moved = moved + 1
+        end
+        return moved
+        """, Long.class);
+
+    /** Wake-up tokens kept for idle reliable-mode pollers; more would only cause empty wake-ups. */
+    private static final int MAX_WAKE_TOKENS = 256;
+
+    private static final Priority[] LANES = Priority.values();
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate redisTemplate;
     private final MessageCaptureService messageCapture;
 
     @Value("${scheduler.queue.name}")
     private String queueName;
 
+    @Value("${scheduler.broker.redis.reliable:false}")
+    private boolean reliable;
+
+    @Value("${scheduler.worker.id}")
+    private String workerId;
+
+    @Value("${scheduler.worker.visibility-timeout-ms:30000}")
+    private long visibilityTimeoutMs;
+
+    @Value("${scheduler.broker.redis.reaper-batch-size:500}")
+    private int reaperBatchSize;
+
+    @Value("${scheduler.priority.weights:8,3,1}")
+    private int[] priorityWeights;
+
+    @Value("${scheduler.retry.dead-letter-max-length:100000}")
+    private long deadLetterMaxLength;
+
+    private PollLanes pollLanes;
+    private String processingKey;
+    private String leasesKey;
+    private String leaseLanesKey;
+    private String wakeKey;
+    private List<String> laneKeys;
+
+    @PostConstruct
+    public void init() {
+        pollLanes = new PollLanes(priorityWeights);
+        processingKey = processingPrefix() + workerId;
+        leasesKey = queueName + ":leases";
+        leaseLanesKey = queueName + ":lease-lanes";
+        wakeKey = queueName + ":wake";
+        laneKeys = new ArrayList<>(LANES.length);
+        for (Priority priority : LANES) {
+            laneKeys.add(laneKey(queueName, priority));
+        }
+
+        if (reliable) {
+            // A restarted worker owns its old processing list: hand it back right away,
+            // reaper-batch-size entries per script call so a long list does not block Redis
+            List<String> keys = leaseKeys(processingKey);
+            long recovered = 0;
+            long moved;
+            do {
+                Long result = redisTemplate.execute(RECOVER, keys, workerId, String.valueOf(reaperBatchSize));
+                moved = result != null ? result : 0;
+                recovered += moved;
+            } while (moved > 0);
+            wake(recovered);
+            log.info("Reliable Redis queue enabled for worker {} (recovered {} in-flight tasks)", workerId, recovered);
+        }
+    }
+
+    /**
+     * List holding tasks of the given priority. NORMAL keeps the plain queue
+     * name, so a single-priority deployment uses the same key as before.
+     */
+    public static String laneKey(String queueName, Priority priority) {
+        return priority == Priority.NORMAL ? queueName : queueName + ":" + priority.name().toLowerCase();
+    }
+
     @Override
     public void submitTask(Task task) {
-        redisTemplate.opsForList().rightPush(queueName, task.getId().toString());
-        log.debug("Task {} pushed to Redis queue: {}", task.getId(), queueName);
-        
+        String lane = laneKey(queueName, task.getPriority());
+        push(lane, List.of(task.getId().toString()));
+        log.debug("Task {} pushed to Redis queue: {}", task.getId(), lane);
+
         // Capture for inspector
         messageCapture.captureProduced(
             "REDIS",
-            queueName,
+            lane,
             task.getId().toString(),
             "Task ID: " + task.getId()
         );
     }
 
+    @Override
+    public void submitTasks(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        // One variadic RPUSH per priority lane, keeping submission order within a lane
+        Map<Priority, List<String>> byLane = new EnumMap<>(Priority.class);
+        for (Task task : tasks) {
+            byLane.computeIfAbsent(task.getPriority(), p -> new ArrayList<>()).add(task.getId().toString());
+        }
+        byLane.forEach((priority, ids) -> push(laneKey(queueName, priority), ids));
+        log.debug("{} tasks pushed to Redis queue: {}", tasks.size(), queueName);
+
+        // Capture one summary entry per batch rather than flooding the inspector
+        messageCapture.captureProduced(
+            "REDIS",
+            queueName,
+            tasks.get(0).getId() + ".." + tasks.get(tasks.size() - 1).getId(),
+            "Batch of " + tasks.size() + " task IDs"
+        );
+    }
+
+    /**
+     * One variadic RPUSH; in reliable mode together with the wake-up tokens.
+     */
+    private void push(String lane, List<String> ids) {
+        if (!reliable) {
+            redisTemplate.opsForList().rightPushAll(lane, ids.toArray(new String[0]));
+            return;
+        }
+        List<String> args = new ArrayList<>(ids.size() + 1);
+        args.add(String.valueOf(MAX_WAKE_TOKENS));
+        args.addAll(ids);
+        redisTemplate.execute(PUSH_AND_WAKE, List.of(lane, wakeKey), args.toArray());
+    }
+
+    /**
+     * Pushes wake-up tokens for IDs put back on the lanes outside a publish
+     * (recovery, reaper).
+     */
+    private void wake(long requeued) {
+        if (requeued <= 0) {
+            return;
+        }
+        String[] tokens = new String[(int) Math.min(requeued, MAX_WAKE_TOKENS)];
+        Arrays.fill(tokens, "1");
+        redisTemplate.opsForList().rightPushAll(wakeKey, tokens);
+        redisTemplate.opsForList().trim(wakeKey, -MAX_WAKE_TOKENS, -1);
+    }
+
+    /**
+     * Appends the task ID to the {queue}:dead list, keeping only the newest
+     * dead-letter-max-length entries.
+     */
+    @Override
+    public void deadLetter(Task task, String errorMessage) {
+        String key = deadLetterKey(queueName);
+        redisTemplate.opsForList().rightPush(key, task.getId().toString());
+        redisTemplate.opsForList().trim(key, -deadLetterMaxLength, -1);
+        log.debug("Task {} pushed to Redis dead-letter list: {}", task.getId(), key);
+
+        messageCapture.captureProduced(
+            "REDIS",
+            key,
+            task.getId().toString(),
+            "Dead-lettered task ID: " + task.getId() + (errorMessage != null ? " (" + errorMessage + ")" : "")
+        );
+    }
+
+    public static String deadLetterKey(String queueName) {
+        return queueName + ":dead";
+    }
+
+    /**
+     * Drains up to maxItems IDs across the priority lanes in one script call
+     * ({@code LPOP key count}, Redis 6.2+). Only when every lane is empty does
+     * it fall back to a multi-key {@code BLPOP}, which parks on the server,
+     * returns the moment a producer pushes and prefers the most urgent lane.
+     * In reliable mode the drain uses LMOVE, and the idle wait is a BLPOP on
+     * the wake-up list publishers push to, after which every lane is drained
+     * again; a publish between the drain and the BLPOP leaves its token
+     * behind, so it is not missed.
+     */
+    @Override
+    public List<PolledTask> poll(int maxItems, Duration timeout) {
+        if (reliable) {
+            return pollReliable(maxItems, timeout);
+        }
+
+        List<Object> args = new ArrayList<>(LANES.length + 1);
+        args.add(String.valueOf(maxItems));
+        args.addAll(pollLanes.shareArgs(maxItems));
+        List<PolledTask> tasks = toPolledTasks(redisTemplate.execute(POP_BATCH, laneKeys, args.toArray()));
+        if (!tasks.isEmpty()) {
+            return tasks;
+        }
+
+        byte[][] keys = new byte[LANES.length][];
+        for (int i = 0; i < LANES.length; i++) {
+            keys[i] = laneKeys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        int timeoutSeconds = (int) Math.max(1, timeout.toSeconds()); // BLPOP takes whole seconds
+        List<byte[]> popped = redisTemplate.execute(
+            (RedisCallback<List<byte[]>>) connection -> connection.listCommands().bLPop(timeoutSeconds, keys));
+        if (popped == null || popped.size() < 2) {
+            return List.of();
+        }
+        Priority priority = LANES[laneKeys.indexOf(new String(popped.get(0), StandardCharsets.UTF_8))];
+        return parseTaskIds(List.of(new String(popped.get(1), StandardCharsets.UTF_8)), priority);
+    }
+
+    private List<PolledTask> pollReliable(int maxItems, Duration timeout) {
+        List<PolledTask> tasks = leaseBatch(maxItems);
+        if (!tasks.isEmpty()) {
+            return tasks;
+        }
+
+        // Every lane was empty: park on the wake-up list until a publish (or a
+        // re-queue) pushes a token, then lease from whichever lanes it filled
+        if (redisTemplate.opsForList().leftPop(wakeKey, timeout) == null) {
+            return List.of();
+        }
+        return leaseBatch(maxItems);
+    }
+
+    private List<PolledTask> leaseBatch(int maxItems) {
+        List<String> keys = new ArrayList<>(3 + LANES.length);
+        keys.add(processingKey);
+        keys.add(leasesKey);
+        keys.add(leaseLanesKey);
+        keys.addAll(laneKeys);
+        List<Object> args = new ArrayList<>(3 + LANES.length);
+        args.add(String.valueOf(maxItems));
+        args.add(leaseDeadline());
+        args.add(workerId);
+        args.addAll(pollLanes.shareArgs(maxItems));
+        return toPolledTasks(redisTemplate.execute(LEASE_BATCH, keys, args.toArray()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PolledTask> toPolledTasks(List<?> perLane) {
+        if (perLane == null) {
+            return List.of();
+        }
+        List<PolledTask> tasks = new ArrayList<>();
+        for (int i = 0; i < perLane.size() && i < LANES.length; i++) {
+            tasks.addAll(parseTaskIds((List<String>) perLane.get(i), LANES[i]));
+        }
+        return tasks;
+    }
+
+    /**
+     * Acknowledges finished tasks in one script call (LREM + ZREM per ID).
+     */
+    @Override
+    public void acknowledge(List<Long> taskIds) {
+        if (!reliable || taskIds.isEmpty()) {
+            return;
+        }
+
+        Object[] args = new Object[taskIds.size() + 1];
+        args[0] = workerId;
+        for (int i = 0; i < taskIds.size(); i++) {
+            args[i + 1] = taskIds.get(i).toString();
+        }
+        redisTemplate.execute(ACK, List.of(processingKey, leasesKey, leaseLanesKey), args);
+    }
+
+    /**
+     * Re-queues tasks whose lease expired (worker crashed or is stuck) to the
+     * lane they were taken from. Expired leases are read reaper-batch-size at
+     * a time and re-queued with one script call per owning worker, so each
+     * call declares the processing list it touches.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.broker.redis.reaper-interval-ms:5000}")
+    public void reapExpiredLeases() {
+        if (!reliable) {
+            return;
+        }
+
+        Set<String> expired;
+        do {
+            long now = System.currentTimeMillis();
+            expired = redisTemplate.opsForZSet().rangeByScore(leasesKey, Double.NEGATIVE_INFINITY, now, 0, reaperBatchSize);
+            if (expired == null || expired.isEmpty()) {
+                return;
+            }
+
+            // Lease member "{workerId}|{taskId}" -> task IDs per worker
+            Map<String, List<String>> byWorker = new LinkedHashMap<>();
+            for (String member : expired) {
+                int sep = member.indexOf('|');
+                if (sep < 0) {
+                    redisTemplate.opsForZSet().remove(leasesKey, member);
+                    continue;
+                }
+                byWorker.computeIfAbsent(member.substring(0, sep), w -> new ArrayList<>()).add(member.substring(sep + 1));
+            }
+
+            long requeued = 0;
+            for (Map.Entry<String, List<String>> entry : byWorker.entrySet()) {
+                List<Object> args = new ArrayList<>(entry.getValue().size() + 2);
+                args.add(String.valueOf(now));
+                args.add(entry.getKey());
+                args.addAll(entry.getValue());
+                Long result = redisTemplate.execute(REAP, leaseKeys(processingPrefix() + entry.getKey()), args.toArray());
+                requeued += result != null ? result : 0;
+            }
+            if (requeued > 0) {
+                log.warn("Re-queued {} tasks with expired leases", requeued);
+                wake(requeued);
+            }
+        } while (expired.size() >= reaperBatchSize);
+    }
+
+    /**
+     * KEYS for REAP and RECOVER: the processing list, the lease set and lane
+     * map, the default lane, then every lane an entry may be returned to.
+     */
+    private List<String> leaseKeys(String processingList) {
+        List<String> keys = new ArrayList<>(4 + laneKeys.size());
+        keys.add(processingList);
+        keys.add(leasesKey);
+        keys.add(leaseLanesKey);
+        keys.add(queueName);
+        keys.addAll(laneKeys);
+        return keys;
+    }
+
+    private String leaseDeadline() {
+        return String.valueOf(System.currentTimeMillis() + visibilityTimeoutMs);
+    }
+
+    private String processingPrefix() {
+        return queueName + ":processing:";
+    }
+
+    private List<PolledTask> parseTaskIds(List<String> values, Priority priority) {
+        List<PolledTask> taskIds = new ArrayList<>(values.size());
+        for (String value : values) {
+            try {
+                // Tolerate JSON-quoted IDs pushed by nodes that used the JSON value serializer
+                taskIds.add(new PolledTask(Long.parseLong(value.replace("\"", "")), priority));
+            } catch (NumberFormatException e) {
+                log.error("Failed to parse task ID: {}", value);
+            }
+        }
+        return taskIds;
+    }
+
     @Override
     public String getBrokerType() {
         return "redis";
@@ -0,0 +1,488 @@
+package com.demo.scheduler.service.broker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable append-only log of opaque records in memory-mapped segment files,
+ * with a single consumer cursor.
+ *
+ * Positions are byte offsets in one continuous space: a segment file is
+ * named after the position of its first byte, and the next segment starts
+ * where the previous one was sealed. A record is {@code [int length]
+ * [int crc32c][bytes]}; a zero length marks the end of a segment's data
+ * (files are zero-filled when created). Recovery scans each segment up to
+ * the first zero length or bad checksum and wipes the tail of the last one,
+ * so a torn write at a crash is dropped rather than misread later.
+ *
+ * The consumer reads records in order and releases them when done. The
+ * committed position, below which everything has been released, is written
+ * to a checkpoint file every checkpoint interval; segments that end at or
+ * below it are deleted. After a restart the consumer resumes from the
+ * checkpoint, so records that were read but not released are read again.
+ *
+ * Durability of appends follows the {@link FsyncPolicy}.
+ */
+@Slf4j
+public final class SegmentedJournal implements Closeable {
+
+    /**
+     * When appended records are forced to disk.
+     */
+    public enum FsyncPolicy {
+        /** Every append forces its records before returning. */
+        ALWAYS,
+        /** A flusher forces all new records every fsync interval; appends wait for it. */
+        GROUP,
+        /** Appends return at once; the OS writes the pages back when it sees fit. */
+        OS
+    }
+
+    /**
+     * A record and the position it starts at.
+     */
+    public record Entry(long position, byte[] data) {}
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "consumer.checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final long checkpointIntervalNanos;
+
+    private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Writer side, guarded by appendLock; writePosition is what readers may see
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Segment head;
+    private volatile long writePosition;
+
+    // Group commit
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private volatile long forcedPosition;
+
+    // Consumer side, guarded by readLock
+    private final ReentrantLock readLock = new ReentrantLock();
+    private volatile long readPosition;
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private long checkpointedPosition;
+
+    private volatile boolean running = true;
+    private final Thread maintenance;
+
+    public SegmentedJournal(Path directory, int segmentBytes, FsyncPolicy fsyncPolicy,
+                            long fsyncIntervalMs, long checkpointIntervalMs) throws IOException {
+        if (segmentBytes < 1024) {
+            throw new IllegalArgumentException("segmentBytes must be at least 1024: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMs);
+
+        Files.createDirectories(directory);
+        recover();
+
+        maintenance = new Thread(this::runMaintenance, "journal-" + directory.getFileName());
+        maintenance.setDaemon(true);
+        maintenance.start();
+    }
+
+    /**
+     * Appends the records in order, rolling to a new segment when one does
+     * not fit, and returns once they are as durable as the policy promises.
+     *
+     * @return the position right after the last record
+     */
+    public long append(List<byte[]> records) throws IOException {
+        long end;
+        appendLock.lock();
+        try {
+            long firstPosition = writePosition;
+            for (byte[] record : records) {
+                if (record.length + HEADER_BYTES > segmentBytes - HEADER_BYTES) {
+                    throw new IllegalArgumentException("Record of " + record.length + " bytes exceeds the segment size");
+                }
+                if (head.remaining(writePosition) < record.length + HEADER_BYTES) {
+                    roll();
+                }
+                head.write(writePosition, record);
+                // Publishes the record to readers
+                writePosition += record.length + HEADER_BYTES;
+            }
+            end = writePosition;
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                force(firstPosition, end);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            awaitForced(end);
+        }
+        return end;
+    }
+
+    /**
+     * Reads up to {@code max} records after the last one read. Each stays in
+     * flight, holding back the committed position, until it is released.
+     */
+    public List<Entry> read(int max) {
+        readLock.lock();
+        try {
+            List<Entry> entries = new ArrayList<>();
+            long position = readPosition;
+            long limit = writePosition;
+            while (entries.size() < max && position < limit) {
+                Map.Entry<Long, Segment> floor = segments.floorEntry(position);
+                byte[] data = floor.getValue().read(position);
+                if (data == null) {
+                    // End of a sealed segment: carry on in the next one
+                    Long next = segments.higherKey(position);
+                    if (next == null) {
+                        break;
+                    }
+                    position = next;
+                    continue;
+                }
+                entries.add(new Entry(position, data));
+                inFlight.add(position);
+                position += data.length + HEADER_BYTES;
+            }
+            readPosition = position;
+            return entries;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Marks a record returned by {@link #read(int)} as done.
+     */
+    public void release(long position) {
+        inFlight.remove(position);
+    }
+
+    /**
+     * Whether there are appended records that have not been read yet.
+     */
+    public boolean hasUnread() {
+        return readPosition < writePosition;
+    }
+
+    /**
+     * Bytes appended but not read yet.
+     */
+    public long unreadBytes() {
+        return writePosition - readPosition;
+    }
+
+    /**
+     * Position below which every record has been released; where a restarted
+     * consumer resumes.
+     */
+    public long committedPosition() {
+        // Read the cursor first: a record read after this is either in flight or beyond it
+        long position = readPosition;
+        Long oldest = inFlight.isEmpty() ? null : inFlight.first();
+        return oldest != null ? Math.min(oldest, position) : position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(maintenance);
+        try {
+            maintenance.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appendLock.lock();
+        try {
+            force(forcedPosition, writePosition);
+            checkpoint();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Forces new records every fsync interval (GROUP) and writes the
+     * checkpoint every checkpoint interval.
+     */
+    private void runMaintenance() {
+        long parkNanos = fsyncPolicy == FsyncPolicy.GROUP ? fsyncIntervalNanos : checkpointIntervalNanos;
+        long nextCheckpoint = System.nanoTime() + checkpointIntervalNanos;
+        while (running) {
+            LockSupport.parkNanos(this, parkNanos);
+            try {
+                if (fsyncPolicy == FsyncPolicy.GROUP) {
+                    flush();
+                }
+                if (System.nanoTime() - nextCheckpoint >= 0) {
+                    checkpoint();
+                    nextCheckpoint = System.nanoTime() + checkpointIntervalNanos;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Journal {} maintenance failed: {}", directory, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * One group commit: forces everything appended since the last one and
+     * wakes the appenders waiting for it.
+     */
+    private void flush() {
+        long target = writePosition;
+        if (target > forcedPosition) {
+            force(forcedPosition, target);
+        }
+        flushLock.lock();
+        try {
+            forcedPosition = Math.max(forcedPosition, target);
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void awaitForced(long position) throws IOException {
+        flushLock.lock();
+        try {
+            while (forcedPosition < position) {
+                if (!running) {
+                    throw new IOException("Journal " + directory + " is closed");
+                }
+                flushed.awaitNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for group commit", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the pages of every segment overlapping [from, to).
+     */
+    private void force(long from, long to) {
+        if (to <= from) {
+            return;
+        }
+        Long first = segments.floorKey(from);
+        for (Segment segment : segments.subMap(first != null ? first : from, true, to, false).values()) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Persists the committed position (write to a temporary file, force,
+     * rename) and deletes the segments that lie entirely below it.
+     */
+    private void checkpoint() throws IOException {
+        long committed = committedPosition();
+        if (committed != checkpointedPosition) {
+            Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(Long.toString(committed).getBytes(StandardCharsets.US_ASCII)));
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpointedPosition = committed;
+        }
+
+        // A segment is consumed once the next one starts at or below the checkpoint
+        for (Map.Entry<Long, Segment> entry : segments.headMap(committed, true).entrySet()) {
+            Long next = segments.higherKey(entry.getKey());
+            if (next == null || next > committed) {
+                break;
+            }
+            segments.remove(entry.getKey());
+            entry.getValue().delete();
+            log.debug("Deleted consumed journal segment {}", entry.getValue().path);
+        }
+    }
+
+    private void roll() throws IOException {
+        head.seal(writePosition);
+        head = openSegment(writePosition);
+    }
+
+    private Segment openSegment(long base) throws IOException {
+        Segment segment = new Segment(directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX)), base, segmentBytes);
+        segments.put(base, segment);
+        return segment;
+    }
+
+    /**
+     * Maps the existing segments, finds where the data ends and restores the
+     * consumer cursor from the checkpoint.
+     */
+    private void recover() throws IOException {
+        List<Long> bases;
+        try (Stream<Path> files = Files.list(directory)) {
+            bases = files.map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                .sorted()
+                .toList();
+        }
+
+        long position = 0;
+        for (Long base : bases) {
+            Segment segment = openSegment(base);
+            position = segment.scanEnd();
+            if (!base.equals(bases.get(bases.size() - 1))) {
+                segment.seal(position);
+            }
+            head = segment;
+        }
+        if (head == null) {
+            head = openSegment(0);
+        } else {
+            head.wipeFrom(position);
+        }
+        writePosition = position;
+        forcedPosition = position;
+
+        long firstPosition = segments.firstKey();
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        long checkpoint = Files.exists(checkpointFile)
+            ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim())
+            : firstPosition;
+        readPosition = Math.max(firstPosition, Math.min(checkpoint, writePosition));
+        checkpointedPosition = checkpoint;
+        if (writePosition > readPosition) {
+            log.info("Journal {} recovered {} unconsumed bytes", directory, writePosition - readPosition);
+        }
+    }
+
+    /**
+     * One memory-mapped segment file.
+     */
+    private static final class Segment {
+        final Path path;
+        final long base;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // Position right after the last record once sealed; readers stop there
+        volatile long sealedEnd = Long.MAX_VALUE;
+
+        Segment(Path path, long base, int size) throws IOException {
+            this.path = path;
+            this.base = base;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        }
+
+        long remaining(long position) {
+            return buffer.capacity() - (position - base);
+        }
+
+        void write(long position, byte[] data) {
+            int offset = (int) (position - base);
+            CRC32C crc = new CRC32C();
+            crc.update(data);
+            buffer.putInt(offset + 4, (int) crc.getValue());
+            buffer.put(offset + HEADER_BYTES, data);
+            buffer.putInt(offset, data.length);
+        }
+
+        /**
+         * The record at {@code position}, or null at the end of a sealed segment.
+         */
+        byte[] read(long position) {
+            if (position >= sealedEnd) {
+                return null;
+            }
+            int offset = (int) (position - base);
+            byte[] data = new byte[buffer.getInt(offset)];
+            buffer.get(offset + HEADER_BYTES, data);
+            return data;
+        }
+
+        /**
+         * Position after the last intact record.
+         */
+        long scanEnd() {
+            int offset = 0;
+            while (offset + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(offset);
+                if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+                    break;
+                }
+                byte[] data = new byte[length];
+                buffer.get(offset + HEADER_BYTES, data);
+                CRC32C crc = new CRC32C();
+                crc.update(data);
+                if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                    log.warn("Journal segment {}: bad checksum at offset {}, dropping the rest", path, offset);
+                    break;
+                }
+                offset += HEADER_BYTES + length;
+            }
+            return base + offset;
+        }
+
+        void wipeFrom(long position) {
+            byte[] zeros = new byte[64 * 1024];
+            for (int offset = (int) (position - base); offset < buffer.capacity(); offset += zeros.length) {
+                buffer.put(offset, zeros, 0, Math.min(zeros.length, buffer.capacity() - offset));
+            }
+            buffer.force();
+        }
+
+        void seal(long end) {
+            sealedEnd = end;
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+
+        void delete() throws IOException {
+            // The mapping itself is released once the buffer is garbage collected
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -2,7 +2,26 @@ package com.demo.scheduler.service.broker;
 
 import com.demo.scheduler.model.Task;
 
+import java.util.List;
+
 public interface TaskBroker {
     void submitTask(Task task);
+
+    /**
+     * Publishes many tasks in as few broker round trips as the transport allows.
+     * The default falls back to one {@link #submitTask(Task)} per task.
+     */
+    default void submitTasks(List<Task> tasks) {
+        tasks.forEach(this::submitTask);
+    }
+
+    /**
+     * Publishes a task that ran out of attempts to the broker's dead-letter
+     * queue. The FAILED row stays the record that redrive works from, so the
+     * default (no dead-letter queue) does nothing.
+     */
+    default void deadLetter(Task task, String errorMessage) {
+    }
+
     String getBrokerType();
 }
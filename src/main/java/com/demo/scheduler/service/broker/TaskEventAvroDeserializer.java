@@ -0,0 +1,107 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.avro.TaskMessage;
+import com.demo.scheduler.model.TaskEvent;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka value deserializer for records written by
+ * {@link TaskEventAvroSerializer}, and for the JSON TaskEvents written before
+ * it: a value that does not start with the Avro magic byte is read as JSON.
+ *
+ * The writer schema named in each record is looked up in the
+ * {@link LocalSchemaRegistry} and resolved against the current TaskMessage
+ * schema, so records written with an older or newer schema still read (new
+ * fields take their defaults). The deserializer registers its own schema
+ * too, so records from a producer of the same version read even when the
+ * consumer's schema directory is not the producer's. One resolving reader is
+ * kept per writer schema; decoders and the TaskMessage are reused per thread.
+ */
+public class TaskEventAvroDeserializer implements Deserializer<TaskEvent> {
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final ThreadLocal<BinaryDecoder> DECODERS = new ThreadLocal<>();
+    private static final ThreadLocal<TaskMessage> MESSAGES = ThreadLocal.withInitial(TaskMessage::new);
+
+    private final Map<Integer, SpecificDatumReader<TaskMessage>> readers = new ConcurrentHashMap<>();
+    private LocalSchemaRegistry registry;
+
+    /**
+     * For Kafka, which instantiates the class and then calls {@link #configure}.
+     */
+    public TaskEventAvroDeserializer() {
+    }
+
+    public TaskEventAvroDeserializer(LocalSchemaRegistry registry) {
+        use(registry);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object directory = configs.get(TaskEventAvroSerializer.SCHEMA_DIR_CONFIG);
+        use(new LocalSchemaRegistry(Path.of(directory != null
+            ? directory.toString()
+            : TaskEventAvroSerializer.DEFAULT_SCHEMA_DIR)));
+    }
+
+    @Override
+    public TaskEvent deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] != TaskEventAvroSerializer.MAGIC_BYTE) {
+            return fromJson(data);
+        }
+        if (data.length < TaskEventAvroSerializer.HEADER_BYTES) {
+            throw new SerializationException("Avro record of " + data.length + " bytes is shorter than its header");
+        }
+
+        int schemaId = ByteBuffer.wrap(data, 1, 4).getInt();
+        try {
+            SpecificDatumReader<TaskMessage> reader = readers.computeIfAbsent(schemaId,
+                id -> new SpecificDatumReader<>(registry.lookup(id), TaskMessage.getClassSchema()));
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, TaskEventAvroSerializer.HEADER_BYTES,
+                data.length - TaskEventAvroSerializer.HEADER_BYTES, DECODERS.get());
+            DECODERS.set(decoder);
+            TaskMessage message = reader.read(MESSAGES.get(), decoder);
+
+            TaskEvent event = new TaskEvent(
+                message.getTaskId(),
+                message.getPayload().toString(),
+                message.getCreatedAt().toString(),
+                message.getPriority()
+            );
+            event.setType(message.getType() != null ? message.getType().toString() : null);
+            return event;
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to deserialize Avro record with schema " + schemaId, e);
+        }
+    }
+
+    private void use(LocalSchemaRegistry registry) {
+        registry.register(TaskMessage.getClassSchema());
+        this.registry = registry;
+    }
+
+    private static TaskEvent fromJson(byte[] data) {
+        try {
+            return JSON.readValue(data, TaskEvent.class);
+        } catch (IOException e) {
+            throw new SerializationException("Record is neither Avro nor a JSON TaskEvent", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.demo.scheduler.service.handler;
+
+import com.demo.scheduler.model.Task;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Handler for the default task type. In a real system this would parse the
+ * payload and perform business logic; here it simulates 1-5ms of blocking work.
+ */
+@Component
+public class SimulatedTaskHandler implements TaskHandler {
+
+    @Override
+    public String type() {
+        return Task.DEFAULT_TYPE;
+    }
+
+    @Override
+    public void handle(Long taskId, String payload) throws InterruptedException {
+        Thread.sleep(ThreadLocalRandom.current().nextLong(1, 6));
+    }
+}
@@ -0,0 +1,42 @@
+package com.demo.scheduler.service.handler;
+
+/**
+ * Executes tasks of one type. Implementations are Spring beans; the
+ * {@link TaskHandlerRegistry} picks them all up at startup.
+ *
+ * A handler throws to fail the attempt; the task is then retried with
+ * backoff or dead-lettered like any other failure.
+ */
+public interface TaskHandler {
+
+    /**
+     * Task type this handler executes (Task.type). Must be unique.
+     */
+    String type();
+
+    /**
+     * Executes one task. Runs on the executor chosen by {@link #mode()}.
+     */
+    void handle(Long taskId, String payload) throws Exception;
+
+    /**
+     * Where the handler runs: CPU_BOUND handlers share a ForkJoin pool sized
+     * to the cores, BLOCKING handlers (I/O, remote calls) get virtual threads.
+     */
+    default Mode mode() {
+        return Mode.BLOCKING;
+    }
+
+    /**
+     * Maximum tasks of this type running at once. Can be overridden per type
+     * with scheduler.handlers.{type}.max-concurrency.
+     */
+    default int maxConcurrency() {
+        return 100;
+    }
+
+    enum Mode {
+        CPU_BOUND,
+        BLOCKING
+    }
+}
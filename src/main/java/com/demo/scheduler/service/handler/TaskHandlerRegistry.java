@@ -0,0 +1,166 @@
+package com.demo.scheduler.service.handler;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes tasks to their {@link TaskHandler} by type.
+ *
+ * All handlers are resolved once, at startup, into an immutable map; a task
+ * costs one hash lookup. Each type gets its own lane with its own
+ * concurrency limit, on the executor matching its mode. A lane that is at
+ * its limit queues the task instead of blocking a thread, so a slow type
+ * only ever holds its own slots and never starves the others.
+ */
+@Service
+public class TaskHandlerRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskHandlerRegistry.class);
+
+    private final ForkJoinPool cpuPool;
+    private final ExecutorService blockingExecutor;
+    private final Map<String, Lane> lanes;
+
+    public TaskHandlerRegistry(List<TaskHandler> handlers,
+                               Environment environment,
+                               @Value("${scheduler.handlers.cpu-parallelism:0}") int cpuParallelism) {
+        this.cpuPool = new ForkJoinPool(cpuParallelism > 0 ? cpuParallelism : Runtime.getRuntime().availableProcessors());
+        this.blockingExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-handler-v-", 0).factory());
+
+        Map<String, Lane> byType = new HashMap<>();
+        for (TaskHandler handler : handlers) {
+            int maxConcurrency = environment.getProperty(
+                "scheduler.handlers." + handler.type() + ".max-concurrency", Integer.class, handler.maxConcurrency());
+            if (maxConcurrency < 1) {
+                throw new IllegalStateException("max-concurrency must be positive for task type " + handler.type());
+            }
+            Executor executor = handler.mode() == TaskHandler.Mode.CPU_BOUND ? cpuPool : blockingExecutor;
+            Lane previous = byType.put(handler.type(), new Lane(handler, executor, maxConcurrency));
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate task handlers for type " + handler.type() + ": " +
+                    previous.handler.getClass().getName() + ", " + handler.getClass().getName());
+            }
+            log.info("Registered task handler for type '{}': {} ({}, max concurrency {})",
+                handler.type(), handler.getClass().getSimpleName(), handler.mode(), maxConcurrency);
+        }
+        this.lanes = Map.copyOf(byType);
+    }
+
+    /**
+     * Runs a task on its type's handler.
+     *
+     * @return completes when the handler returns, exceptionally if it threw
+     *         or no handler is registered for the type
+     */
+    public CompletableFuture<Void> execute(String type, Long taskId, String payload) {
+        Lane lane = lanes.get(type);
+        if (lane == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("No handler for task type: " + type));
+        }
+        return lane.submit(taskId, payload);
+    }
+
+    public boolean hasHandler(String type) {
+        return lanes.containsKey(type);
+    }
+
+    /**
+     * Tasks waiting for a free slot in their type's lane, by type.
+     */
+    public Map<String, Integer> getBacklog() {
+        Map<String, Integer> backlog = new HashMap<>();
+        lanes.forEach((type, lane) -> backlog.put(type, lane.backlogSize.get()));
+        return backlog;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        blockingExecutor.shutdown();
+        cpuPool.shutdown();
+        blockingExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        cpuPool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * One task type: at most maxConcurrency jobs on the executor, the rest
+     * wait in a lock-free backlog drained as jobs finish.
+     */
+    private static final class Lane {
+        final TaskHandler handler;
+        final Executor executor;
+        final int maxConcurrency;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger backlogSize = new AtomicInteger();
+        final ConcurrentLinkedQueue<Job> backlog = new ConcurrentLinkedQueue<>();
+
+        Lane(TaskHandler handler, Executor executor, int maxConcurrency) {
+            this.handler = handler;
+            this.executor = executor;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        CompletableFuture<Void> submit(Long taskId, String payload) {
+            Job job = new Job(taskId, payload, new CompletableFuture<>());
+            backlog.offer(job);
+            backlogSize.incrementAndGet();
+            drain();
+            return job.done;
+        }
+
+        private void drain() {
+            while (!backlog.isEmpty()) {
+                int current = running.get();
+                if (current >= maxConcurrency) {
+                    return; // The next finishing job drains again
+                }
+                if (!running.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Job job = backlog.poll();
+                if (job == null) {
+                    running.decrementAndGet();
+                    continue; // Taken by a concurrent drain
+                }
+                backlogSize.decrementAndGet();
+                try {
+                    executor.execute(() -> run(job));
+                } catch (RejectedExecutionException e) {
+                    running.decrementAndGet();
+                    job.done.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void run(Job job) {
+            try {
+                handler.handle(job.taskId, job.payload);
+                job.done.complete(null);
+            } catch (Throwable e) {
+                job.done.completeExceptionally(e);
+            } finally {
+                running.decrementAndGet();
+                drain();
+            }
+        }
+    }
+
+    private record Job(Long taskId, String payload, CompletableFuture<Void> done) {
+    }
+}
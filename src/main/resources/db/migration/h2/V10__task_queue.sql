@@ -0,0 +1,11 @@
+-- Queue of the postgres broker: one row per published task. A poll leases
+-- rows by pushing visible_at into the future; an acknowledgment deletes them,
+-- and a lease that runs out makes the row visible to other workers again.
+CREATE TABLE task_queue (
+    task_id    BIGINT       PRIMARY KEY,
+    priority   VARCHAR(10)  NOT NULL,
+    visible_at TIMESTAMP(6) NOT NULL,
+    leased_by  VARCHAR(100)
+);
+
+CREATE INDEX idx_task_queue_pickup ON task_queue (priority, visible_at);
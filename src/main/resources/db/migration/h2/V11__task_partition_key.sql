@@ -0,0 +1,3 @@
+-- Ordering key of a task on partitioned brokers (Kafka): tasks with the same
+-- key share a partition. Nullable; unkeyed tasks are spread by the broker.
+ALTER TABLE tasks ADD COLUMN partition_key VARCHAR(128);
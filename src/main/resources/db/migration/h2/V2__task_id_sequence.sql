@@ -0,0 +1,8 @@
+-- Move tasks.id from IDENTITY to a pooled sequence (Hibernate pooled-lo, allocationSize = 50).
+-- INCREMENT BY must equal the allocationSize declared on Task.id.
+ALTER TABLE tasks ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE task_seq INCREMENT BY 50;
+
+-- Continue after existing rows so no allocated block overlaps an old ID
+ALTER SEQUENCE task_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM tasks);
@@ -0,0 +1,2 @@
+-- Scheduling priority (Task.Priority). Existing rows are NORMAL.
+ALTER TABLE tasks ADD COLUMN priority VARCHAR(10) DEFAULT 'NORMAL' NOT NULL;
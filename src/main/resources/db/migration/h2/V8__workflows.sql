@@ -0,0 +1,22 @@
+-- Workflows: DAGs of tasks. A task with parents starts BLOCKED with
+-- pending_parents = its parent count and is released when that reaches 0.
+CREATE TABLE workflows (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(200),
+    node_count INTEGER      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+ALTER TABLE tasks ADD COLUMN workflow_id BIGINT;
+ALTER TABLE tasks ADD COLUMN pending_parents INTEGER NOT NULL DEFAULT 0;
+CREATE INDEX idx_task_workflow ON tasks (workflow_id);
+
+-- Edges; the primary key serves the per-completion lookup by parent
+CREATE TABLE task_dependencies (
+    parent_id   BIGINT NOT NULL,
+    child_id    BIGINT NOT NULL,
+    workflow_id BIGINT NOT NULL,
+    PRIMARY KEY (parent_id, child_id)
+);
+
+CREATE INDEX idx_dependency_workflow ON task_dependencies (workflow_id);
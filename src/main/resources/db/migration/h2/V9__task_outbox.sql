@@ -0,0 +1,7 @@
+-- Transactional outbox: one row per task to publish, inserted in the same
+-- transaction as the task and deleted by the relay once the broker has it.
+CREATE TABLE task_outbox (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    task_id    BIGINT       NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
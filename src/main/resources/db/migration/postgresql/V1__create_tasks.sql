@@ -0,0 +1,12 @@
+CREATE TABLE tasks (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    payload       VARCHAR(4096) NOT NULL,
+    status        VARCHAR(20)   NOT NULL,
+    created_at    TIMESTAMP(6)  NOT NULL,
+    processed_at  TIMESTAMP(6),
+    completed_at  TIMESTAMP(6),
+    error_message VARCHAR(1024)
+);
+
+CREATE INDEX idx_task_status ON tasks (status);
+CREATE INDEX idx_task_created ON tasks (created_at);
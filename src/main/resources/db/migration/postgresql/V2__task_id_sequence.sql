@@ -0,0 +1,8 @@
+-- Move tasks.id from IDENTITY to a pooled sequence (Hibernate pooled-lo, allocationSize = 50).
+-- INCREMENT BY must equal the allocationSize declared on Task.id.
+CREATE SEQUENCE task_seq INCREMENT BY 50;
+
+-- Continue after existing rows so no allocated block overlaps an old ID
+SELECT setval('task_seq', COALESCE((SELECT MAX(id) FROM tasks), 0) + 1, false);
+
+ALTER TABLE tasks ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,5 @@
+-- Delayed execution: SCHEDULED tasks wait for run_at in the in-memory timing wheel.
+-- The index serves startup recovery and the overdue sweep, never a full scan.
+ALTER TABLE tasks ADD COLUMN run_at TIMESTAMP(6);
+
+CREATE INDEX idx_task_scheduled ON tasks (status, run_at);
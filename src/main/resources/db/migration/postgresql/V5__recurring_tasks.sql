@@ -0,0 +1,18 @@
+-- Recurring (cron-style) task definitions. next_fire_at doubles as the fire claim:
+-- a node fires a definition only by moving it forward from the value it expected.
+CREATE TABLE recurring_tasks (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(200)  NOT NULL,
+    cron_expression VARCHAR(120)  NOT NULL,
+    time_zone       VARCHAR(64)   NOT NULL,
+    payload         VARCHAR(4096) NOT NULL,
+    priority        VARCHAR(10)   NOT NULL,
+    enabled         BOOLEAN       NOT NULL,
+    next_fire_at    TIMESTAMP(6),
+    last_fired_at   TIMESTAMP(6),
+    created_at      TIMESTAMP(6)  NOT NULL,
+    updated_at      TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT uk_recurring_name UNIQUE (name)
+);
+
+CREATE INDEX idx_recurring_updated ON recurring_tasks (updated_at);
@@ -0,0 +1,4 @@
+-- Retries: every claim counts as an attempt; a failure before max_attempts is
+-- re-scheduled with backoff, the last one is final (FAILED + dead-letter queue).
+ALTER TABLE tasks ADD COLUMN attempt_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN max_attempts INTEGER NOT NULL DEFAULT 3;
@@ -0,0 +1,2 @@
+-- Task types: each type is executed by its own TaskHandler.
+ALTER TABLE tasks ADD COLUMN task_type VARCHAR(64) NOT NULL DEFAULT 'default';
@@ -0,0 +1,92 @@
+package com.demo.scheduler.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the producer config each {@link KafkaProducerProfile}
+ * resolves to once KafkaProducerConfig's customizer has been applied.
+ */
+class KafkaProducerProfileTest {
+
+    private final KafkaProducerConfig config = new KafkaProducerConfig();
+
+    @Test
+    @DisplayName("latency sends each record at once, uncompressed, with leader ack only")
+    void latency() {
+        Map<String, Object> resolved = resolve("latency", Map.of());
+
+        assertEquals("1", resolved.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(0, resolved.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(16_384, resolved.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("none", resolved.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(false, resolved.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+    }
+
+    @Test
+    @DisplayName("throughput lingers to fill large lz4 batches, with leader ack only")
+    void throughput() {
+        Map<String, Object> resolved = resolve("throughput", Map.of());
+
+        assertEquals("1", resolved.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(20, resolved.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(262_144, resolved.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("lz4", resolved.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(false, resolved.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals(67_108_864L, resolved.get(ProducerConfig.BUFFER_MEMORY_CONFIG));
+    }
+
+    @Test
+    @DisplayName("durable is idempotent with acks=all and zstd batches")
+    void durable() {
+        Map<String, Object> resolved = resolve("durable", Map.of());
+
+        assertEquals("all", resolved.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(5, resolved.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(131_072, resolved.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("zstd", resolved.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(true, resolved.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        // Idempotence keeps ordering only up to 5 in-flight requests
+        assertEquals(5, resolved.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+    }
+
+    @Test
+    @DisplayName("Profile names are matched case-insensitively, ignoring surrounding spaces")
+    void of_caseInsensitive() {
+        assertEquals(KafkaProducerProfile.DURABLE, KafkaProducerProfile.of(" Durable "));
+    }
+
+    @Test
+    @DisplayName("Explicit spring.kafka.producer settings win over the profile")
+    void explicitSettings_winOverProfile() {
+        Map<String, Object> resolved = resolve("durable", Map.of(
+            ProducerConfig.LINGER_MS_CONFIG, 50,
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "gzip"));
+
+        assertEquals(50, resolved.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals("gzip", resolved.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals("all", resolved.get(ProducerConfig.ACKS_CONFIG));
+    }
+
+    @Test
+    @DisplayName("An unknown profile fails at startup instead of falling back to the client defaults")
+    void unknownProfile_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> KafkaProducerProfile.of("bogus"));
+        assertThrows(IllegalArgumentException.class, () -> config.producerProfileCustomizer("bogus"));
+    }
+
+    private Map<String, Object> resolve(String profileName, Map<String, Object> explicit) {
+        Map<String, Object> configs = new HashMap<>(explicit);
+        configs.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        DefaultKafkaProducerFactory<String, String> factory = new DefaultKafkaProducerFactory<>(configs);
+        config.producerProfileCustomizer(profileName).customize(factory);
+        return factory.getConfigurationProperties();
+    }
+}
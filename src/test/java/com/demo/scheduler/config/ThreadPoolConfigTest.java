@@ -0,0 +1,69 @@
+package com.demo.scheduler.config;
+
+import com.demo.scheduler.service.TaskStatusWriteBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the platform task executor's rejection handling.
+ */
+class ThreadPoolConfigTest {
+
+    @Test
+    @DisplayName("A full queue runs the task on the submitting thread")
+    void fullQueue_callerRuns() throws Exception {
+        ThreadPoolConfig config = platformConfig(mock(TaskStatusWriteBuffer.class));
+        ExecutorService executor = config.taskExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> awaitQuietly(release)); // occupies the only thread
+            executor.execute(() -> { });                   // fills the queue
+
+            AtomicReference<Thread> ranOn = new AtomicReference<>();
+            executor.execute(() -> ranOn.set(Thread.currentThread()));
+            assertSame(Thread.currentThread(), ranOn.get());
+        } finally {
+            release.countDown();
+            config.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("After shutdown a submission is rejected with an exception, not dropped")
+    void afterShutdown_throws() {
+        TaskStatusWriteBuffer statusBuffer = mock(TaskStatusWriteBuffer.class);
+        ThreadPoolConfig config = platformConfig(statusBuffer);
+        ExecutorService executor = config.taskExecutor();
+
+        config.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> fail("ran after shutdown")));
+        verify(statusBuffer).flush();
+    }
+
+    private static ThreadPoolConfig platformConfig(TaskStatusWriteBuffer statusBuffer) {
+        ThreadPoolConfig config = new ThreadPoolConfig(statusBuffer);
+        ReflectionTestUtils.setField(config, "executorMode", "platform");
+        ReflectionTestUtils.setField(config, "poolSize", 1);
+        ReflectionTestUtils.setField(config, "queueCapacity", 1);
+        return config;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
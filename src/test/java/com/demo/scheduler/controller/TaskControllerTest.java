@@ -0,0 +1,97 @@
+package com.demo.scheduler.controller;
+
+import com.demo.scheduler.config.BrokerConfigManager;
+import com.demo.scheduler.controller.TaskController.BatchTaskResponse;
+import com.demo.scheduler.controller.TaskController.RedriveRequest;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.service.TaskProducer;
+import com.demo.scheduler.service.TaskWorker;
+import com.demo.scheduler.service.handler.TaskHandlerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the dead-letter redrive endpoint of TaskController.
+ */
+class TaskControllerTest {
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    @Mock
+    private TaskProducer taskProducer;
+
+    @Mock
+    private TaskWorker taskWorker;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private BrokerConfigManager brokerConfigManager;
+
+    @Mock
+    private TaskHandlerRegistry handlerRegistry;
+
+    private TaskController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        controller = new TaskController(taskProducer, taskWorker, taskRepository, brokerConfigManager, handlerRegistry);
+        ReflectionTestUtils.setField(controller, "maxBatchSize", MAX_BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("Explicit IDs are redriven and only the ones actually re-queued are returned")
+    void redrive_explicitIds_returnsRequeued() {
+        RedriveRequest request = new RedriveRequest();
+        request.ids = List.of(1L, 2L, 3L);
+        when(taskProducer.redriveFailed(request.ids, MAX_BATCH_SIZE)).thenReturn(List.of(1L, 3L));
+
+        ResponseEntity<BatchTaskResponse> response = controller.redriveDeadLetters(request, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(1L, 3L), response.getBody().ids);
+        assertEquals("PENDING", response.getBody().status);
+    }
+
+    @Test
+    @DisplayName("Without IDs the oldest FAILED tasks are redriven, with the limit clamped to the batch size")
+    void redrive_noIds_limitClamped() {
+        when(taskProducer.redriveFailed(isNull(), anyInt())).thenReturn(List.of());
+
+        controller.redriveDeadLetters(null, null);
+        controller.redriveDeadLetters(null, 0);
+        controller.redriveDeadLetters(null, 10_000);
+        controller.redriveDeadLetters(null, 25);
+
+        verify(taskProducer, times(2)).redriveFailed(null, MAX_BATCH_SIZE);
+        verify(taskProducer).redriveFailed(null, 1);
+        verify(taskProducer).redriveFailed(null, 25);
+    }
+
+    @Test
+    @DisplayName("More IDs than the batch size are rejected without touching any task")
+    void redrive_tooManyIds_rejected() {
+        RedriveRequest request = new RedriveRequest();
+        request.ids = LongStream.rangeClosed(1, MAX_BATCH_SIZE + 1).boxed().toList();
+
+        ResponseEntity<BatchTaskResponse> response = controller.redriveDeadLetters(request, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(taskProducer);
+    }
+}
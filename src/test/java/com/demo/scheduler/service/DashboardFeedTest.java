@@ -0,0 +1,123 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.SchedulerApplication;
+import com.demo.scheduler.model.Task.TaskStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for DashboardFeed over GET /api/dashboard/stream, with
+ * a short feed interval so events arrive quickly.
+ */
+@SpringBootTest(classes = SchedulerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"scheduler.broker.kafka-enabled=false", "scheduler.broker.type=inmemory",
+        "scheduler.dashboard.interval-ms=200",
+        "spring.datasource.url=jdbc:h2:mem:dashboard-feed-test;DB_CLOSE_DELAY=-1"})
+class DashboardFeedTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DashboardFeed dashboardFeed;
+
+    @Autowired
+    private TaskStatusCounters statusCounters;
+
+    @Test
+    @DisplayName("A new subscriber first gets a snapshot with every section")
+    void subscribe_firstEventHasEverySection() throws Exception {
+        HttpResponse<InputStream> response = open();
+        assertEquals(200, response.statusCode());
+        try (BufferedReader events = reader(response)) {
+            String data = nextEvent(events);
+            assertTrue(data.contains("\"config\""), data);
+            assertTrue(data.contains("\"stats\""), data);
+            assertTrue(data.contains("\"recent\""), data);
+            assertTrue(data.contains("\"messages\""), data);
+            assertTrue(dashboardFeed.getSubscriberCount() >= 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Later events carry only the sections that changed")
+    void laterEvents_onlyChangedSections() throws Exception {
+        HttpResponse<InputStream> response = open();
+        assertEquals(200, response.statusCode());
+        try (BufferedReader events = reader(response)) {
+            nextEvent(events);
+
+            statusCounters.created(TaskStatus.PENDING, 1);
+
+            String data = nextEvent(events);
+            assertTrue(data.contains("\"stats\""), data);
+            assertFalse(data.contains("\"config\""), data);
+        }
+    }
+
+    @Test
+    @DisplayName("Past max-subscribers a new client is refused with 503")
+    void subscribe_pastLimit_refused() throws Exception {
+        Object maxSubscribers = ReflectionTestUtils.getField(dashboardFeed, "maxSubscribers");
+        ReflectionTestUtils.setField(dashboardFeed, "maxSubscribers", dashboardFeed.getSubscriberCount());
+        try {
+            HttpResponse<InputStream> response = open();
+            response.body().close();
+            assertEquals(503, response.statusCode());
+        } finally {
+            ReflectionTestUtils.setField(dashboardFeed, "maxSubscribers", maxSubscribers);
+        }
+    }
+
+    private HttpResponse<InputStream> open() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/dashboard/stream"))
+            .timeout(Duration.ofSeconds(10))
+            .GET()
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private static BufferedReader reader(HttpResponse<InputStream> response) {
+        return new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Data of the next event, skipping event names and keep-alive comments.
+     */
+    private static String nextEvent(BufferedReader events) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String line;
+                while ((line = events.readLine()) != null) {
+                    if (line.startsWith("data:")) {
+                        return line.substring("data:".length());
+                    }
+                }
+                throw new IllegalStateException("Stream ended before an event");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(10, TimeUnit.SECONDS);
+    }
+}
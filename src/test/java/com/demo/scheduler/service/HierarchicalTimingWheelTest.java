@@ -0,0 +1,101 @@
+package com.demo.scheduler.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HierarchicalTimingWheel.
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    // 10ms ticks, 8 slots per level: level 0 = 80ms, level 1 = 640ms, level 2 = 5.12s
+    private HierarchicalTimingWheel<String> wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new HierarchicalTimingWheel<>(10, 8, 3, START);
+    }
+
+    @Test
+    @DisplayName("Entries expire at their tick, not before")
+    void entries_expireAtDeadline() {
+        wheel.schedule("a", START + 35);
+
+        assertTrue(wheel.advanceTo(START + 39).isEmpty());
+        assertEquals(List.of("a"), wheel.advanceTo(START + 40));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Entries on higher levels cascade down and expire on time")
+    void higherLevels_cascade() {
+        wheel.schedule("level1", START + 500);
+        wheel.schedule("level2", START + 3_000);
+
+        assertTrue(wheel.advanceTo(START + 490).isEmpty());
+        assertEquals(List.of("level1"), wheel.advanceTo(START + 500));
+        assertTrue(wheel.advanceTo(START + 2_990).isEmpty());
+        assertEquals(List.of("level2"), wheel.advanceTo(START + 3_000));
+    }
+
+    @Test
+    @DisplayName("Deadlines beyond the top level are parked and still expire on time")
+    void beyondTopLevel_parked() {
+        wheel.schedule("far", START + 20_000);
+
+        assertTrue(wheel.advanceTo(START + 19_990).isEmpty());
+        assertEquals(List.of("far"), wheel.advanceTo(START + 20_000));
+    }
+
+    @Test
+    @DisplayName("Past deadlines expire on the next tick")
+    void pastDeadline_expiresOnNextTick() {
+        wheel.advanceTo(START + 100);
+        wheel.schedule("late", START);
+
+        assertEquals(List.of("late"), wheel.advanceTo(START + 110));
+    }
+
+    @Test
+    @DisplayName("Cancelled entries never expire")
+    void cancel_removesEntry() {
+        HierarchicalTimingWheel<String>.Timeout keep = wheel.schedule("keep", START + 500);
+        HierarchicalTimingWheel<String>.Timeout drop = wheel.schedule("drop", START + 500);
+
+        assertTrue(drop.cancel());
+        assertFalse(drop.cancel());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("keep"), wheel.advanceTo(START + 1_000));
+        assertFalse(keep.cancel());
+    }
+
+    @Test
+    @DisplayName("Random deadlines all expire in tick order")
+    void randomDeadlines_expireInOrder() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = START + random.nextInt(30_000);
+            wheel.schedule(Long.toString(deadline), deadline);
+        }
+
+        List<String> expired = new ArrayList<>();
+        for (long now = START; now <= START + 30_010; now += 7) {
+            for (String deadline : wheel.advanceTo(now)) {
+                assertTrue(Long.parseLong(deadline) <= now, "expired early: " + deadline + " at " + now);
+                assertTrue(Long.parseLong(deadline) + 10 > now - 7, "expired late: " + deadline + " at " + now);
+                expired.add(deadline);
+            }
+        }
+        assertEquals(5_000, expired.size());
+        assertEquals(0, wheel.size());
+    }
+}
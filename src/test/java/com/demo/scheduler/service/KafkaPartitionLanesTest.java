@@ -0,0 +1,73 @@
+package com.demo.scheduler.service;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for KafkaPartitionLanes.
+ */
+class KafkaPartitionLanesTest {
+
+    private static final TopicPartition P0 = new TopicPartition("task-events", 0);
+    private static final TopicPartition P1 = new TopicPartition("task-events", 1);
+
+    private final KafkaPartitionLanes lanes = new KafkaPartitionLanes(1000);
+
+    @Test
+    @DisplayName("A task waits for the unfinished task before it on the same partition only")
+    void append_chainsWithinPartition() {
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        assertNull(previousSeenBy(P0, first));
+
+        assertSame(first, previousSeenBy(P0, new CompletableFuture<>()));
+        assertNull(previousSeenBy(P1, new CompletableFuture<>()));
+    }
+
+    @Test
+    @DisplayName("An idle lane starts the next task at once")
+    void append_idleLaneHasNoPredecessor() {
+        assertNull(previousSeenBy(P0, CompletableFuture.completedFuture(null)));
+        assertNull(previousSeenBy(P0, new CompletableFuture<>()));
+    }
+
+    @Test
+    @DisplayName("Revoking a partition waits for its lane and drops it")
+    void revoke_drainsAndDropsLane() {
+        CompletableFuture<Void> running = new CompletableFuture<>();
+        previousSeenBy(P0, running);
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)
+            .execute(() -> running.complete(null));
+
+        lanes.onPartitionsRevoked(List.of(P0));
+
+        assertTrue(running.isDone());
+        assertNull(previousSeenBy(P0, new CompletableFuture<>()));
+    }
+
+    @Test
+    @DisplayName("A lost partition's lane is dropped without waiting")
+    void lost_dropsLane() {
+        previousSeenBy(P0, new CompletableFuture<>());
+
+        lanes.onPartitionsLost(List.of(P0));
+
+        assertNull(previousSeenBy(P0, new CompletableFuture<>()));
+    }
+
+    private CompletableFuture<Void> previousSeenBy(TopicPartition partition, CompletableFuture<Void> task) {
+        AtomicReference<CompletableFuture<Void>> previous = new AtomicReference<>();
+        lanes.append(partition, tail -> {
+            previous.set(tail);
+            return task;
+        });
+        return previous.get();
+    }
+}
@@ -0,0 +1,264 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.SchedulerApplication;
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskOutboxRepository;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.service.broker.TaskBroker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for OutboxRelay and the paths that publish through it,
+ * on H2 with a stand-in broker. The relay thread is stopped; each test
+ * drives {@code relayBatch()} itself.
+ */
+@SpringBootTest(classes = {SchedulerApplication.class, OutboxRelayTest.RecordingBrokerConfig.class},
+    properties = {"scheduler.broker.kafka-enabled=false", "scheduler.broker.type=redis",
+        "spring.datasource.url=jdbc:h2:mem:outbox-test;DB_CLOSE_DELAY=-1"})
+class OutboxRelayTest {
+
+    // Task ID -> times published
+    private static final Map<Long, Integer> published = new ConcurrentHashMap<>();
+    private static final AtomicBoolean brokerDown = new AtomicBoolean();
+
+    @TestConfiguration
+    static class RecordingBrokerConfig {
+        @Bean
+        TaskBroker recordingBroker() {
+            return new TaskBroker() {
+                @Override
+                public void submitTask(Task task) {
+                    submitTasks(List.of(task));
+                }
+
+                @Override
+                public void submitTasks(List<Task> tasks) {
+                    if (brokerDown.get()) {
+                        throw new IllegalStateException("broker down");
+                    }
+                    tasks.forEach(task -> published.merge(task.getId(), 1, Integer::sum));
+                }
+
+                @Override
+                public String getBrokerType() {
+                    return "redis";
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private TaskOutboxRepository outboxRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private DelayedTaskScheduler delayedTaskScheduler;
+
+    @Autowired
+    private WorkflowService workflowService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        relay.stop();
+        brokerDown.set(false);
+        drain();
+        published.clear();
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("A rolled-back submission leaves nothing to publish")
+    void publish_rolledBack_leavesNothing() {
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            relay.publish(insert(100, TaskStatus.PENDING));
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0, drain());
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Committed tasks are published once and their entries deleted")
+    void publish_committed_relayedOnce() {
+        List<Task> tasks = tx.execute(status -> {
+            List<Task> inserted = insert(1200, TaskStatus.PENDING);
+            relay.publish(inserted);
+            return inserted;
+        });
+
+        assertEquals(1200, drain());
+        assertEquals(0, outboxRepository.count());
+        assertEquals(1200, published.size());
+        assertTrue(tasks.stream().allMatch(task -> published.get(task.getId()) == 1));
+    }
+
+    @Test
+    @DisplayName("Entries stay while the broker is down and go out once it is back")
+    void relay_brokerDown_keepsEntries() {
+        tx.executeWithoutResult(status -> relay.publish(insert(50, TaskStatus.PENDING)));
+
+        brokerDown.set(true);
+        assertThrows(IllegalStateException.class, () -> relay.relayBatch());
+        assertEquals(50, outboxRepository.count());
+
+        brokerDown.set(false);
+        assertEquals(50, drain());
+        assertEquals(50, published.size());
+    }
+
+    @Test
+    @DisplayName("A due delayed task becomes PENDING only together with its outbox entry")
+    void delayedRelease_goesThroughOutbox() {
+        brokerDown.set(true);
+        Task task = new Task("delayed");
+        task.setStatus(TaskStatus.SCHEDULED);
+        task.setRunAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(50)));
+        taskRepository.insertAll(List.of(task));
+        delayedTaskScheduler.schedule(task);
+
+        awaitTrue(() -> taskRepository.findById(task.getId()).orElseThrow().getStatus() == TaskStatus.PENDING);
+        assertEquals(1, outboxRepository.count());
+
+        brokerDown.set(false);
+        assertEquals(1, drain());
+        assertEquals(1, published.get(task.getId()));
+    }
+
+    @Test
+    @DisplayName("Released workflow children become PENDING together with their outbox entries")
+    void workflowRelease_goesThroughOutbox() {
+        brokerDown.set(true);
+        List<Long> ids = insert(3, TaskStatus.BLOCKED).stream().map(Task::getId).toList();
+
+        workflowService.release(ids);
+
+        assertTrue(ids.stream().allMatch(id ->
+            taskRepository.findById(id).orElseThrow().getStatus() == TaskStatus.PENDING));
+        assertEquals(3, outboxRepository.count());
+
+        brokerDown.set(false);
+        assertEquals(3, drain());
+        assertEquals(3, published.size());
+    }
+
+    @Test
+    @DisplayName("A batch locked by one relay is skipped by another")
+    void lockOldest_skipsLockedEntries() throws Exception {
+        tx.executeWithoutResult(status ->
+            taskRepository.insertOutbox(insert(20, TaskStatus.PENDING).stream().map(Task::getId).toList()));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> tx.executeWithoutResult(status -> {
+            assertEquals(5, outboxRepository.lockOldest(5).size());
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        try {
+            assertEquals(15, tx.execute(status -> outboxRepository.lockOldest(100)).size());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    @DisplayName("Relays running in parallel publish every entry exactly once")
+    void relayBatch_parallel_noDuplicates() throws Exception {
+        tx.executeWithoutResult(status ->
+            taskRepository.insertOutbox(insert(5000, TaskStatus.PENDING).stream().map(Task::getId).toList()));
+
+        ExecutorService relays = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                runs.add(relays.submit(this::drain));
+            }
+            for (Future<?> run : runs) {
+                run.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            relays.shutdownNow();
+        }
+
+        assertEquals(0, outboxRepository.count());
+        assertEquals(5000, published.size());
+        assertTrue(published.values().stream().allMatch(count -> count == 1));
+    }
+
+    private List<Task> insert(int count, TaskStatus status) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = new Task("payload-" + i);
+            task.setStatus(status);
+            tasks.add(task);
+        }
+        taskRepository.insertAll(tasks);
+        return tasks;
+    }
+
+    private int drain() {
+        int total = 0;
+        int relayed;
+        while ((relayed = relay.relayBatch()) > 0) {
+            total += relayed;
+        }
+        return total;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.RecurringTaskDefinition;
+import com.demo.scheduler.repository.RecurringTaskDefinitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RecurringTaskEngine, against an in-memory stand-in for the
+ * recurring_tasks table whose claimFire has the same compare-and-set
+ * semantics as the UPDATE.
+ */
+class RecurringTaskEngineTest {
+
+    private static final long TICK_MS = 200;
+    private static final long MAX_BACKOFF_MS = 60_000;
+    private static final String EVERY_MINUTE = "0 * * * * *";
+
+    @Mock
+    private RecurringTaskDefinitionRepository repository;
+
+    @Mock
+    private TaskProducer taskProducer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, RecurringTaskDefinition> rows = new ConcurrentHashMap<>();
+    // Parties that must reach claimFire before any claim is decided
+    private volatile CountDownLatch claimGate = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<Long>getArgument(0))));
+        when(repository.findEnabledAfter(anyLong(), any(Pageable.class))).thenAnswer(inv -> {
+            long afterId = inv.getArgument(0);
+            return rows.values().stream()
+                .filter(row -> row.getId() > afterId && row.isEnabled() && row.getNextFireAt() != null)
+                .map(row -> new Object[] {row.getId(), row.getNextFireAt()})
+                .toList();
+        });
+        when(repository.claimFire(anyLong(), any(), any(), any())).thenAnswer(inv -> {
+            claimGate.countDown();
+            assertTrue(claimGate.await(5, TimeUnit.SECONDS));
+            synchronized (rows) {
+                RecurringTaskDefinition row = rows.get(inv.<Long>getArgument(0));
+                if (row == null || !row.isEnabled() || !inv.getArgument(1).equals(row.getNextFireAt())) {
+                    return 0;
+                }
+                row.setNextFireAt(inv.getArgument(2));
+                row.setLastFiredAt(inv.getArgument(3));
+                return 1;
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Two engines racing the same fire time insert exactly one task")
+    void fireDue_twoEngines_exactlyOnce() throws Exception {
+        RecurringTaskDefinition row = define(1L, EVERY_MINUTE, LocalDateTime.now().minusSeconds(1));
+        RecurringTaskEngine first = newEngine();
+        RecurringTaskEngine second = newEngine();
+        claimGate = new CountDownLatch(2);
+
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> a = nodes.submit(first::fireDue);
+            Future<?> b = nodes.submit(second::fireDue);
+            a.get(10, TimeUnit.SECONDS);
+            b.get(10, TimeUnit.SECONDS);
+        } finally {
+            nodes.shutdownNow();
+        }
+
+        verify(taskProducer, times(1)).submitTask(eq("payload-1"), any());
+        verify(repository, times(2)).claimFire(eq(1L), any(), any(), any());
+        assertTrue(row.getNextFireAt().isAfter(LocalDateTime.now().minusSeconds(1)));
+        // The loser follows the row to the new fire time
+        assertEquals(1, first.getTrackedCount());
+        assertEquals(1, second.getTrackedCount());
+    }
+
+    @Test
+    @DisplayName("Missed fire times are not replayed: one fire, then the next time after now")
+    void fireDue_missedFires_noCatchUp() {
+        RecurringTaskDefinition row = define(1L, EVERY_MINUTE, LocalDateTime.now().minusHours(3));
+        RecurringTaskEngine engine = newEngine();
+        LocalDateTime before = LocalDateTime.now();
+
+        engine.fireDue();
+        engine.fireDue();
+
+        verify(taskProducer, times(1)).submitTask(eq("payload-1"), any());
+        assertTrue(row.getNextFireAt().isAfter(before));
+        assertFalse(row.getNextFireAt().isAfter(before.plusMinutes(1).plusSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("Deleted and disabled definitions are dropped without firing")
+    void fireDue_deletedOrDisabled_dropped() {
+        LocalDateTime due = LocalDateTime.now().minusSeconds(1);
+        define(1L, EVERY_MINUTE, due);
+        RecurringTaskDefinition disabled = define(2L, EVERY_MINUTE, due);
+        RecurringTaskEngine engine = newEngine();
+        assertEquals(2, engine.getTrackedCount());
+
+        rows.remove(1L);
+        disabled.setEnabled(false);
+        engine.fireDue();
+        engine.fireDue();
+
+        assertEquals(0, engine.getTrackedCount());
+        verify(repository, times(1)).findById(1L);
+        verify(repository, times(1)).findById(2L);
+        verify(repository, never()).claimFire(anyLong(), any(), any(), any());
+        verifyNoInteractions(taskProducer);
+    }
+
+    @Test
+    @DisplayName("A failing definition backs off and does not block the others")
+    void fireDue_failingDefinition_backsOffAndContinues() throws Exception {
+        define(1L, "not a cron", LocalDateTime.now().minusSeconds(2));
+        define(2L, EVERY_MINUTE, LocalDateTime.now().minusSeconds(1));
+        RecurringTaskEngine engine = newEngine();
+
+        engine.fireDue();
+        verify(taskProducer, times(1)).submitTask(eq("payload-2"), any());
+        verify(repository, times(1)).findById(1L);
+
+        // Not retried before one tick has passed...
+        engine.fireDue();
+        verify(repository, times(1)).findById(1L);
+
+        // ...retried after it, then backed off for two ticks
+        Thread.sleep(TICK_MS + 50);
+        engine.fireDue();
+        verify(repository, times(2)).findById(1L);
+        Thread.sleep(TICK_MS + 50);
+        engine.fireDue();
+        verify(repository, times(2)).findById(1L);
+
+        assertEquals(2, engine.getTrackedCount());
+        verify(taskProducer, never()).submitTask(eq("payload-1"), any());
+    }
+
+    @Test
+    @DisplayName("Retry backoff starts at one tick, doubles and is capped")
+    void backoff_doublesAndIsCapped() {
+        assertEquals(TICK_MS, RecurringTaskEngine.backoffMillis(1, TICK_MS, MAX_BACKOFF_MS));
+        assertEquals(2 * TICK_MS, RecurringTaskEngine.backoffMillis(2, TICK_MS, MAX_BACKOFF_MS));
+        assertEquals(4 * TICK_MS, RecurringTaskEngine.backoffMillis(3, TICK_MS, MAX_BACKOFF_MS));
+        assertEquals(MAX_BACKOFF_MS, RecurringTaskEngine.backoffMillis(20, TICK_MS, MAX_BACKOFF_MS));
+        assertEquals(MAX_BACKOFF_MS, RecurringTaskEngine.backoffMillis(Integer.MAX_VALUE, TICK_MS, MAX_BACKOFF_MS));
+    }
+
+    private RecurringTaskEngine newEngine() {
+        RecurringTaskEngine engine = new RecurringTaskEngine(repository, taskProducer, transactionManager,
+            TICK_MS, MAX_BACKOFF_MS);
+        ReflectionTestUtils.setField(engine, "maxFiresPerTick", 1000);
+        engine.init();
+        return engine;
+    }
+
+    private RecurringTaskDefinition define(Long id, String cron, LocalDateTime nextFireAt) {
+        RecurringTaskDefinition row = new RecurringTaskDefinition();
+        row.setId(id);
+        row.setName("def-" + id);
+        row.setCronExpression(cron);
+        row.setTimeZone("UTC");
+        row.setPayload("payload-" + id);
+        row.setNextFireAt(nextFireAt);
+        rows.put(id, row);
+        return row;
+    }
+}
@@ -0,0 +1,147 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.config.BrokerConfigManager;
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.service.TaskProducer.SubmitOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for how TaskProducer routes a batch submission.
+ */
+class TaskProducerTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private BrokerConfigManager brokerConfigManager;
+
+    @Mock
+    private DelayedTaskScheduler delayedTaskScheduler;
+
+    @Mock
+    private OutboxRelay outboxRelay;
+
+    @Mock
+    private TaskStatusCounters statusCounters;
+
+    private TaskProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        producer = new TaskProducer(redisTemplate, taskRepository, brokerConfigManager,
+            delayedTaskScheduler, outboxRelay, statusCounters);
+    }
+
+    @Test
+    @DisplayName("A runAt falling due while the batch is built still delays the whole batch")
+    void submitTasks_runAtExpiresMidLoop_allScheduled() {
+        LocalDateTime runAt = LocalDateTime.now().plusNanos(200_000_000);
+        List<String> payloads = new ExpiringPayloads(100, runAt);
+
+        List<Task> tasks = producer.submitTasks(payloads, new SubmitOptions(null, null, runAt, null));
+
+        assertTrue(LocalDateTime.now().isAfter(runAt));
+        assertEquals(100, tasks.size());
+        assertTrue(tasks.stream().allMatch(task -> task.getStatus() == TaskStatus.SCHEDULED));
+        assertTrue(tasks.stream().allMatch(task -> runAt.equals(task.getRunAt())));
+        verify(delayedTaskScheduler, times(100)).schedule(any(Task.class));
+        verify(statusCounters).created(TaskStatus.SCHEDULED, 100);
+        verifyNoInteractions(outboxRelay);
+    }
+
+    @Test
+    @DisplayName("A past runAt publishes the whole batch as PENDING")
+    void submitTasks_pastRunAt_allPending() {
+        LocalDateTime runAt = LocalDateTime.now().minusSeconds(1);
+
+        List<Task> tasks = producer.submitTasks(List.of("a", "b", "c"), new SubmitOptions(null, null, runAt, null));
+
+        assertTrue(tasks.stream().allMatch(task -> task.getStatus() == TaskStatus.PENDING));
+        verify(outboxRelay).publish(tasks);
+        verify(statusCounters).created(TaskStatus.PENDING, 3);
+        verifyNoInteractions(delayedTaskScheduler);
+    }
+
+    @Test
+    @DisplayName("Redrive re-queues the FAILED tasks among the IDs and publishes them through the outbox")
+    void redriveFailed_explicitIds_publishesRequeued() {
+        List<Task> requeued = List.of(new Task("a"), new Task("c"));
+        when(taskRepository.redriveFailed(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+        when(taskRepository.findAllById(List.of(1L, 3L))).thenReturn(requeued);
+
+        assertEquals(List.of(1L, 3L), producer.redriveFailed(List.of(1L, 2L, 3L), 10));
+
+        verify(statusCounters).moved(TaskStatus.FAILED, TaskStatus.PENDING, 2);
+        verify(outboxRelay).publish(requeued);
+        verify(taskRepository, never()).findFailedAfter(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Redrive without IDs takes the oldest FAILED tasks, up to the limit")
+    void redriveFailed_noIds_takesOldest() {
+        when(taskRepository.findFailedAfter(0L, PageRequest.of(0, 5))).thenReturn(List.of(4L, 5L));
+        when(taskRepository.redriveFailed(List.of(4L, 5L))).thenReturn(List.of());
+
+        assertTrue(producer.redriveFailed(null, 5).isEmpty());
+
+        verify(taskRepository).redriveFailed(List.of(4L, 5L));
+        verifyNoInteractions(outboxRelay);
+    }
+
+    /**
+     * Payloads whose second element is only handed out once {@code runAt}
+     * has passed, so the deadline expires in the middle of the batch.
+     */
+    private static final class ExpiringPayloads extends AbstractList<String> {
+
+        private final int size;
+        private final LocalDateTime runAt;
+
+        ExpiringPayloads(int size, LocalDateTime runAt) {
+            this.size = size;
+            this.runAt = runAt;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index == 1) {
+                while (!LocalDateTime.now().isAfter(runAt)) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        fail(e);
+                    }
+                }
+            }
+            return "payload-" + index;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
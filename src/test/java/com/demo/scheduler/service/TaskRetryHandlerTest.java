@@ -0,0 +1,178 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.config.BrokerConfigManager;
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.service.broker.TaskBroker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TaskRetryHandler: the backoff, and the retry and
+ * dead-letter branches of onFailure against mocked collaborators.
+ */
+class TaskRetryHandlerTest {
+
+    private static final long BASE = 1_000;
+    private static final long MAX = 60_000;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskStatusWriteBuffer statusBuffer;
+
+    @Mock
+    private DelayedTaskScheduler delayedTaskScheduler;
+
+    @Mock
+    private BrokerConfigManager brokerConfigManager;
+
+    @Mock
+    private TaskStatusCounters statusCounters;
+
+    @Mock
+    private TaskBroker broker;
+
+    private TaskRetryHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(brokerConfigManager.resolveActiveBroker()).thenReturn(broker);
+        handler = new TaskRetryHandler(taskRepository, statusBuffer, delayedTaskScheduler,
+            brokerConfigManager, statusCounters);
+        ReflectionTestUtils.setField(handler, "baseDelayMs", BASE);
+        ReflectionTestUtils.setField(handler, "maxDelayMs", MAX);
+    }
+
+    @Test
+    @DisplayName("Backoff doubles per attempt")
+    void backoff_doublesPerAttempt() {
+        assertEquals(500, TaskRetryHandler.backoffMillis(1, BASE, MAX, 0.0));
+        assertEquals(1_000, TaskRetryHandler.backoffMillis(2, BASE, MAX, 0.0));
+        assertEquals(2_000, TaskRetryHandler.backoffMillis(3, BASE, MAX, 0.0));
+    }
+
+    @Test
+    @DisplayName("Jitter only spreads the upper half of the delay")
+    void backoff_jitterKeepsLowerHalf() {
+        assertEquals(3_000, TaskRetryHandler.backoffMillis(3, BASE, MAX, 0.5));
+        assertTrue(TaskRetryHandler.backoffMillis(3, BASE, MAX, 0.999_999) < 4_000);
+    }
+
+    @Test
+    @DisplayName("Backoff is capped, also for very high attempt counts")
+    void backoff_isCapped() {
+        assertEquals(MAX / 2, TaskRetryHandler.backoffMillis(10, BASE, MAX, 0.0));
+        assertEquals(MAX / 2, TaskRetryHandler.backoffMillis(Integer.MAX_VALUE, BASE, MAX, 0.0));
+        assertTrue(TaskRetryHandler.backoffMillis(Integer.MAX_VALUE, BASE, MAX, 0.999_999) < MAX);
+    }
+
+    @Test
+    @DisplayName("A failure before the last attempt is rescheduled after the backoff through the delay wheel")
+    void onFailure_attemptsLeft_schedulesRetry() {
+        attempts(7L, 2, 3);
+        when(taskRepository.markRetry(eq(7L), any(), eq("boom"))).thenReturn(1);
+        LocalDateTime before = LocalDateTime.now();
+
+        handler.onFailure(7L, "boom");
+
+        ArgumentCaptor<LocalDateTime> runAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(taskRepository).markRetry(eq(7L), runAt.capture(), eq("boom"));
+        // Attempt 2: between half and all of base * 2
+        assertFalse(runAt.getValue().isBefore(before.plusNanos(1_000_000_000L)));
+        assertFalse(runAt.getValue().isAfter(LocalDateTime.now().plusNanos(2_000_000_000L)));
+        verify(delayedTaskScheduler).schedule(7L, runAt.getValue());
+        verify(statusCounters).moved(TaskStatus.PROCESSING, TaskStatus.SCHEDULED, 1);
+        assertEquals(1, handler.getRetriedCount());
+        assertEquals(0, handler.getDeadLetteredCount());
+        verifyNoInteractions(statusBuffer, broker);
+    }
+
+    @Test
+    @DisplayName("A retry whose task is no longer PROCESSING is neither counted nor scheduled")
+    void onFailure_markRetryMisses_nothingScheduled() {
+        attempts(7L, 1, 3);
+        when(taskRepository.markRetry(eq(7L), any(), any())).thenReturn(0);
+
+        handler.onFailure(7L, "boom");
+
+        verifyNoInteractions(delayedTaskScheduler, statusCounters, statusBuffer, broker);
+        assertEquals(0, handler.getRetriedCount());
+    }
+
+    @Test
+    @DisplayName("The last attempt fails the task and publishes it to the active broker's dead-letter queue")
+    void onFailure_lastAttempt_deadLetters() {
+        attempts(7L, 3, 3);
+        Task task = new Task("payload");
+        task.setId(7L);
+        when(taskRepository.findById(7L)).thenReturn(Optional.of(task));
+
+        handler.onFailure(7L, "boom");
+
+        verify(statusBuffer).fail(7L, "boom");
+        verify(broker).deadLetter(task, "boom");
+        verify(taskRepository, never()).markRetry(anyLong(), any(), any());
+        verifyNoInteractions(delayedTaskScheduler);
+        assertEquals(1, handler.getDeadLetteredCount());
+        assertEquals(0, handler.getRetriedCount());
+    }
+
+    @Test
+    @DisplayName("A dead-letter publish failure leaves the task FAILED for redrive")
+    void onFailure_deadLetterPublishFails_stillFailed() {
+        attempts(7L, 3, 3);
+        Task task = new Task("payload");
+        task.setId(7L);
+        when(taskRepository.findById(7L)).thenReturn(Optional.of(task));
+        doThrow(new IllegalStateException("broker down")).when(broker).deadLetter(any(), any());
+
+        assertDoesNotThrow(() -> handler.onFailure(7L, "boom"));
+
+        verify(statusBuffer).fail(7L, "boom");
+        assertEquals(1, handler.getDeadLetteredCount());
+    }
+
+    @Test
+    @DisplayName("Oversized error messages are truncated before they are stored")
+    void onFailure_longError_truncated() {
+        attempts(7L, 3, 3);
+        when(taskRepository.findById(7L)).thenReturn(Optional.empty());
+
+        handler.onFailure(7L, "x".repeat(5_000));
+
+        verify(statusBuffer).fail(7L, "x".repeat(1024));
+    }
+
+    @Test
+    @DisplayName("A task that no longer exists is ignored")
+    void onFailure_unknownTask_ignored() {
+        when(taskRepository.findAttempts(7L)).thenReturn(List.of());
+
+        handler.onFailure(7L, "boom");
+
+        verify(taskRepository, never()).markRetry(anyLong(), any(), any());
+        verifyNoInteractions(statusBuffer, delayedTaskScheduler, broker);
+    }
+
+    private void attempts(Long taskId, int attemptCount, int maxAttempts) {
+        when(taskRepository.findAttempts(taskId))
+            .thenReturn(List.<Object[]>of(new Object[] {attemptCount, maxAttempts}));
+    }
+}
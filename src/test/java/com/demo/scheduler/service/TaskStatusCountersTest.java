@@ -0,0 +1,76 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TaskStatusCounters.
+ */
+class TaskStatusCountersTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private TaskStatusCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        counters = new TaskStatusCounters(taskRepository, null, false, "task-queue");
+    }
+
+    @Test
+    @DisplayName("Transitions move tasks between statuses without changing the total")
+    void transitions_moveBetweenStatuses() {
+        counters.created(TaskStatus.PENDING, 10);
+        counters.created(TaskStatus.SCHEDULED, 2);
+        counters.moved(TaskStatus.PENDING, TaskStatus.PROCESSING, 4);
+        counters.moved(TaskStatus.PROCESSING, TaskStatus.COMPLETED, 3);
+
+        assertEquals(6, counters.get(TaskStatus.PENDING));
+        assertEquals(1, counters.get(TaskStatus.PROCESSING));
+        assertEquals(3, counters.get(TaskStatus.COMPLETED));
+        assertEquals(12, counters.total());
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    @DisplayName("Reconcile replaces drifted counts with the database's")
+    void reconcile_correctsDrift() {
+        counters.created(TaskStatus.PENDING, 5);
+        counters.moved(TaskStatus.PROCESSING, TaskStatus.FAILED, 2);
+        when(taskRepository.getStatusCounts()).thenReturn(List.of(
+            new Object[] {TaskStatus.PENDING, 7L},
+            new Object[] {TaskStatus.COMPLETED, 100L}));
+
+        counters.reconcile();
+
+        assertEquals(7, counters.get(TaskStatus.PENDING));
+        assertEquals(0, counters.get(TaskStatus.PROCESSING));
+        assertEquals(0, counters.get(TaskStatus.FAILED));
+        assertEquals(100, counters.get(TaskStatus.COMPLETED));
+        assertEquals(107, counters.total());
+    }
+
+    @Test
+    @DisplayName("Transitions after a reconcile apply on top of it")
+    void reconcile_thenTransitions() {
+        when(taskRepository.getStatusCounts()).thenReturn(List.<Object[]>of(new Object[] {TaskStatus.PENDING, 3L}));
+        counters.reconcile();
+
+        counters.moved(TaskStatus.PENDING, TaskStatus.PROCESSING, 1);
+
+        assertEquals(2, counters.get(TaskStatus.PENDING));
+        assertEquals(1, counters.get(TaskStatus.PROCESSING));
+    }
+}
@@ -0,0 +1,139 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.config.ThreadPoolConfig;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.repository.TaskRepositoryCustom.AppliedStatusUpdates;
+import com.demo.scheduler.repository.TaskRepositoryCustom.StatusUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TaskStatusWriteBuffer durability modes, against a mocked
+ * repository that records which thread wrote each task's update.
+ */
+class TaskStatusWriteBufferTest {
+
+    // Long enough that only an explicit wake-up or flush writes anything
+    private static final long IDLE_FLUSH_MS = 60_000;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private WorkflowService workflowService;
+
+    @Mock
+    private TaskStatusCounters statusCounters;
+
+    // Task ID -> thread that wrote its update
+    private final Map<Long, Thread> writtenBy = new ConcurrentHashMap<>();
+    private TaskStatusWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(taskRepository.applyStatusUpdates(anyList())).thenAnswer(inv -> {
+            List<StatusUpdate> updates = inv.getArgument(0);
+            updates.forEach(update -> writtenBy.put(update.taskId(), Thread.currentThread()));
+            return new AppliedStatusUpdates(updates.size(), updates.size(), List.of());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("SYNC: the caller returns only once its update is written, without waiting for the flush interval")
+    void sync_returnsOnceWritten() {
+        buffer = start("sync", 10_000, 500);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> buffer.complete(1L));
+
+        assertTrue(writtenBy.containsKey(1L));
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("ASYNC: the caller returns at once and the update is only held in memory until the next flush")
+    void async_updateBufferedUntilFlush() {
+        buffer = start("async", 10_000, 500);
+
+        buffer.complete(1L);
+        buffer.fail(2L, "boom");
+
+        // The loss window: a crash now leaves both tasks PROCESSING
+        assertEquals(2, buffer.getPendingCount());
+        verifyNoInteractions(taskRepository);
+
+        buffer.flush();
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(2, writtenBy.size());
+    }
+
+    @Test
+    @DisplayName("A full buffer makes the caller write a batch itself instead of growing")
+    void fullQueue_callerWritesDirectly() {
+        buffer = start("async", 2, 500);
+
+        buffer.complete(1L);
+        buffer.complete(2L);
+        buffer.complete(3L);
+
+        assertSame(Thread.currentThread(), writtenBy.get(1L));
+        assertSame(Thread.currentThread(), writtenBy.get(2L));
+        assertFalse(writtenBy.containsKey(3L));
+        assertEquals(1, buffer.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Shutting down the task executor flushes what is still buffered")
+    void executorShutdown_flushesBuffer() {
+        buffer = start("async", 10_000, 500);
+        ThreadPoolConfig threadPoolConfig = new ThreadPoolConfig(buffer);
+        ReflectionTestUtils.setField(threadPoolConfig, "executorMode", "virtual");
+        threadPoolConfig.taskExecutor();
+        buffer.complete(1L);
+        buffer.complete(2L);
+
+        threadPoolConfig.shutdown();
+
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(2, writtenBy.size());
+    }
+
+    @Test
+    @DisplayName("SYNC after shutdown writes on the caller instead of waiting for the stopped flusher")
+    void sync_afterShutdown_writesDirectly() {
+        buffer = start("sync", 10_000, 500);
+        buffer.shutdown();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> buffer.complete(1L));
+
+        assertTrue(writtenBy.containsKey(1L));
+    }
+
+    private TaskStatusWriteBuffer start(String durability, int capacity, int batchSize) {
+        TaskStatusWriteBuffer started = new TaskStatusWriteBuffer(taskRepository, workflowService, statusCounters,
+            durability, capacity, batchSize, IDLE_FLUSH_MS);
+        started.start();
+        return started;
+    }
+}
@@ -0,0 +1,333 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.config.BrokerConfigManager;
+import com.demo.scheduler.model.TaskEvent;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.service.broker.KafkaTaskBroker;
+import com.demo.scheduler.service.handler.TaskHandlerRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TaskWorker Kafka batch listener: per-partition commits
+ * of the contiguous finished prefix, rewinds, per-key ordering and
+ * dead-lettering, against a MockConsumer and stubbed claim/handler calls.
+ * The pull consumer thread is not started.
+ */
+class TaskWorkerTest {
+
+    private static final String TOPIC = "task-events";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskStatusWriteBuffer statusBuffer;
+
+    @Mock
+    private TaskRetryHandler retryHandler;
+
+    @Mock
+    private TaskHandlerRegistry handlerRegistry;
+
+    @Mock
+    private BrokerConfigManager brokerConfigManager;
+
+    @Mock
+    private KafkaTaskBroker kafkaTaskBroker;
+
+    @Mock
+    private TaskStatusCounters statusCounters;
+
+    private ExecutorService executor;
+    private WorkerBackpressure backpressure;
+    private MockConsumer<String, TaskEvent> consumer;
+    private TaskWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(brokerConfigManager.getBrokerType()).thenReturn("kafka");
+        when(taskRepository.markProcessing(anyLong(), any(), any())).thenReturn(1);
+        when(taskRepository.findHandlerInput(anyLong()))
+            .thenReturn(List.<Object[]>of(new Object[] {"default", "payload"}));
+        when(handlerRegistry.execute(anyString(), anyLong(), anyString()))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        executor = Executors.newFixedThreadPool(4);
+        backpressure = new WorkerBackpressure(mock(KafkaListenerEndpointRegistry.class), new SimpleMeterRegistry(),
+            5000, 1000);
+        worker = newWorker(executor);
+
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(P0, P1));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+        consumer.seek(P0, 0);
+        consumer.seek(P1, 0);
+    }
+
+    private TaskWorker newWorker(ExecutorService taskExecutor) {
+        TaskWorker taskWorker = new TaskWorker(taskRepository, statusBuffer, backpressure, retryHandler, handlerRegistry,
+            taskExecutor, new MessageCaptureService(), new ObjectMapper(), brokerConfigManager,
+            new KafkaPartitionLanes(5000), kafkaTaskBroker, statusCounters, new int[] {8, 3, 1});
+        ReflectionTestUtils.setField(taskWorker, "orderByKey", true);
+        ReflectionTestUtils.setField(taskWorker, "kafkaBatchTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(taskWorker, "visibilityTimeoutMs", 30000L);
+        return taskWorker;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("A finished batch is committed past its last record on every partition")
+    void listenKafkaBatch_allFinished_commitsEachPartition() {
+        worker.listenKafkaBatch(List.of(record(P0, 0, null, 1L), record(P1, 0, null, 2L),
+            record(P0, 1, null, 3L), record(P1, 1, null, 4L)), consumer);
+
+        assertEquals(2, committed(P0));
+        assertEquals(2, committed(P1));
+        assertEquals(0, backpressure.getOccupancy());
+    }
+
+    @Test
+    @DisplayName("Records finishing out of order commit only the contiguous finished prefix")
+    void listenKafkaBatch_outOfOrder_commitsContiguousPrefix() {
+        ReflectionTestUtils.setField(worker, "kafkaBatchTimeoutMs", 300L);
+        CompletableFuture<Void> stuck = new CompletableFuture<>();
+        when(handlerRegistry.execute(anyString(), eq(2L), anyString())).thenReturn(stuck);
+        try {
+            // Offsets 0, 2 and 3 finish; offset 1 does not
+            worker.listenKafkaBatch(List.of(record(0, 1L), record(1, 2L), record(2, 3L), record(3, 4L),
+                record(P1, 0, null, 5L)), consumer);
+
+            assertEquals(1, committed(P0));
+            assertEquals(1, consumer.position(P0));
+            assertEquals(1, committed(P1));
+            verify(statusBuffer).complete(3L);
+            verify(statusBuffer).complete(4L);
+        } finally {
+            stuck.complete(null);
+        }
+    }
+
+    @Test
+    @DisplayName("A handler failure in the middle of a partition is retried through the retry handler and committed past")
+    void listenKafkaBatch_failureMidPartition_recordedAndCommitted() {
+        when(handlerRegistry.execute(anyString(), eq(2L), anyString()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        worker.listenKafkaBatch(List.of(record(0, 1L), record(1, 2L), record(2, 3L)), consumer);
+
+        verify(retryHandler).onFailure(2L, "boom");
+        verify(statusBuffer).complete(1L);
+        verify(statusBuffer).complete(3L);
+        assertEquals(3, committed(P0));
+        assertEquals(1, worker.getFailedCount());
+    }
+
+    @Test
+    @DisplayName("An unfinished record in the middle of a partition rewinds it there, even though later records finished")
+    void listenKafkaBatch_unfinishedMidPartition_rewinds() {
+        worker = newWorker(inlineRejectingSlot(2));
+
+        worker.listenKafkaBatch(List.of(record(0, 1L), record(1, 2L), record(2, 3L)), consumer);
+
+        verify(statusBuffer).complete(1L);
+        verify(statusBuffer).complete(3L);
+        assertEquals(1, committed(P0));
+        assertEquals(1, consumer.position(P0));
+        assertEquals(0, backpressure.getOccupancy());
+    }
+
+    @Test
+    @DisplayName("Records sharing a key run one at a time in offset order; other keys run alongside")
+    void listenKafkaBatch_sameKey_runsInOffsetOrder() {
+        List<Long> started = new CopyOnWriteArrayList<>();
+        Map<Long, String> keyOf = Map.of(1L, "a", 2L, "b", 3L, "a", 4L, "a", 5L, "b");
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicInteger maxRunningPerKey = new AtomicInteger();
+        when(handlerRegistry.execute(anyString(), anyLong(), anyString())).thenAnswer(inv -> {
+            Long taskId = inv.getArgument(1);
+            AtomicInteger counter = running.computeIfAbsent(keyOf.get(taskId), k -> new AtomicInteger());
+            maxRunningPerKey.accumulateAndGet(counter.incrementAndGet(), Math::max);
+            started.add(taskId);
+            return CompletableFuture.runAsync(() -> {
+                sleepQuietly(20);
+                counter.decrementAndGet();
+            });
+        });
+
+        List<ConsumerRecord<String, TaskEvent>> records = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            records.add(record(P0, id - 1, keyOf.get(id), id));
+        }
+        worker.listenKafkaBatch(records, consumer);
+
+        assertEquals(1, maxRunningPerKey.get());
+        List<Long> keyA = started.stream().filter(id -> keyOf.get(id).equals("a")).toList();
+        List<Long> keyB = started.stream().filter(id -> keyOf.get(id).equals("b")).toList();
+        assertEquals(List.of(1L, 3L, 4L), keyA);
+        assertEquals(List.of(2L, 5L), keyB);
+        assertEquals(5, committed(P0));
+    }
+
+    @Test
+    @DisplayName("While another broker is active a batch is neither processed nor committed, and is rewound")
+    void listenKafkaBatch_otherBrokerActive_rewindsWithoutCommit() {
+        when(brokerConfigManager.getBrokerType()).thenReturn("redis");
+        consumer.seek(P0, 5);
+        consumer.seek(P1, 5);
+
+        worker.listenKafkaBatch(List.of(record(1, 1L), record(2, 2L), record(P1, 3, null, 3L)), consumer);
+
+        assertEquals(1, consumer.position(P0));
+        assertEquals(3, consumer.position(P1));
+        assertEquals(-1, committed(P0));
+        verifyNoInteractions(taskRepository, handlerRegistry);
+    }
+
+    @Test
+    @DisplayName("An undecodable record is dead-lettered and committed past once the send succeeds")
+    void listenKafkaBatch_undecodable_deadLetteredThenCommitted() {
+        when(kafkaTaskBroker.deadLetterUndecodable(any(), isNull())).thenReturn(CompletableFuture.completedFuture(null));
+        List<ConsumerRecord<String, TaskEvent>> records = List.of(record(0, 1L), record(1, null), record(2, 3L));
+
+        worker.listenKafkaBatch(records, consumer);
+
+        verify(kafkaTaskBroker).deadLetterUndecodable(records.get(1), null);
+        verify(statusBuffer).complete(1L);
+        verify(statusBuffer).complete(3L);
+        assertEquals(3, committed(P0));
+        assertEquals(0, backpressure.getOccupancy());
+    }
+
+    @Test
+    @DisplayName("A failed dead-letter send keeps the undecodable record uncommitted and rewinds to it")
+    void listenKafkaBatch_deadLetterFails_rewinds() {
+        when(kafkaTaskBroker.deadLetterUndecodable(any(), isNull()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("dlq down")));
+
+        worker.listenKafkaBatch(List.of(record(0, 1L), record(1, null), record(2, 3L)), consumer);
+
+        assertEquals(1, committed(P0));
+        assertEquals(1, consumer.position(P0));
+    }
+
+    @Test
+    @DisplayName("Tasks rejected by a shut-down executor fail, free their backpressure slots and are not committed")
+    void listenKafkaBatch_executorShutDown_releasesOccupancy() {
+        executor.shutdown();
+
+        worker.listenKafkaBatch(List.of(record(0, 1L), record(1, 2L)), consumer);
+
+        assertEquals(0, backpressure.getOccupancy());
+        assertEquals(0, worker.getRunQueueSize());
+        assertEquals(-1, committed(P0));
+        assertEquals(0, consumer.position(P0));
+        verifyNoInteractions(statusBuffer);
+    }
+
+    /**
+     * Runs each slot on the calling thread, so the n-th slot runs the n-th
+     * dispatched task, except slot {@code rejected}, which is refused as by a
+     * shut-down pool.
+     */
+    private static ExecutorService inlineRejectingSlot(int rejected) {
+        return new AbstractExecutorService() {
+            private final AtomicInteger slots = new AtomicInteger();
+            private volatile boolean shutdown;
+
+            @Override
+            public void execute(Runnable command) {
+                if (slots.incrementAndGet() == rejected) {
+                    throw new RejectedExecutionException("Task executor is shut down");
+                }
+                command.run();
+            }
+
+            @Override
+            public void shutdown() {
+                shutdown = true;
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                shutdown = true;
+                return List.of();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return shutdown;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return shutdown;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return true;
+            }
+        };
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long committed(TopicPartition partition) {
+        OffsetAndMetadata offset = consumer.committed(Set.of(partition)).get(partition);
+        return offset == null ? -1 : offset.offset();
+    }
+
+    private static ConsumerRecord<String, TaskEvent> record(long offset, Long taskId) {
+        return record(P0, offset, null, taskId);
+    }
+
+    private static ConsumerRecord<String, TaskEvent> record(TopicPartition partition, long offset, String key, Long taskId) {
+        TaskEvent event = taskId == null ? null : new TaskEvent(taskId, "payload", "2024-01-01T00:00");
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, key, event);
+    }
+}
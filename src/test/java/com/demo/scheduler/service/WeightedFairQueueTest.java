@@ -0,0 +1,96 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.model.Task.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WeightedFairQueue.
+ */
+class WeightedFairQueueTest {
+
+    private WeightedFairQueue<String> queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new WeightedFairQueue<>(8, 3, 1);
+    }
+
+    @Test
+    @DisplayName("Backlogged lanes are served in proportion to their weights")
+    void backloggedLanes_servedByWeight() {
+        for (int i = 0; i < 1200; i++) {
+            queue.offer(Priority.HIGH, "high");
+            queue.offer(Priority.NORMAL, "normal");
+            queue.offer(Priority.LOW, "low");
+        }
+
+        Map<String, Integer> served = new HashMap<>();
+        for (int i = 0; i < 1200; i++) {
+            served.merge(queue.poll(), 1, Integer::sum);
+        }
+
+        assertEquals(800, served.get("high"));
+        assertEquals(300, served.get("normal"));
+        assertEquals(100, served.get("low"));
+    }
+
+    @Test
+    @DisplayName("Low priority is served within one round while high is backlogged")
+    void lowPriority_notStarved() {
+        for (int i = 0; i < 100; i++) {
+            queue.offer(Priority.HIGH, "high-" + i);
+        }
+        queue.offer(Priority.LOW, "low");
+
+        int position = 0;
+        while (!"low".equals(queue.poll())) {
+            position++;
+        }
+
+        assertTrue(position < 12, "LOW waited " + position + " polls");
+    }
+
+    @Test
+    @DisplayName("A single lane keeps FIFO order and gets every poll")
+    void singleLane_fifo() {
+        queue.offer(Priority.LOW, "a");
+        queue.offer(Priority.LOW, "b");
+        queue.offer(Priority.LOW, "c");
+
+        assertEquals("a", queue.poll());
+        assertEquals("b", queue.poll());
+        assertEquals("c", queue.poll());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    @DisplayName("Weights must be given for every priority")
+    void wrongWeightCount_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new WeightedFairQueue<String>(8, 1));
+    }
+
+    @Test
+    @DisplayName("Lane sizes are tracked per priority")
+    void laneSizes() {
+        Map<Priority, Integer> offered = new EnumMap<>(Map.of(Priority.HIGH, 2, Priority.NORMAL, 1, Priority.LOW, 3));
+        offered.forEach((priority, count) -> {
+            for (int i = 0; i < count; i++) {
+                queue.offer(priority, priority.name());
+            }
+        });
+
+        assertEquals(2, queue.size(Priority.HIGH));
+        assertEquals(1, queue.size(Priority.NORMAL));
+        assertEquals(3, queue.size(Priority.LOW));
+        assertEquals(6, queue.size());
+    }
+}
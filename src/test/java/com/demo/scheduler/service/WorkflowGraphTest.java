@@ -0,0 +1,54 @@
+package com.demo.scheduler.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WorkflowGraph.
+ */
+class WorkflowGraphTest {
+
+    // 0 -> {1, 2} -> 3 (diamond)
+    private final int[][] diamond = {{}, {0}, {0}, {1, 2}};
+
+    @Test
+    @DisplayName("Parents always come before their children")
+    void topologicalOrder_respectsDependencies() {
+        int[] order = WorkflowGraph.topologicalOrder(diamond);
+
+        int[] position = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+        for (int node = 0; node < diamond.length; node++) {
+            for (int parent : diamond[node]) {
+                assertTrue(position[parent] < position[node]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Cycles are rejected")
+    void topologicalOrder_rejectsCycle() {
+        int[][] cycle = {{}, {0, 2}, {1}};
+        assertThrows(IllegalArgumentException.class, () -> WorkflowGraph.topologicalOrder(cycle));
+    }
+
+    @Test
+    @DisplayName("Critical path follows the parent that finished last")
+    void criticalPath_followsLatestParent() {
+        long[] completedAt = {10, 50, 30, 60};
+        assertEquals(List.of(0, 1, 3), WorkflowGraph.criticalPath(diamond, completedAt));
+    }
+
+    @Test
+    @DisplayName("Critical path of an unfinished workflow ends at the last completed task")
+    void criticalPath_partialCompletion() {
+        assertEquals(List.of(0, 2), WorkflowGraph.criticalPath(diamond, new long[] {10, -1, 30, -1}));
+        assertEquals(List.of(), WorkflowGraph.criticalPath(diamond, new long[] {-1, -1, -1, -1}));
+    }
+}
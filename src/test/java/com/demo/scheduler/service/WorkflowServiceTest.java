@@ -0,0 +1,238 @@
+package com.demo.scheduler.service;
+
+import com.demo.scheduler.SchedulerApplication;
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.TaskStatus;
+import com.demo.scheduler.repository.TaskOutboxRepository;
+import com.demo.scheduler.repository.TaskRepository;
+import com.demo.scheduler.repository.TaskRepositoryCustom.AppliedStatusUpdates;
+import com.demo.scheduler.repository.TaskRepositoryCustom.StatusUpdate;
+import com.demo.scheduler.service.WorkflowService.SubmittedWorkflow;
+import com.demo.scheduler.service.WorkflowService.WorkflowNode;
+import com.demo.scheduler.service.broker.TaskBroker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the workflow release path on H2: submit, complete a
+ * parent through the status write, decrement its children, then release or
+ * sweep them into the outbox. The relay thread is stopped; tests drain it.
+ */
+@SpringBootTest(classes = {SchedulerApplication.class, WorkflowServiceTest.TestConfig.class},
+    properties = {"scheduler.broker.kafka-enabled=false", "scheduler.broker.type=redis",
+        "spring.datasource.url=jdbc:h2:mem:workflow-test;DB_CLOSE_DELAY=-1"})
+class WorkflowServiceTest {
+
+    // Task ID -> times published
+    private static final Map<Long, Integer> published = new ConcurrentHashMap<>();
+    // Makes batched UPDATEs report SUCCESS_NO_INFO, as some drivers do
+    private static final AtomicBoolean noInfoCounts = new AtomicBoolean();
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        TaskBroker recordingBroker() {
+            return new TaskBroker() {
+                @Override
+                public void submitTask(Task task) {
+                    submitTasks(List.of(task));
+                }
+
+                @Override
+                public void submitTasks(List<Task> tasks) {
+                    tasks.forEach(task -> published.merge(task.getId(), 1, Integer::sum));
+                }
+
+                @Override
+                public String getBrokerType() {
+                    return "redis";
+                }
+            };
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource) {
+                @Override
+                public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                    int[] counts = super.batchUpdate(sql, batchArgs);
+                    if (noInfoCounts.get()) {
+                        Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                    }
+                    return counts;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private WorkflowService workflowService;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        relay.stop();
+        noInfoCounts.set(false);
+        drain();
+        published.clear();
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("A diamond runs root, then both branches, then the join once both completed")
+    void diamond_releasesEachLevelAfterItsParents() {
+        Map<String, Long> ids = submitDiamond().taskIds();
+        assertEquals(1, drain());
+        assertEquals(Map.of(ids.get("a"), 1), published);
+
+        release(complete(ids.get("a")));
+        assertEquals(TaskStatus.PENDING, status(ids.get("b")));
+        assertEquals(TaskStatus.PENDING, status(ids.get("c")));
+        assertEquals(TaskStatus.BLOCKED, status(ids.get("d")));
+        assertEquals(2, drain());
+
+        release(complete(ids.get("b")));
+        assertEquals(TaskStatus.BLOCKED, status(ids.get("d")));
+        assertEquals(1, pendingParents(ids.get("d")));
+
+        AppliedStatusUpdates last = complete(ids.get("c"));
+        assertEquals(List.of(ids.get("d")), last.unblocked());
+        release(last);
+        assertEquals(TaskStatus.PENDING, status(ids.get("d")));
+        assertEquals(1, drain());
+        assertEquals(4, published.size());
+        assertTrue(published.values().stream().allMatch(count -> count == 1));
+    }
+
+    @Test
+    @DisplayName("A duplicate completion does not decrement the children again")
+    void duplicateCompletion_doesNotDecrementTwice() {
+        Map<String, Long> ids = submitDiamond().taskIds();
+        release(complete(ids.get("a")));
+        release(complete(ids.get("b")));
+
+        AppliedStatusUpdates duplicate = applyCompleted(ids.get("b"), LocalDateTime.now());
+
+        assertEquals(0, duplicate.updated());
+        assertTrue(duplicate.unblocked().isEmpty());
+        assertEquals(1, pendingParents(ids.get("d")));
+        assertEquals(TaskStatus.BLOCKED, status(ids.get("d")));
+    }
+
+    @Test
+    @DisplayName("Completions whose batch count is SUCCESS_NO_INFO are re-read and still release children")
+    void noInfoCounts_completionConfirmedByReRead() {
+        Map<String, Long> ids = submitDiamond().taskIds();
+        drain();
+        noInfoCounts.set(true);
+
+        AppliedStatusUpdates applied = complete(ids.get("a"));
+        assertEquals(1, applied.updated());
+        assertEquals(1, applied.completed());
+        release(applied);
+        assertEquals(TaskStatus.PENDING, status(ids.get("b")));
+        assertEquals(TaskStatus.PENDING, status(ids.get("c")));
+        assertEquals(2, outboxRepository.count());
+
+        // Already COMPLETED with an earlier completed_at: not confirmed again
+        AppliedStatusUpdates duplicate = applyCompleted(ids.get("a"), LocalDateTime.now().plusSeconds(1));
+        assertEquals(0, duplicate.updated());
+        assertEquals(2, pendingParents(ids.get("d")));
+    }
+
+    @Test
+    @DisplayName("The sweep releases children left ready by a completion that was never followed by a release")
+    void sweepReady_releasesMissedChildren() {
+        Map<String, Long> ids = submitDiamond().taskIds();
+        drain();
+
+        // The node died between the completion and the release
+        complete(ids.get("a"));
+        assertEquals(TaskStatus.BLOCKED, status(ids.get("b")));
+
+        workflowService.sweepReady();
+
+        assertEquals(TaskStatus.PENDING, status(ids.get("b")));
+        assertEquals(TaskStatus.PENDING, status(ids.get("c")));
+        assertEquals(TaskStatus.BLOCKED, status(ids.get("d")));
+        assertEquals(2, drain());
+
+        workflowService.sweepReady();
+        assertEquals(0, drain());
+    }
+
+    private SubmittedWorkflow submitDiamond() {
+        return workflowService.submit("diamond", List.of(
+            new WorkflowNode("a", null, "a", null, null),
+            new WorkflowNode("b", null, "b", null, List.of("a")),
+            new WorkflowNode("c", null, "c", null, List.of("a")),
+            new WorkflowNode("d", null, "d", null, List.of("b", "c"))));
+    }
+
+    /**
+     * Claims the task as a worker would, then writes its completion.
+     */
+    private AppliedStatusUpdates complete(Long taskId) {
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(1, taskRepository.markProcessing(taskId, now, now.minusMinutes(5)));
+        return applyCompleted(taskId, now);
+    }
+
+    private AppliedStatusUpdates applyCompleted(Long taskId, LocalDateTime at) {
+        return tx.execute(status -> taskRepository.applyStatusUpdates(
+            List.of(new StatusUpdate(taskId, TaskStatus.COMPLETED, null, at))));
+    }
+
+    private void release(AppliedStatusUpdates applied) {
+        workflowService.release(applied.unblocked());
+    }
+
+    private TaskStatus status(Long taskId) {
+        return taskRepository.findById(taskId).orElseThrow().getStatus();
+    }
+
+    private int pendingParents(Long taskId) {
+        return taskRepository.findById(taskId).orElseThrow().getPendingParents();
+    }
+
+    private int drain() {
+        int total = 0;
+        int relayed;
+        while ((relayed = relay.relayBatch()) > 0) {
+            total += relayed;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,82 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InMemoryTaskBroker.
+ */
+class InMemoryTaskBrokerTest {
+
+    private final InMemoryTaskBroker broker = new InMemoryTaskBroker(1024, 100, 100, new int[] {8, 3, 1});
+
+    @Test
+    @DisplayName("A poll shares its batch across priority lanes by weight")
+    void poll_sharesBatchByWeight() {
+        List<Task> tasks = new ArrayList<>();
+        long id = 0;
+        for (int i = 0; i < 200; i++) {
+            for (Priority priority : Priority.values()) {
+                tasks.add(task(id++, priority));
+            }
+        }
+        broker.submitTasks(tasks);
+
+        Map<Priority, Integer> polled = new EnumMap<>(Priority.class);
+        for (PolledTask task : broker.poll(120, Duration.ZERO)) {
+            polled.merge(task.priority(), 1, Integer::sum);
+        }
+        assertEquals(80, polled.get(Priority.HIGH));
+        assertEquals(30, polled.get(Priority.NORMAL));
+        assertEquals(10, polled.get(Priority.LOW));
+        assertEquals(480, broker.size());
+    }
+
+    @Test
+    @DisplayName("An idle poll returns as soon as a task is published")
+    void idlePoll_wokenByPublish() throws Exception {
+        CompletableFuture<List<PolledTask>> poll =
+            CompletableFuture.supplyAsync(() -> broker.poll(10, Duration.ofSeconds(10)));
+        Thread.sleep(50);
+        assertFalse(poll.isDone());
+
+        long start = System.nanoTime();
+        broker.submitTask(task(42, Priority.LOW));
+        List<PolledTask> polled = poll.get(1, TimeUnit.SECONDS);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(List.of(new PolledTask(42L, Priority.LOW)), polled);
+    }
+
+    @Test
+    @DisplayName("Publishing to a full lane fails once the offer timeout elapses")
+    void fullLane_failsAfterTimeout() {
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 0; id < 1024; id++) {
+            tasks.add(task(id, Priority.NORMAL));
+        }
+        broker.submitTasks(tasks);
+
+        assertThrows(IllegalStateException.class, () -> broker.submitTask(task(1024, Priority.NORMAL)));
+        broker.submitTask(task(1025, Priority.HIGH));
+        assertEquals(1025, broker.size());
+    }
+
+    private static Task task(long id, Priority priority) {
+        Task task = new Task("payload", priority);
+        task.setId(id);
+        return task;
+    }
+}
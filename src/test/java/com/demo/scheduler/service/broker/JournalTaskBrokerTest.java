@@ -0,0 +1,87 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JournalTaskBroker.
+ */
+class JournalTaskBrokerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("After a restart only the unacknowledged tasks are delivered again")
+    void restart_redeliversUnacknowledged() {
+        JournalTaskBroker broker = open();
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            tasks.add(task(id, Priority.values()[(int) (id % 3)]));
+        }
+        broker.submitTasks(tasks);
+
+        List<PolledTask> polled = broker.poll(300, Duration.ZERO);
+        assertEquals(300, polled.size());
+        Set<Long> acknowledged = new HashSet<>(polled.stream().map(PolledTask::taskId).toList());
+        broker.acknowledge(List.copyOf(acknowledged));
+        broker.stop();
+
+        JournalTaskBroker reopened = open();
+        try {
+            Set<Long> redelivered = new HashSet<>();
+            List<PolledTask> batch;
+            while (!(batch = reopened.poll(100, Duration.ZERO)).isEmpty()) {
+                batch.forEach(task -> redelivered.add(task.taskId()));
+            }
+            assertEquals(200, redelivered.size());
+            redelivered.forEach(id -> assertFalse(acknowledged.contains(id)));
+        } finally {
+            reopened.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("An idle poll returns as soon as a task is published")
+    void idlePoll_wokenByPublish() throws Exception {
+        JournalTaskBroker broker = open();
+        try {
+            CompletableFuture<List<PolledTask>> poll =
+                CompletableFuture.supplyAsync(() -> broker.poll(10, Duration.ofSeconds(10)));
+            Thread.sleep(50);
+            assertFalse(poll.isDone());
+
+            broker.submitTask(task(42, Priority.LOW));
+
+            assertEquals(List.of(new PolledTask(42L, Priority.LOW)), poll.get(1, TimeUnit.SECONDS));
+        } finally {
+            broker.stop();
+        }
+    }
+
+    private JournalTaskBroker open() {
+        return new JournalTaskBroker(directory.toString(), 4096, "group", 2, 60000, new int[] {8, 3, 1});
+    }
+
+    private static Task task(long id, Priority priority) {
+        Task task = new Task("payload-" + id, priority);
+        task.setId(id);
+        task.setCreatedAt(LocalDateTime.now());
+        return task;
+    }
+}
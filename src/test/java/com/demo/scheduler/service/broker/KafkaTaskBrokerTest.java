@@ -0,0 +1,26 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.service.MessageCaptureService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for KafkaTaskBroker.
+ */
+class KafkaTaskBrokerTest {
+
+    @Test
+    @DisplayName("Type partitioning is rejected with key ordering, accepted with the others")
+    void typePartitioning_requiresNonKeyOrdering() {
+        assertThrows(IllegalArgumentException.class, () -> broker("type", "key"));
+        assertDoesNotThrow(() -> broker("type", "partition"));
+        assertDoesNotThrow(() -> broker("type", "none"));
+        assertDoesNotThrow(() -> broker("key", "key"));
+    }
+
+    private static KafkaTaskBroker broker(String partitioning, String ordering) {
+        return new KafkaTaskBroker(null, new MessageCaptureService(), partitioning, ordering);
+    }
+}
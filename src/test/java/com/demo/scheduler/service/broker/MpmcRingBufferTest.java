@@ -0,0 +1,116 @@
+package com.demo.scheduler.service.broker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MpmcRingBuffer.
+ */
+class MpmcRingBufferTest {
+
+    @Test
+    @DisplayName("Values come out in FIFO order across many laps of the ring")
+    void fifo_acrossLaps() {
+        MpmcRingBuffer ring = new MpmcRingBuffer(8);
+        long[] buffer = new long[3];
+        long next = 0;
+        long expected = 0;
+
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(ring.offer(next++));
+            }
+            assertEquals(3, ring.drainTo(buffer, 0, 3));
+            for (long value : buffer) {
+                assertEquals(expected++, value);
+            }
+        }
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A full ring rejects offers until a value is drained")
+    void full_rejectsOffer() {
+        MpmcRingBuffer ring = new MpmcRingBuffer(5);
+        assertEquals(8, ring.capacity());
+
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(8));
+        assertEquals(8, ring.size());
+
+        long[] buffer = new long[1];
+        assertEquals(1, ring.drainTo(buffer, 0, 1));
+        assertEquals(0, buffer[0]);
+        assertTrue(ring.offer(8));
+        assertEquals(0, ring.drainTo(new long[0], 0, 0));
+    }
+
+    @Test
+    @DisplayName("Concurrent producers and consumers deliver every value exactly once")
+    void concurrent_exactlyOnce() throws Exception {
+        int producers = 3;
+        int consumers = 3;
+        int perProducer = 100_000;
+        int total = producers * perProducer;
+        MpmcRingBuffer ring = new MpmcRingBuffer(1024);
+        BitSet seen = new BitSet(total);
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long first = (long) p * perProducer;
+            futures.add(pool.submit(() -> {
+                for (long value = first; value < first + perProducer; value++) {
+                    while (!ring.offer(value)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            futures.add(pool.submit(() -> {
+                long[] buffer = new long[64];
+                while (received.get() < total) {
+                    int drained = ring.drainTo(buffer, 0, buffer.length);
+                    if (drained == 0) {
+                        Thread.yield();
+                        continue;
+                    }
+                    synchronized (seen) {
+                        for (int i = 0; i < drained; i++) {
+                            if (seen.get((int) buffer[i])) {
+                                duplicates.incrementAndGet();
+                            }
+                            seen.set((int) buffer[i]);
+                        }
+                    }
+                    received.addAndGet(drained);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(0, duplicates.get());
+        assertEquals(total, received.get());
+        assertEquals(total, seen.cardinality());
+        assertTrue(ring.isEmpty());
+    }
+}
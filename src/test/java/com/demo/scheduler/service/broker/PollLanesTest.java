@@ -0,0 +1,57 @@
+package com.demo.scheduler.service.broker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PollLanes.
+ */
+class PollLanesTest {
+
+    private final PollLanes pollLanes = new PollLanes(new int[] {8, 3, 1});
+
+    @Test
+    @DisplayName("Shares follow the weights and never drop below one")
+    void share_byWeightAtLeastOne() {
+        assertEquals(80, pollLanes.share(0, 120));
+        assertEquals(30, pollLanes.share(1, 120));
+        assertEquals(10, pollLanes.share(2, 120));
+        assertEquals(List.of("1", "1", "1"), pollLanes.shareArgs(1));
+    }
+
+    @Test
+    @DisplayName("A wake-up sent after the sequence was read is not missed")
+    void awaitSignal_seesEarlierSignal() {
+        long sequence = pollLanes.currentSignal();
+        pollLanes.signal();
+
+        assertTrue(pollLanes.awaitSignal(sequence, TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    @Test
+    @DisplayName("A wait without a wake-up times out")
+    void awaitSignal_timesOut() {
+        assertFalse(pollLanes.awaitSignal(pollLanes.currentSignal(), TimeUnit.MILLISECONDS.toNanos(20)));
+    }
+
+    @Test
+    @DisplayName("Closing releases a waiting poller")
+    void close_releasesWaiter() throws Exception {
+        long sequence = pollLanes.currentSignal();
+        CompletableFuture<Boolean> waiter =
+            CompletableFuture.supplyAsync(() -> pollLanes.awaitSignal(sequence, TimeUnit.SECONDS.toNanos(10)));
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+
+        pollLanes.close();
+
+        waiter.get(1, TimeUnit.SECONDS);
+        assertFalse(pollLanes.awaitSignal(pollLanes.currentSignal(), TimeUnit.SECONDS.toNanos(10)));
+    }
+}
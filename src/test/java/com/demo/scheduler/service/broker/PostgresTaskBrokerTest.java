@@ -0,0 +1,160 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.SchedulerApplication;
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import com.demo.scheduler.service.MessageCaptureService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for PostgresTaskBroker on H2. The application runs with
+ * the redis broker type and no Redis broker deployed, so its worker leaves
+ * task_queue alone; each test claims through brokers of its own.
+ */
+@SpringBootTest(classes = SchedulerApplication.class,
+    properties = {"scheduler.broker.kafka-enabled=false", "scheduler.broker.type=redis",
+        "spring.datasource.url=jdbc:h2:mem:postgres-broker-test;DB_CLOSE_DELAY=-1"})
+class PostgresTaskBrokerTest {
+
+    private static final int[] WEIGHTS = {8, 3, 1};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MessageCaptureService messageCapture;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM task_queue");
+    }
+
+    @Test
+    @DisplayName("A poll shares its batch across priorities by weight and an ack deletes the rows")
+    void poll_sharesBatchByWeight_ackDeletes() {
+        PostgresTaskBroker broker = broker("worker-a", 30000);
+        List<Task> tasks = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 100; i++) {
+            for (Priority priority : Priority.values()) {
+                tasks.add(task(id++, priority));
+            }
+        }
+        broker.submitTasks(tasks);
+
+        List<PolledTask> polled = broker.poll(120, Duration.ZERO);
+        Map<Priority, Integer> byPriority = new EnumMap<>(Priority.class);
+        polled.forEach(task -> byPriority.merge(task.priority(), 1, Integer::sum));
+        assertEquals(80, byPriority.get(Priority.HIGH));
+        assertEquals(30, byPriority.get(Priority.NORMAL));
+        assertEquals(10, byPriority.get(Priority.LOW));
+
+        broker.acknowledge(polled.stream().map(PolledTask::taskId).toList());
+        assertEquals(180, queued());
+    }
+
+    @Test
+    @DisplayName("Workers polling concurrently never claim the same task")
+    void concurrentPolls_claimDisjointTasks() throws Exception {
+        PostgresTaskBroker first = broker("worker-a", 30000);
+        PostgresTaskBroker second = broker("worker-b", 30000);
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            tasks.add(task(id, Priority.values()[(int) (id % 3)]));
+        }
+        first.submitTasks(tasks);
+
+        CompletableFuture<List<Long>> claimedByFirst = CompletableFuture.supplyAsync(() -> drain(first));
+        CompletableFuture<List<Long>> claimedBySecond = CompletableFuture.supplyAsync(() -> drain(second));
+        List<Long> a = claimedByFirst.get(30, TimeUnit.SECONDS);
+        List<Long> b = claimedBySecond.get(30, TimeUnit.SECONDS);
+
+        Set<Long> claimed = new HashSet<>(a);
+        claimed.addAll(b);
+        assertEquals(3000, a.size() + b.size());
+        assertEquals(3000, claimed.size());
+        assertEquals(0, queued());
+    }
+
+    @Test
+    @DisplayName("An expired lease is claimed again and the first worker's late ack keeps the row")
+    void expiredLease_redelivered() throws Exception {
+        PostgresTaskBroker first = broker("worker-a", 100);
+        PostgresTaskBroker second = broker("worker-b", 30000);
+        first.submitTask(task(7, Priority.NORMAL));
+
+        assertEquals(List.of(new PolledTask(7L, Priority.NORMAL)), first.poll(10, Duration.ZERO));
+        assertTrue(second.poll(10, Duration.ZERO).isEmpty());
+
+        Thread.sleep(200);
+        assertEquals(List.of(new PolledTask(7L, Priority.NORMAL)), second.poll(10, Duration.ZERO));
+        first.acknowledge(List.of(7L));
+        assertEquals(1, queued());
+
+        second.acknowledge(List.of(7L));
+        assertEquals(0, queued());
+    }
+
+    @Test
+    @DisplayName("An idle poll returns as soon as a task is published")
+    void idlePoll_wokenByPublish() throws Exception {
+        PostgresTaskBroker broker = broker("worker-a", 30000);
+        CompletableFuture<List<PolledTask>> poll =
+            CompletableFuture.supplyAsync(() -> broker.poll(10, Duration.ofSeconds(10)));
+        Thread.sleep(50);
+        assertFalse(poll.isDone());
+
+        broker.submitTask(task(42, Priority.LOW));
+
+        assertEquals(List.of(new PolledTask(42L, Priority.LOW)), poll.get(1, TimeUnit.SECONDS));
+    }
+
+    private PostgresTaskBroker broker(String workerId, long visibilityTimeoutMs) {
+        PostgresTaskBroker broker = new PostgresTaskBroker(jdbcTemplate, transactionManager, messageCapture,
+            workerId, visibilityTimeoutMs, WEIGHTS);
+        broker.init();
+        return broker;
+    }
+
+    private static List<Long> drain(PostgresTaskBroker broker) {
+        List<Long> claimed = new ArrayList<>();
+        List<PolledTask> polled;
+        while (!(polled = broker.poll(50, Duration.ZERO)).isEmpty()) {
+            List<Long> ids = polled.stream().map(PolledTask::taskId).toList();
+            claimed.addAll(ids);
+            broker.acknowledge(ids);
+        }
+        return claimed;
+    }
+
+    private long queued() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_queue", Long.class);
+    }
+
+    private static Task task(long id, Priority priority) {
+        Task task = new Task("payload-" + id, priority);
+        task.setId(id);
+        return task;
+    }
+}
@@ -0,0 +1,174 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.Task;
+import com.demo.scheduler.model.Task.Priority;
+import com.demo.scheduler.service.MessageCaptureService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for RedisStreamsTaskBroker and its scripts against a real Redis
+ * (7.x, as in docker-compose) on localhost:6379. Skipped when none is
+ * reachable.
+ */
+class RedisStreamsTaskBrokerTest {
+
+    private static final long MAX_LENGTH = 10;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private String queueName;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        boolean reachable;
+        try {
+            reachable = "PONG".equals(redisTemplate.execute(connection -> connection.ping(), true));
+        } catch (RuntimeException e) {
+            reachable = false;
+        }
+        assumeTrue(reachable, "Redis not reachable on localhost:6379");
+        queueName = "test-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queueName != null) {
+            for (Priority priority : Priority.values()) {
+                redisTemplate.delete(RedisStreamsTaskBroker.streamKey(queueName, priority));
+            }
+        }
+        connectionFactory.destroy();
+    }
+
+    @Test
+    @DisplayName("A poll shares its batch across the priority streams by weight")
+    void poll_sharesBatchByWeight() {
+        RedisStreamsTaskBroker broker = broker("worker-a", 30000);
+        List<Task> tasks = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 200; i++) {
+            for (Priority priority : Priority.values()) {
+                tasks.add(task(id++, priority));
+            }
+        }
+        broker.submitTasks(tasks);
+
+        Map<Priority, Integer> polled = new EnumMap<>(Priority.class);
+        broker.poll(120, Duration.ZERO).forEach(task -> polled.merge(task.priority(), 1, Integer::sum));
+        assertEquals(80, polled.get(Priority.HIGH));
+        assertEquals(30, polled.get(Priority.NORMAL));
+        assertEquals(10, polled.get(Priority.LOW));
+    }
+
+    @Test
+    @DisplayName("Entries nobody has read yet are never trimmed, however long the stream")
+    void trimming_keepsUnreadEntries() {
+        RedisStreamsTaskBroker broker = broker("worker-a", 30000);
+        broker.submitTasks(tasks(1, 300));
+
+        assertEquals(300, streamLength());
+        assertEquals(300, drain(broker, false).size());
+    }
+
+    @Test
+    @DisplayName("Entries read and acknowledged are trimmed once the stream passes max-length")
+    void trimming_dropsAcknowledgedEntries() {
+        RedisStreamsTaskBroker broker = broker("worker-a", 30000);
+        broker.submitTasks(tasks(1, 300));
+        drain(broker, true);
+
+        broker.submitTask(task(301, Priority.NORMAL));
+
+        assertTrue(streamLength() < 200, "acknowledged entries were not trimmed");
+        assertEquals(List.of(new PolledTask(301L, Priority.NORMAL)), broker.poll(10, Duration.ZERO));
+    }
+
+    @Test
+    @DisplayName("Pending entries survive trimming and are claimed by another consumer")
+    void trimming_keepsPendingEntries_claimedLater() {
+        RedisStreamsTaskBroker stuck = broker("worker-a", 30000);
+        RedisStreamsTaskBroker healthy = broker("worker-b", 0);
+        stuck.submitTasks(tasks(1, 300));
+        Set<Long> pending = new HashSet<>();
+        stuck.poll(50, Duration.ZERO).forEach(task -> pending.add(task.taskId()));
+        assertEquals(50, pending.size());
+        drain(healthy, true);
+
+        healthy.submitTask(task(301, Priority.NORMAL));
+        assertEquals(301, streamLength());
+
+        healthy.claimIdleEntries();
+        Set<Long> reclaimed = new HashSet<>();
+        healthy.poll(50, Duration.ZERO).forEach(task -> reclaimed.add(task.taskId()));
+        assertEquals(pending, reclaimed);
+    }
+
+    private RedisStreamsTaskBroker broker(String workerId, long visibilityTimeoutMs) {
+        RedisStreamsTaskBroker broker = new RedisStreamsTaskBroker(redisTemplate, new MessageCaptureService());
+        ReflectionTestUtils.setField(broker, "queueName", queueName);
+        ReflectionTestUtils.setField(broker, "group", "test-group");
+        ReflectionTestUtils.setField(broker, "maxLength", MAX_LENGTH);
+        ReflectionTestUtils.setField(broker, "claimBatchSize", 500);
+        ReflectionTestUtils.setField(broker, "workerId", workerId);
+        ReflectionTestUtils.setField(broker, "visibilityTimeoutMs", visibilityTimeoutMs);
+        ReflectionTestUtils.setField(broker, "priorityWeights", new int[] {8, 3, 1});
+        ReflectionTestUtils.setField(broker, "deadLetterMaxLength", 100L);
+        broker.init();
+        return broker;
+    }
+
+    private static List<Long> drain(RedisStreamsTaskBroker broker, boolean acknowledge) {
+        List<Long> taskIds = new ArrayList<>();
+        List<PolledTask> polled;
+        while (!(polled = broker.poll(100, Duration.ZERO)).isEmpty()) {
+            List<Long> ids = polled.stream().map(PolledTask::taskId).toList();
+            taskIds.addAll(ids);
+            if (acknowledge) {
+                broker.acknowledge(ids);
+            }
+        }
+        return taskIds;
+    }
+
+    private long streamLength() {
+        Long length = redisTemplate.opsForStream().size(RedisStreamsTaskBroker.streamKey(queueName, Priority.NORMAL));
+        return length != null ? length : 0;
+    }
+
+    private static List<Task> tasks(long fromId, long toId) {
+        List<Task> tasks = new ArrayList<>();
+        for (long id = fromId; id <= toId; id++) {
+            tasks.add(task(id, Priority.NORMAL));
+        }
+        return tasks;
+    }
+
+    private static Task task(long id, Priority priority) {
+        Task task = new Task("payload-" + id, priority);
+        task.setId(id);
+        return task;
+    }
+}
@@ -0,0 +1,108 @@
+package com.demo.scheduler.service.broker;
+
+import com.demo.scheduler.model.TaskEvent;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TaskEventAvroSerializer and TaskEventAvroDeserializer.
+ */
+class TaskEventAvroSerdeTest {
+
+    @TempDir
+    Path schemaDir;
+
+    @Test
+    @DisplayName("An event survives the round trip, read by a deserializer configured on its own")
+    void roundTrip() {
+        TaskEventAvroSerializer serializer = new TaskEventAvroSerializer();
+        serializer.configure(Map.of(TaskEventAvroSerializer.SCHEMA_DIR_CONFIG, schemaDir.toString()), false);
+        TaskEventAvroDeserializer deserializer = new TaskEventAvroDeserializer();
+        deserializer.configure(Map.of(TaskEventAvroSerializer.SCHEMA_DIR_CONFIG, schemaDir.toString()), false);
+
+        TaskEvent event = new TaskEvent(42L, "{\"a\":1}", "2026-01-01T00:00", 10);
+        event.setType("billing.charge");
+        byte[] bytes = serializer.serialize("t", event);
+
+        assertEquals(0, bytes[0]);
+        TaskEvent read = deserializer.deserialize("t", bytes);
+        assertEquals(42L, read.getTaskId());
+        assertEquals("{\"a\":1}", read.getPayload());
+        assertEquals("2026-01-01T00:00", read.getCreatedAt());
+        assertEquals(10, read.getPriority());
+        assertEquals("billing.charge", read.getType());
+    }
+
+    @Test
+    @DisplayName("A consumer with its own schema directory reads a producer of the same version")
+    void separateSchemaDirectories() {
+        Path producerDir = schemaDir.resolve("producer");
+        Path consumerDir = schemaDir.resolve("consumer");
+        TaskEventAvroSerializer serializer = new TaskEventAvroSerializer();
+        serializer.configure(Map.of(TaskEventAvroSerializer.SCHEMA_DIR_CONFIG, producerDir.toString()), false);
+        TaskEventAvroDeserializer deserializer = new TaskEventAvroDeserializer();
+        deserializer.configure(Map.of(TaskEventAvroSerializer.SCHEMA_DIR_CONFIG, consumerDir.toString()), false);
+
+        TaskEvent read = deserializer.deserialize("t", serializer.serialize("t", new TaskEvent(5L, "p", "c", 1)));
+
+        assertEquals(5L, read.getTaskId());
+        assertEquals(1, read.getPriority());
+    }
+
+    @Test
+    @DisplayName("JSON TaskEvents from older producers are still read")
+    void jsonFallback() {
+        TaskEventAvroDeserializer deserializer = new TaskEventAvroDeserializer(new LocalSchemaRegistry(schemaDir));
+        byte[] json = "{\"taskId\":7,\"payload\":\"p\",\"createdAt\":\"c\",\"priority\":null,\"type\":null}"
+            .getBytes(StandardCharsets.UTF_8);
+
+        TaskEvent read = deserializer.deserialize("t", json);
+        assertEquals(7L, read.getTaskId());
+        assertEquals("p", read.getPayload());
+        assertNull(read.getPriority());
+    }
+
+    @Test
+    @DisplayName("A record written with an older schema resolves, missing fields taking their defaults")
+    void olderWriterSchema() throws Exception {
+        Schema older = new Schema.Parser().parse("""
+            {"type": "record", "name": "TaskMessage", "namespace": "com.demo.scheduler.avro", "fields": [
+              {"name": "taskId", "type": "long"},
+              {"name": "payload", "type": "string"},
+              {"name": "createdAt", "type": "string"}
+            ]}""");
+        LocalSchemaRegistry registry = new LocalSchemaRegistry(schemaDir);
+        int schemaId = registry.register(older);
+
+        GenericRecord record = new GenericData.Record(older);
+        record.put("taskId", 9L);
+        record.put("payload", "p");
+        record.put("createdAt", "c");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0);
+        out.write(ByteBuffer.allocate(4).putInt(schemaId).array());
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+        new GenericDatumWriter<GenericRecord>(older).write(record, encoder);
+        encoder.flush();
+
+        TaskEvent read = new TaskEventAvroDeserializer(new LocalSchemaRegistry(schemaDir)).deserialize("t", out.toByteArray());
+        assertEquals(9L, read.getTaskId());
+        assertNull(read.getPriority());
+        assertNull(read.getType());
+    }
+}
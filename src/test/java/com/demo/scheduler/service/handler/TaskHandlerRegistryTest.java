@@ -0,0 +1,139 @@
+package com.demo.scheduler.service.handler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TaskHandlerRegistry.
+ */
+class TaskHandlerRegistryTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger slowRunning = new AtomicInteger();
+    private final AtomicInteger slowPeak = new AtomicInteger();
+
+    private final TaskHandler slow = new TaskHandler() {
+        @Override
+        public String type() {
+            return "slow";
+        }
+
+        @Override
+        public void handle(Long taskId, String payload) throws InterruptedException {
+            slowPeak.accumulateAndGet(slowRunning.incrementAndGet(), Math::max);
+            release.await();
+            slowRunning.decrementAndGet();
+        }
+
+        @Override
+        public int maxConcurrency() {
+            return 3;
+        }
+    };
+
+    private final TaskHandler fast = new TaskHandler() {
+        @Override
+        public String type() {
+            return "fast";
+        }
+
+        @Override
+        public void handle(Long taskId, String payload) {
+            if ("bad".equals(payload)) {
+                throw new IllegalStateException("bad payload");
+            }
+        }
+
+        @Override
+        public Mode mode() {
+            return Mode.CPU_BOUND;
+        }
+    };
+
+    private TaskHandlerRegistry registry;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        if (registry != null) {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("A saturated type does not hold up other types")
+    void slowType_doesNotStarveOthers() throws Exception {
+        registry = new TaskHandlerRegistry(List.of(slow, fast), new MockEnvironment(), 2);
+
+        List<CompletableFuture<Void>> slowTasks = new ArrayList<>();
+        for (long id = 0; id < 50; id++) {
+            slowTasks.add(registry.execute("slow", id, "x"));
+        }
+        for (long id = 0; id < 1_000; id++) {
+            registry.execute("fast", id, "x").get(1, TimeUnit.SECONDS);
+        }
+        awaitRunning(3);
+
+        assertEquals(3, slowPeak.get());
+        assertEquals(47, registry.getBacklog().get("slow"));
+
+        release.countDown();
+        CompletableFuture.allOf(slowTasks.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(3, slowPeak.get());
+        assertEquals(0, registry.getBacklog().get("slow"));
+    }
+
+    @Test
+    @DisplayName("Configured max-concurrency overrides the handler default")
+    void maxConcurrency_configurable() throws Exception {
+        MockEnvironment environment = new MockEnvironment().withProperty("scheduler.handlers.slow.max-concurrency", "5");
+        registry = new TaskHandlerRegistry(List.of(slow), environment, 0);
+
+        for (long id = 0; id < 20; id++) {
+            registry.execute("slow", id, "x");
+        }
+        awaitRunning(5);
+        assertEquals(5, slowPeak.get());
+        assertEquals(15, registry.getBacklog().get("slow"));
+    }
+
+    @Test
+    @DisplayName("Handler exceptions and unknown types fail the returned future")
+    void failures_surfaceInFuture() {
+        registry = new TaskHandlerRegistry(List.of(fast), new MockEnvironment(), 0);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class,
+            () -> registry.execute("fast", 1L, "bad").get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+
+        thrown = assertThrows(ExecutionException.class,
+            () -> registry.execute("unknown", 1L, "x").get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, thrown.getCause());
+        assertFalse(registry.hasHandler("unknown"));
+    }
+
+    private void awaitRunning(int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && slowRunning.get() < expected; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Two handlers for one type are rejected at startup")
+    void duplicateType_rejected() {
+        assertThrows(IllegalStateException.class,
+            () -> new TaskHandlerRegistry(List.of(fast, fast), new MockEnvironment(), 0));
+    }
+}